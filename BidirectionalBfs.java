@@ -0,0 +1,188 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           BidirectionalBfs.java
+//Description:     Shortest path search which grows a breadth first search
+//				   from each end until the two meet.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   BidirectionalBfs.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Bidirectional breadth first search over a {@link CompactGraph}.
+ *
+ * One search grows from the source and one from the target, a whole level at
+ * a time, always on the side whose frontier has fewer edges. As soon as a
+ * level reaches a vertex the other side has reached, the best meeting point of
+ * that level gives a shortest path. If the two ends are d edges apart and the
+ * vertices have b new neighbors each, the searches reach about 2 b^(d/2)
+ * vertices instead of the b^d of a search from one end, which is what makes
+ * point to point queries affordable on graphs too large to search or
+ * precompute as a whole.
+ *
+ * Each side uses a {@link SearchWorkspace}, checked out by the constructor and
+ * returned by {@link #close()}. An instance is not thread-safe and must be
+ * closed by the thread that created it.
+ */
+public class BidirectionalBfs implements AutoCloseable {
+
+    private final CompactGraph graph;
+    private final SearchWorkspace forward;
+    private final SearchWorkspace backward;
+
+    // size of the frontier built by the last expand
+    private int nextSize;
+
+    // neighbor checks of the last search, for benchmarks
+    private long edgeChecks;
+
+    /**
+     * Constructor for BidirectionalBfs objects
+     * @param graph graph to search
+     */
+    public BidirectionalBfs(CompactGraph graph) {
+        this.graph = graph;
+        this.forward = SearchWorkspace.acquire(graph.vertexCount());
+        this.backward = SearchWorkspace.acquire(graph.vertexCount());
+    }
+
+    /**
+     * Returns the workspaces to the pool of the thread
+     */
+    @Override
+    public void close() {
+        backward.close();
+        forward.close();
+    }
+
+    /**
+     * Finds a shortest path
+     *
+     * @param source id of the first vertex
+     * @param target id of the last vertex
+     * @return ids of the path from source to target, empty if there is none
+     */
+    public int[] path(int source, int target) {
+
+        edgeChecks = 0;
+        forward.begin();
+        backward.begin();
+        forward.reach(source, 0, source);
+        backward.reach(target, 0, target);
+        if (source == target) {
+            return new int[] { source };
+        }
+
+        int forwardSize = 1;
+        int backwardSize = 1;
+        forward.queue[0] = source;
+        backward.queue[0] = target;
+        long forwardEdges = graph.degree(source);
+        long backwardEdges = graph.degree(target);
+
+        while (forwardSize > 0 && backwardSize > 0) {
+            boolean fromSource = forwardEdges <= backwardEdges;
+            SearchWorkspace side = fromSource ? forward : backward;
+            SearchWorkspace other = fromSource ? backward : forward;
+            int size = fromSource ? forwardSize : backwardSize;
+
+            int meeting = expand(side, other, size);
+            if (meeting >= 0) {
+                return join(meeting);
+            }
+            int[] tmp = side.queue;
+            side.queue = side.nextQueue;
+            side.nextQueue = tmp;
+
+            long edges = 0;
+            int next = nextSize;
+            for (int i = 0; i < next; i++) {
+                edges += graph.degree(side.queue[i]);
+            }
+            if (fromSource) {
+                forwardSize = next;
+                forwardEdges = edges;
+            } else {
+                backwardSize = next;
+                backwardEdges = edges;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Expands a whole level of one side
+     *
+     * @param side the side to expand, its frontier in queue
+     * @param other the other side
+     * @param size number of vertices of the frontier
+     * @return the meeting vertex on the shortest path through this level, or -1
+     * if the level did not reach the other side; the next frontier is left in
+     * nextQueue and its size in nextSize
+     */
+    private int expand(SearchWorkspace side, SearchWorkspace other, int size) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] queue = side.queue;
+        int[] nextQueue = side.nextQueue;
+        int next = 0;
+        int meeting = -1;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int v = queue[i];
+            int level = side.distance[v] + 1;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                edgeChecks++;
+                int w = targets[e];
+                if (side.isReached(w)) {
+                    continue;
+                }
+                side.reach(w, level, v);
+                nextQueue[next++] = w;
+                if (other.isReached(w) && level + other.distance[w] < best) {
+                    best = level + other.distance[w];
+                    meeting = w;
+                }
+            }
+        }
+        nextSize = next;
+        return meeting;
+    }
+
+    /**
+     * Joins the halves of the path at a vertex both sides reached
+     * @param meeting the vertex
+     * @return ids of the path from the source to the target
+     */
+    private int[] join(int meeting) {
+        int[] first = forward.pathTo(meeting);
+        int length = first.length + backward.distance[meeting];
+        int[] path = Arrays.copyOf(first, length);
+        int at = first.length;
+        for (int v = meeting; v != backward.parent[v]; v = backward.parent[v]) {
+            path[at++] = backward.parent[v];
+        }
+        return path;
+    }
+
+    /**
+     * Returns how many times the last search looked at an edge
+     * @return the number of edge checks
+     */
+    public long edgeChecks() {
+        return edgeChecks;
+    }
+}
@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           BinaryHeapQueue.java
+//Description:     Priority queue of vertex ids for keys of any size, used by
+//				   the weighted shortest path search for large edge weights.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   BinaryHeapQueue.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Priority queue of the ints 0..n-1 as a binary heap in an int array, with the
+ * position of each element kept so a key can be lowered in place.
+ * 
+ * Insert, decrease-key and extract-min are O(log n) whatever the keys are,
+ * where a {@link BucketQueue} needs one bucket per possible edge weight. Like
+ * the bucket queue it never allocates after construction.
+ */
+class BinaryHeapQueue implements VertexQueue {
+
+    private static final int NONE = -1;
+
+    // heap[0..size) ordered by key, the smallest first
+    private final int[] heap;
+
+    // index of each element in heap, NONE while it is not queued
+    private final int[] position;
+
+    // key of each element, only meaningful while it is queued
+    private final int[] keys;
+
+    private int size;
+
+    /**
+     * Constructor for BinaryHeapQueue objects
+     * @param capacity elements are the ints 0..capacity-1
+     */
+    BinaryHeapQueue(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new int[capacity];
+        Arrays.fill(position, NONE);
+    }
+
+    @Override
+    public void insertOrDecrease(int element, int key) {
+        int index = position[element];
+        if (index == NONE) {
+            index = size++;
+        } else if (key >= keys[element]) {
+            return;
+        }
+        keys[element] = key;
+        //moves the hole up to where the element belongs
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(element, index);
+    }
+
+    @Override
+    public int extractMin() {
+        if (size == 0) {
+            return NONE;
+        }
+        int min = heap[0];
+        position[min] = NONE;
+        int last = heap[--size];
+        if (size > 0) {
+            //moves the hole at the root down to where the last element belongs
+            int key = keys[last];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                    child++;
+                }
+                if (key <= keys[heap[child]]) {
+                    break;
+                }
+                place(heap[child], index);
+                index = child;
+            }
+            place(last, index);
+        }
+        return min;
+    }
+
+    @Override
+    public int key(int element) {
+        return keys[element];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = NONE;
+        }
+        size = 0;
+    }
+
+    private void place(int element, int index) {
+        heap[index] = element;
+        position[element] = index;
+    }
+}
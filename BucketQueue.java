@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           BucketQueue.java
+//Description:     Monotone priority queue of vertex ids for small integer
+//				   keys, used by the weighted shortest path search.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   BucketQueue.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Priority queue of the ints 0..n-1 for Dijkstra's algorithm with edge
+ * weights between 1 and C (Dial's algorithm).
+ * 
+ * While Dijkstra's algorithm runs, every key in the queue lies between the
+ * smallest key m and m + C, so C + 1 buckets used as a circular array are
+ * enough: bucket key % (C + 1) holds every element with that key. The buckets
+ * are doubly linked lists threaded through the int arrays next and previous,
+ * which makes insert and decrease-key O(1) and extract-min amortized O(1 + C / n)
+ * per element, and the queue never allocates after construction.
+ * 
+ * The keys must be inserted in a monotone way: a key is never smaller than the
+ * key last extracted.
+ */
+public class BucketQueue implements VertexQueue {
+
+    private static final int NONE = -1;
+
+    // first element of each bucket, NONE if the bucket is empty
+    private final int[] heads;
+
+    // links of the bucket lists, indexed by element
+    private final int[] next;
+    private final int[] previous;
+
+    // key of each element, only meaningful while it is queued
+    private final int[] keys;
+
+    // true while the element is in the queue
+    private final boolean[] queued;
+
+    // no element has a key smaller than cursor
+    private int cursor;
+
+    private int size;
+
+    /**
+     * Constructor for BucketQueue objects
+     * @param capacity elements are the ints 0..capacity-1
+     * @param maxStep C, the largest difference between a key and the smallest key
+     */
+    public BucketQueue(int capacity, int maxStep) {
+        this.heads = new int[maxStep + 1];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.keys = new int[capacity];
+        this.queued = new boolean[capacity];
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Inserts an element, or lowers its key if it is already queued
+     * @param element element to insert
+     * @param key key of the element
+     */
+    public void insertOrDecrease(int element, int key) {
+        if (queued[element]) {
+            if (key >= keys[element]) {
+                return;
+            }
+            unlink(element);
+        } else {
+            queued[element] = true;
+            size++;
+        }
+        keys[element] = key;
+        int bucket = key % heads.length;
+        previous[element] = NONE;
+        next[element] = heads[bucket];
+        if (heads[bucket] != NONE) {
+            previous[heads[bucket]] = element;
+        }
+        heads[bucket] = element;
+    }
+
+    /**
+     * Removes the element with the smallest key
+     * @return the element, or -1 if the queue is empty
+     */
+    public int extractMin() {
+        if (size == 0) {
+            return NONE;
+        }
+        while (heads[cursor % heads.length] == NONE) {
+            cursor++;
+        }
+        int element = heads[cursor % heads.length];
+        unlink(element);
+        queued[element] = false;
+        size--;
+        return element;
+    }
+
+    /**
+     * Returns the key of an element
+     * @param element a queued or just extracted element
+     * @return the key it was queued with
+     */
+    public int key(int element) {
+        return keys[element];
+    }
+
+    /**
+     * Determines whether the queue is empty
+     * @return true if no element is queued
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the queue so it can be used for a new search
+     */
+    public void clear() {
+        while (size > 0) {
+            extractMin();
+        }
+        cursor = 0;
+    }
+
+    private void unlink(int element) {
+        int bucket = keys[element] % heads.length;
+        if (previous[element] == NONE) {
+            heads[bucket] = next[element];
+        } else {
+            next[previous[element]] = next[element];
+        }
+        if (next[element] != NONE) {
+            previous[next[element]] = previous[element];
+        }
+    }
+}
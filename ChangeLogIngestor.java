@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           ChangeLogIngestor.java
+//Description:     Tails an append-only log of dictionary changes and applies
+//				   them to a GraphProcessor in micro-batches.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   ChangeLogIngestor.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Keeps a {@link GraphProcessor} up to date with an append-only change log, so
+ * the whole dictionary does not have to be loaded again when a few words change.
+ *
+ * Every line of the log is either +WORD (add the word) or -WORD (remove it).
+ * Blank lines are ignored, other lines are skipped. A line only counts once
+ * its line break was written, a half written last line is read again by the
+ * next poll.
+ *
+ * Up to maxBatchLines lines are read at a time and applied as one batch
+ * {@link GraphProcessor#applyChanges(java.util.Collection, java.util.Collection)}.
+ * Since the graph only depends on which words are in it, only the last change
+ * of each word in a batch is applied. The applied offset is the byte position in the
+ * log up to which every change was applied: a restarted ingestor created with that
+ * offset picks up exactly where the previous one stopped.
+ */
+public class ChangeLogIngestor implements Runnable {
+
+    /**
+     * Default number of lines applied as one batch
+     */
+    public static final int DEFAULT_BATCH_LINES = 1024;
+
+    /**
+     * Default time to wait for new lines once the end of the log was reached, in milliseconds
+     */
+    public static final long DEFAULT_POLL_MILLIS = 500;
+
+    /**
+     * Size of the buffer lines are read through
+     */
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final GraphProcessor processor;
+    private final Path log;
+    private final int maxBatchLines;
+    private final long pollMillis;
+
+    /**
+     * Byte position in the log up to which every change was applied
+     */
+    private volatile long appliedOffset;
+
+    /**
+     * Set to stop {@link #run()}
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Creates an ingestor with the default batch size and poll interval
+     *
+     * @param processor the processor the changes are applied to
+     * @param log path to the change log
+     * @param startOffset byte position in the log to start reading from, 0 or an earlier {@link #getAppliedOffset()}
+     */
+    public ChangeLogIngestor(GraphProcessor processor, Path log, long startOffset) {
+        this(processor, log, startOffset, DEFAULT_BATCH_LINES, DEFAULT_POLL_MILLIS);
+    }
+
+    /**
+     * Creates an ingestor
+     *
+     * @param processor the processor the changes are applied to
+     * @param log path to the change log
+     * @param startOffset byte position in the log to start reading from, 0 or an earlier {@link #getAppliedOffset()}
+     * @param maxBatchLines largest number of lines applied as one batch, at least 1
+     * @param pollMillis time {@link #run()} waits for new lines once it reached the end of the log
+     */
+    public ChangeLogIngestor(GraphProcessor processor, Path log, long startOffset, int maxBatchLines, long pollMillis) {
+        if (startOffset < 0) {
+            throw new IllegalArgumentException("startOffset must not be negative: " + startOffset);
+        }
+        if (maxBatchLines < 1) {
+            throw new IllegalArgumentException("maxBatchLines must be at least 1: " + maxBatchLines);
+        }
+        if (pollMillis < 0) {
+            throw new IllegalArgumentException("pollMillis must not be negative: " + pollMillis);
+        }
+        this.processor = processor;
+        this.log = log;
+        this.appliedOffset = startOffset;
+        this.maxBatchLines = maxBatchLines;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Gets the byte position in the log up to which every change was applied
+     *
+     * @return the offset to restart from
+     */
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    /**
+     * Applies every complete line written to the log since the applied offset,
+     * one batch of at most maxBatchLines lines at a time
+     *
+     * @return the number of words actually added or removed, -1 if the log could not be read
+     */
+    public int poll() {
+        if (!Files.exists(log)) {
+            return 0;
+        }
+        int changed = 0;
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+            byte[] line = new byte[128];
+            int lineLength = 0;
+            List<String> batch = new ArrayList<String>();
+            long position = appliedOffset;
+            long batchEnd = position;
+
+            while (!stopped) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    position++;
+                    if (b != '\n') {
+                        if (lineLength == line.length) {
+                            byte[] grown = new byte[line.length * 2];
+                            System.arraycopy(line, 0, grown, 0, lineLength);
+                            line = grown;
+                        }
+                        line[lineLength++] = b;
+                        continue;
+                    }
+                    batch.add(new String(line, 0, lineLength, StandardCharsets.UTF_8));
+                    lineLength = 0;
+                    batchEnd = position;
+                    if (batch.size() == maxBatchLines) {
+                        changed += apply(batch);
+                        appliedOffset = batchEnd;
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                changed += apply(batch);
+                appliedOffset = batchEnd;
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return changed;
+    }
+
+    /**
+     * Polls the log until {@link #stop()} is called, waiting pollMillis whenever
+     * there was nothing new to apply
+     */
+    @Override
+    public void run() {
+        while (!stopped) {
+            long before = appliedOffset;
+            poll();
+            if (appliedOffset == before && !stopped) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes {@link #run()} return after the batch it is applying
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Applies a batch of lines, keeping only the last change of each word
+     *
+     * @param lines the lines of the batch, without line breaks
+     * @return the number of words actually added or removed
+     */
+    private int apply(List<String> lines) {
+        Map<String, Boolean> last = new LinkedHashMap<String, Boolean>();
+        WordNormalizer normalizer = processor.getWordNormalizer();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.length() < 2) {
+                continue;
+            }
+            char op = line.charAt(0);
+            String word = normalizer.normalize(line.substring(1));
+            if (word.isEmpty() || (op != '+' && op != '-')) {
+                continue;
+            }
+            last.remove(word);
+            last.put(word, op == '+');
+        }
+
+        List<String> added = new ArrayList<String>();
+        List<String> removed = new ArrayList<String>();
+        for (Map.Entry<String, Boolean> change : last.entrySet()) {
+            if (change.getValue()) {
+                added.add(change.getKey());
+            } else {
+                removed.add(change.getKey());
+            }
+        }
+        return processor.applyChanges(added, removed);
+    }
+}
@@ -0,0 +1,480 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           CompactGraph.java
+//Description:     Read-only snapshot of a word graph with vertices numbered
+//				   0..n-1 and the adjacency stored in flat int arrays.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, FrontCodedVocabulary.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Immutable snapshot of a {@link GraphADT} in compressed sparse row (CSR) form.
+ * 
+ * The vertices are numbered 0..n-1 in lexicographic order of their labels,
+ * unless the snapshot was renumbered with {@link #permute(int[])}. The
+ * neighbors of vertex v are targets[offsets[v]] .. targets[offsets[v + 1] - 1],
+ * sorted by id, and weights[e] is the weight of the edge stored at targets[e].
+ * Every undirected edge is stored once in each direction.
+ * 
+ * The labels are kept in a {@link FrontCodedVocabulary}, which maps them to
+ * their lexicographic rank in a few bytes per label. While the ids follow that
+ * order the rank is the id; after a renumbering two int arrays translate.
+ * 
+ * The search engines work on vertex ids and these arrays only, so a search does
+ * not create an object per vertex it visits. The arrays are shared with the
+ * engines and must not be modified.
+ */
+public class CompactGraph {
+
+    private final FrontCodedVocabulary vocabulary;
+
+    /**
+     * idOfRank[r] is the id of the label of rank r and rankOfId its inverse,
+     * both null while the ids follow the lexicographic order
+     */
+    private final int[] idOfRank;
+    private final int[] rankOfId;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int maxWeight;
+
+    /**
+     * True while the ids follow the lexicographic order of the labels
+     */
+    private final boolean lexicographic;
+
+    /**
+     * Constructor for CompactGraph objects, use {@link #of(GraphADT)}
+     */
+    private CompactGraph(String[] labels, int[] offsets, int[] targets, int[] weights,
+            boolean lexicographic) {
+        this.lexicographic = lexicographic;
+        if (lexicographic) {
+            this.vocabulary = FrontCodedVocabulary.of(labels);
+            this.idOfRank = null;
+            this.rankOfId = null;
+        } else {
+            String[] sorted = labels.clone();
+            Arrays.sort(sorted);
+            this.vocabulary = FrontCodedVocabulary.of(sorted);
+            this.idOfRank = new int[labels.length];
+            this.rankOfId = new int[labels.length];
+            for (int id = 0; id < labels.length; id++) {
+                int rank = Arrays.binarySearch(sorted, labels[id]);
+                idOfRank[rank] = id;
+                rankOfId[id] = rank;
+            }
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        int max = 1;
+        for (int weight : weights) {
+            max = Math.max(max, weight);
+        }
+        this.maxWeight = max;
+    }
+
+    /**
+     * Takes a snapshot of a graph. Edge weights are copied if the graph is a
+     * {@link WeightedGraphADT}, otherwise every edge has a weight of 1.
+     * 
+     * @param graph graph to copy
+     * @return the snapshot
+     */
+    public static CompactGraph of(GraphADT<String> graph) {
+
+        List<String> vertexList = new ArrayList<String>();
+        for (String vertex : graph.getAllVertices()) {
+            vertexList.add(vertex);
+        }
+        String[] labels = vertexList.toArray(new String[0]);
+        Arrays.sort(labels);
+
+        Map<String, Integer> ids = new HashMap<String, Integer>(labels.length * 2);
+        for (int i = 0; i < labels.length; i++) {
+            ids.put(labels[i], i);
+        }
+
+        WeightedGraphADT<String> weighted = graph instanceof WeightedGraphADT
+                ? (WeightedGraphADT<String>) graph : null;
+
+        int[] offsets = new int[labels.length + 1];
+        int[] targets = new int[16];
+        int[] weights = new int[16];
+        int edge = 0;
+        for (int v = 0; v < labels.length; v++) {
+            int first = edge;
+            for (String neighbor : graph.getNeighbors(labels[v])) {
+                if (edge == targets.length) {
+                    targets = Arrays.copyOf(targets, edge * 2);
+                    weights = Arrays.copyOf(weights, edge * 2);
+                }
+                targets[edge] = ids.get(neighbor);
+                weights[edge] = weighted == null ? 1 : weighted.getEdgeWeight(labels[v], neighbor);
+                edge++;
+            }
+            sortRange(targets, weights, first, edge);
+            offsets[v + 1] = edge;
+        }
+
+        return new CompactGraph(labels, offsets, Arrays.copyOf(targets, edge),
+                Arrays.copyOf(weights, edge), true);
+    }
+
+    /**
+     * Takes a snapshot of the graph after some vertices were removed from it and
+     * others added, from this snapshot and the changes alone. This lets the new
+     * snapshot be built without reading the graph, while the graph is being
+     * changed further or this snapshot is still being searched.
+     * 
+     * A vertex which is both removed and added comes back with only the edges
+     * given for it in added. If this snapshot was renumbered, the vertices which
+     * are kept stay in the same order and the added ones follow them.
+     * 
+     * @param removed labels of the removed vertices, with all their edges
+     * @param added for each added vertex, the weight of the edge to each of its
+     * neighbors; each edge only needs to be listed under one of its ends
+     * @return the new snapshot
+     */
+    public CompactGraph withChanges(Set<String> removed, Map<String, Map<String, Integer>> added) {
+
+        // merge the surviving labels with the added ones, both sorted
+        String[] labels = labelsById();
+        String[] addedLabels = added.keySet().toArray(new String[0]);
+        Arrays.sort(addedLabels);
+        String[] newLabels = new String[labels.length + addedLabels.length];
+        int[] newIdOfOld = new int[labels.length];
+        int count = 0;
+        int a = 0;
+        for (int v = 0; v < labels.length; v++) {
+            boolean kept = !removed.contains(labels[v]) && !added.containsKey(labels[v]);
+            newIdOfOld[v] = -1;
+            if (!kept) {
+                continue;
+            }
+            while (lexicographic && a < addedLabels.length && addedLabels[a].compareTo(labels[v]) < 0) {
+                newLabels[count++] = addedLabels[a++];
+            }
+            newIdOfOld[v] = count;
+            newLabels[count++] = labels[v];
+        }
+        while (a < addedLabels.length) {
+            newLabels[count++] = addedLabels[a++];
+        }
+        newLabels = Arrays.copyOf(newLabels, count);
+
+        Map<String, Integer> newIds = new HashMap<String, Integer>(count * 2);
+        for (int i = 0; i < count; i++) {
+            newIds.put(newLabels[i], i);
+        }
+
+        // the added edges, in both directions, as parallel arrays
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] weight = new int[16];
+        int extra = 0;
+        for (Map.Entry<String, Map<String, Integer>> vertex : added.entrySet()) {
+            int u = newIds.get(vertex.getKey());
+            for (Map.Entry<String, Integer> edge : vertex.getValue().entrySet()) {
+                Integer w = newIds.get(edge.getKey());
+                Map<String, Integer> reverse = added.get(edge.getKey());
+                if (w == null || w == u || (reverse != null && reverse.containsKey(vertex.getKey())
+                        && vertex.getKey().compareTo(edge.getKey()) > 0)) {
+                    continue; // neighbor gone, self loop, or listed under both ends
+                }
+                if (extra + 2 > from.length) {
+                    from = Arrays.copyOf(from, from.length * 2);
+                    to = Arrays.copyOf(to, to.length * 2);
+                    weight = Arrays.copyOf(weight, weight.length * 2);
+                }
+                from[extra] = u;
+                to[extra] = w;
+                weight[extra++] = edge.getValue();
+                from[extra] = w;
+                to[extra] = u;
+                weight[extra++] = edge.getValue();
+            }
+        }
+
+        // degrees, then offsets, then fill in the old and the added edges
+        int[] newOffsets = new int[count + 1];
+        for (int v = 0; v < labels.length; v++) {
+            if (newIdOfOld[v] < 0) {
+                continue;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (newIdOfOld[targets[e]] >= 0) {
+                    newOffsets[newIdOfOld[v] + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < extra; i++) {
+            newOffsets[from[i] + 1]++;
+        }
+        for (int v = 0; v < count; v++) {
+            newOffsets[v + 1] += newOffsets[v];
+        }
+
+        int[] fill = Arrays.copyOf(newOffsets, count);
+        int[] newTargets = new int[newOffsets[count]];
+        int[] newWeights = new int[newOffsets[count]];
+        for (int v = 0; v < labels.length; v++) {
+            int nv = newIdOfOld[v];
+            if (nv < 0) {
+                continue;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int nw = newIdOfOld[targets[e]];
+                if (nw >= 0) {
+                    newTargets[fill[nv]] = nw;
+                    newWeights[fill[nv]++] = weights[e];
+                }
+            }
+        }
+        for (int i = 0; i < extra; i++) {
+            newTargets[fill[from[i]]] = to[i];
+            newWeights[fill[from[i]]++] = weight[i];
+        }
+        for (int v = 0; v < count; v++) {
+            sortRange(newTargets, newWeights, newOffsets[v], newOffsets[v + 1]);
+        }
+
+        return new CompactGraph(newLabels, newOffsets, newTargets, newWeights, lexicographic);
+    }
+
+    /**
+     * Renumbers the vertices, {@link VertexOrder} computes orders which keep the
+     * neighbors of a vertex close to it
+     * 
+     * @param newIdOf newIdOf[v] is the new id of the vertex with id v, a permutation of 0..n-1
+     * @return the renumbered snapshot, with the same labels and edges
+     */
+    public CompactGraph permute(int[] newIdOf) {
+
+        String[] labels = labelsById();
+        int n = labels.length;
+        if (newIdOf.length != n) {
+            throw new IllegalArgumentException("permutation of " + newIdOf.length + " ids for " + n + " vertices");
+        }
+        int[] oldIdOf = new int[n];
+        Arrays.fill(oldIdOf, -1);
+        boolean identity = true;
+        for (int v = 0; v < n; v++) {
+            int nv = newIdOf[v];
+            if (nv < 0 || nv >= n || oldIdOf[nv] >= 0) {
+                throw new IllegalArgumentException("not a permutation, at id " + v);
+            }
+            oldIdOf[nv] = v;
+            identity &= nv == v;
+        }
+
+        String[] newLabels = new String[n];
+        int[] newOffsets = new int[n + 1];
+        int[] newTargets = new int[targets.length];
+        int[] newWeights = new int[weights.length];
+        for (int nv = 0; nv < n; nv++) {
+            int v = oldIdOf[nv];
+            newLabels[nv] = labels[v];
+            int at = newOffsets[nv];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                newTargets[at] = newIdOf[targets[e]];
+                newWeights[at++] = weights[e];
+            }
+            sortRange(newTargets, newWeights, newOffsets[nv], at);
+            newOffsets[nv + 1] = at;
+        }
+
+        boolean sorted = lexicographic && identity;
+        if (!sorted) {
+            sorted = true;
+            for (int v = 1; v < n && sorted; v++) {
+                sorted = newLabels[v - 1].compareTo(newLabels[v]) < 0;
+            }
+        }
+        return new CompactGraph(newLabels, newOffsets, newTargets, newWeights, sorted);
+    }
+
+    /**
+     * Decodes all labels at once, for building a new snapshot or writing it out
+     * @return labels[v] is the label of the vertex with id v
+     */
+    String[] labelsById() {
+        String[] words = vocabulary.words();
+        if (lexicographic) {
+            return words;
+        }
+        String[] labels = new String[words.length];
+        for (int rank = 0; rank < words.length; rank++) {
+            labels[idOfRank[rank]] = words[rank];
+        }
+        return labels;
+    }
+
+    /**
+     * Sorts targets[from..to) and moves the weights along with them. Adjacency
+     * lists are short, so an insertion sort is enough.
+     */
+    private static void sortRange(int[] targets, int[] weights, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int target = targets[i];
+            int weight = weights[i];
+            int j = i - 1;
+            while (j >= from && targets[j] > target) {
+                targets[j + 1] = targets[j];
+                weights[j + 1] = weights[j];
+                j--;
+            }
+            targets[j + 1] = target;
+            weights[j + 1] = weight;
+        }
+    }
+
+    /**
+     * Returns the number of vertices
+     * @return n, vertices are numbered 0..n-1
+     */
+    public int vertexCount() {
+        return vocabulary.size();
+    }
+
+    /**
+     * Returns the number of undirected edges
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Estimates the heap bytes of the snapshot {@link MemoryAccount}
+     * @return the estimated bytes of the arrays and of the vocabulary
+     */
+    public long estimatedBytes() {
+        long bytes = MemoryAccount.object(6 * MemoryAccount.REFERENCE + 4 + 1);
+        bytes += MemoryAccount.intArray(offsets.length) + MemoryAccount.intArray(targets.length);
+        bytes += MemoryAccount.intArray(weights.length);
+        bytes += idOfRank == null ? 0 : 2 * MemoryAccount.intArray(idOfRank.length);
+        return bytes + vocabulary.estimatedBytes();
+    }
+
+    /**
+     * Returns the id of a vertex
+     * @param label label of the vertex
+     * @return the id of the vertex, or -1 if there is no such vertex
+     */
+    public int id(String label) {
+        int rank = label == null ? -1 : vocabulary.rank(label);
+        return rank < 0 || lexicographic ? rank : idOfRank[rank];
+    }
+
+    /**
+     * Returns the label of a vertex
+     * @param id id of the vertex
+     * @return the label of the vertex
+     */
+    public String label(int id) {
+        return vocabulary.word(lexicographic ? id : rankOfId[id]);
+    }
+
+    /**
+     * Returns the number of neighbors of a vertex
+     * @param id id of the vertex
+     * @return the degree of the vertex
+     */
+    public int degree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Streams the vertex ids, SIZED and SUBSIZED like every stream over a range
+     * @return the ids 0..n-1
+     */
+    public IntStream vertexStream() {
+        return IntStream.range(0, vertexCount());
+    }
+
+    /**
+     * Streams the neighbors of a vertex straight from the targets array
+     * @param id id of the vertex
+     * @return the ids of the neighbors, in the order they are stored
+     */
+    public IntStream neighborStream(int id) {
+        return Arrays.stream(targets, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * Returns the largest edge weight
+     * @return the largest weight, 1 for an unweighted graph
+     */
+    public int maxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns the offsets array, the edges of v are offsets[v] .. offsets[v + 1] - 1
+     * @return the offsets array, of length n + 1
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the targets array, targets[e] is the vertex edge e leads to
+     * @return the targets array
+     */
+    int[] targets() {
+        return targets;
+    }
+
+    /**
+     * Returns the weights array, weights[e] is the weight of edge e
+     * @return the weights array
+     */
+    int[] weights() {
+        return weights;
+    }
+
+    /**
+     * Returns the labels of the vertices
+     * @return the vocabulary, the rank of a label is its id unless the snapshot was renumbered
+     */
+    FrontCodedVocabulary vocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Converts a list of vertex ids to their labels
+     * @param path ids of the vertices
+     * @return list of the labels of the vertices, in the same order
+     */
+    public List<String> labels(int[] path) {
+        List<String> list = new ArrayList<String>(path.length);
+        for (int id : path) {
+            list.add(label(id));
+        }
+        return list;
+    }
+}
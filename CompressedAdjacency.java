@@ -0,0 +1,299 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           CompressedAdjacency.java
+//Description:     Read-only adjacency lists of a word graph, stored as
+//				   gap-encoded variable length integers.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, CompressedAdjacency.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The adjacency of a {@link CompactGraph} in compressed form, for traversals
+ * of graphs too large to keep 4 bytes per neighbor.
+ *
+ * Vertex ids follow the lexicographic order of the words, and the neighbors of
+ * a word mostly share its prefix, so they sit close to it and to each other.
+ * The sorted neighbors of v are stored as gaps: the first one as the zigzag
+ * encoded difference to v, every later one as the difference to the previous
+ * neighbor minus one. The degree of v and each gap are written as varints, 7
+ * bits per byte with the high bit set on every byte but the last, so most of
+ * them take one byte.
+ *
+ * Only the topology is kept, not the edge weights. Decoding does not allocate:
+ * either through a reusable {@link Cursor}, or in bulk with
+ * {@link #neighbors(int, int[])}.
+ */
+public class CompressedAdjacency {
+
+    /**
+     * starts[v] is the index in data of the degree of v, followed by its neighbors
+     */
+    private final int[] starts;
+
+    private final byte[] data;
+    private final int maxDegree;
+
+    /**
+     * Constructor for CompressedAdjacency objects, use {@link #of(CompactGraph)}
+     */
+    private CompressedAdjacency(int[] starts, byte[] data, int maxDegree) {
+        this.starts = starts;
+        this.data = data;
+        this.maxDegree = maxDegree;
+    }
+
+    /**
+     * Compresses the adjacency of a snapshot
+     *
+     * @param graph the snapshot
+     * @return the compressed adjacency, with the same vertex ids
+     */
+    public static CompressedAdjacency of(CompactGraph graph) {
+
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] starts = new int[n + 1];
+        byte[] data = new byte[Math.max(16, n + targets.length + targets.length / 4)];
+        int size = 0;
+        int maxDegree = 0;
+
+        for (int v = 0; v < n; v++) {
+            starts[v] = size;
+            int degree = offsets[v + 1] - offsets[v];
+            maxDegree = Math.max(maxDegree, degree);
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            size = writeVarint(data, size, degree);
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int gap;
+                if (e == offsets[v]) {
+                    int delta = targets[e] - v;
+                    gap = (delta << 1) ^ (delta >> 31);
+                } else {
+                    gap = targets[e] - targets[e - 1] - 1;
+                }
+                if (size + 5 > data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                size = writeVarint(data, size, gap);
+            }
+        }
+        starts[n] = size;
+
+        return new CompressedAdjacency(starts, Arrays.copyOf(data, size), maxDegree);
+    }
+
+    /**
+     * Writes a varint
+     *
+     * @param data buffer with at least 5 bytes left at the position
+     * @param at position to write at
+     * @param value non-negative value to write
+     * @return the position after the varint
+     */
+    private static int writeVarint(byte[] data, int at, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[at++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        data[at++] = (byte) value;
+        return at;
+    }
+
+    /**
+     * Returns the number of vertices
+     * @return n, vertices are numbered 0..n-1
+     */
+    public int vertexCount() {
+        return starts.length - 1;
+    }
+
+    /**
+     * Returns the number of neighbors of a vertex
+     * @param id id of the vertex
+     * @return the degree of the vertex
+     */
+    public int degree(int id) {
+        int at = starts[id];
+        int degree = data[at++];
+        if (degree < 0) {
+            degree &= 0x7F;
+            int shift = 7;
+            int b;
+            do {
+                b = data[at++];
+                degree |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+        }
+        return degree;
+    }
+
+    /**
+     * Returns the largest degree, the size a buffer for {@link #neighbors(int, int[])} needs
+     * @return the largest number of neighbors of a vertex
+     */
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded neighbors and of the tables to find them
+     * @return the size of the adjacency in bytes, without object headers
+     */
+    public long footprintBytes() {
+        return data.length + 4L * starts.length;
+    }
+
+    /**
+     * Decodes all neighbors of a vertex at once
+     *
+     * @param id id of the vertex
+     * @param into buffer the neighbors are written to, of at least {@link #degree(int)} elements
+     * @return the number of neighbors written, in increasing order of id
+     */
+    public int neighbors(int id, int[] into) {
+        int count = degree(id);
+        int at = starts[id] + varintLength(count);
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int gap = data[at++];
+            if (gap < 0) {
+                gap &= 0x7F;
+                int shift = 7;
+                int b;
+                do {
+                    b = data[at++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            previous = i == 0 ? id + ((gap >>> 1) ^ -(gap & 1)) : previous + gap + 1;
+            into[i] = previous;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes of a varint
+     *
+     * @param value non-negative value
+     * @return the number of bytes {@link #writeVarint(byte[], int, int)} writes for it
+     */
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Creates a cursor over the neighbors of vertices of this adjacency
+     *
+     * @return a new cursor, positioned on no vertex
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Decodes the neighbors of one vertex at a time. A cursor is meant to be kept
+     * for a whole traversal and moved to each vertex with {@link #reset(int)}.
+     */
+    public class Cursor {
+
+        private int vertex;
+        private int at;
+        private int remaining;
+        private int previous;
+        private boolean first;
+
+        /**
+         * Constructor for Cursor objects, use {@link CompressedAdjacency#cursor()}
+         */
+        private Cursor() {
+        }
+
+        /**
+         * Moves the cursor before the first neighbor of a vertex
+         *
+         * @param id id of the vertex
+         */
+        public void reset(int id) {
+            vertex = id;
+            at = starts[id];
+            remaining = -1;
+            first = true;
+        }
+
+        /**
+         * Tells whether the vertex has neighbors left
+         *
+         * @return true if {@link #next()} returns another neighbor
+         */
+        public boolean hasNext() {
+            if (remaining < 0) {
+                remaining = readVarint();
+            }
+            return remaining > 0;
+        }
+
+        /**
+         * Decodes the next neighbor, {@link #hasNext()} must be true
+         *
+         * @return the id of the next neighbor, neighbors come in increasing order of id
+         */
+        public int next() {
+            if (remaining < 0) {
+                remaining = readVarint();
+            }
+            int gap = readVarint();
+            remaining--;
+            if (first) {
+                first = false;
+                previous = vertex + ((gap >>> 1) ^ -(gap & 1));
+            } else {
+                previous += gap + 1;
+            }
+            return previous;
+        }
+
+        /**
+         * Reads the varint at the position of the cursor and moves past it
+         *
+         * @return the value of the varint
+         */
+        private int readVarint() {
+            int value = data[at++];
+            if (value < 0) {
+                value &= 0x7F;
+                int shift = 7;
+                int b;
+                do {
+                    b = data[at++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           DijkstraEngine.java
+//Description:     Weighted shortest path search over a CompactGraph.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   DijkstraEngine.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Dijkstra's algorithm over the vertex ids of a {@link CompactGraph}, with a
+ * {@link BucketQueue} as priority queue since edge weights are small integers.
+ * A graph with an edge heavier than MAX_BUCKET_WEIGHT, which an imported graph
+ * may have, is searched with a {@link BinaryHeapQueue} instead, as one bucket
+ * per weight would take more memory than the search.
+ * 
+ * Edge weights may be any positive int, from {@link Graph#addEdge(Object, Object, int)}
+ * or {@link EditCosts} as well as from files, so distances are added up in long
+ * and saturate at Integer.MAX_VALUE instead of wrapping around to negative ones.
+ * Graphs whose paths could reach that are also searched with the binary heap,
+ * which unlike the buckets keeps its order for keys far apart.
+ * 
+ * Distances and predecessors live in the int arrays of a {@link SearchWorkspace}
+ * checked out by the constructor and returned by {@link #close()}. Its
+ * generation stamps tell which distances belong to the current search, so a
+ * search costs time in the part of the graph it explores rather than in the
+ * size of the graph, and allocates nothing but the returned path.
+ * 
+ * An engine is not thread-safe and must be closed by the thread that created it.
+ */
+public class DijkstraEngine implements AutoCloseable {
+
+    private final CompactGraph graph;
+    private final SearchWorkspace workspace;
+    private final VertexQueue queue;
+
+    /**
+     * Largest edge weight searched with a bucket queue
+     */
+    static final int MAX_BUCKET_WEIGHT = 1 << 12;
+
+    /**
+     * Constructor for DijkstraEngine objects
+     * @param graph graph to search
+     */
+    public DijkstraEngine(CompactGraph graph) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.workspace = SearchWorkspace.acquire(n);
+        boolean small = graph.maxWeight() <= MAX_BUCKET_WEIGHT
+                && (long) graph.maxWeight() * Math.max(1, n - 1) <= Integer.MAX_VALUE;
+        this.queue = small ? workspace.bucketQueue(graph.maxWeight()) : workspace.heapQueue();
+    }
+
+    /**
+     * Returns the workspace to the pool of the thread
+     */
+    @Override
+    public void close() {
+        workspace.close();
+    }
+
+    /**
+     * Computes the weight of the lightest path between two vertices
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return the total weight of the path, Integer.MAX_VALUE if it is at least that,
+     * or -1 if there is no path
+     */
+    public int distance(int source, int target) {
+        search(source, target);
+        return workspace.distance(target);
+    }
+
+    /**
+     * Computes the lightest path between two vertices
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return ids of the vertices of the path from source to target, an empty
+     * array if there is no path
+     */
+    public int[] path(int source, int target) {
+        search(source, target);
+        return workspace.pathTo(target);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from source until target is settled
+     */
+    private void search(int source, int target) {
+
+        workspace.begin();
+        queue.clear();
+        int[] distance = workspace.distance;
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+
+        workspace.reach(source, 0, source);
+        queue.insertOrDecrease(source, 0);
+
+        while (!queue.isEmpty()) {
+            int v = queue.extractMin();
+            if (v == target) {
+                break;
+            }
+            int dv = distance[v];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                int candidate = (int) Math.min(Integer.MAX_VALUE, (long) dv + weights[e]);
+                if (!workspace.isReached(w) || candidate < distance[w]) {
+                    workspace.reach(w, candidate, v);
+                    queue.insertOrDecrease(w, candidate);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           DirectionOptimizingBfs.java
+//Description:     Single source breadth first search which switches between
+//				   top-down and bottom-up steps.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   DirectionOptimizingBfs.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Direction-optimizing breadth first search (Beamer et al.) over a
+ * {@link CompactGraph}.
+ * 
+ * A top-down step walks the edges of every frontier vertex. On dense graphs,
+ * like the layers of 3 and 4 letter words, most of those edges lead to vertices
+ * which were already visited. A bottom-up step instead lets every unvisited
+ * vertex look for a parent in the frontier, and stops at the first one found.
+ * The search starts top-down, turns bottom-up once the frontier's edges
+ * outnumber the unvisited vertices' edges / ALPHA, and turns back when the
+ * frontier shrinks below n / BETA vertices.
+ * 
+ * The top-down frontier is a queue of vertex ids, the bottom-up frontier is a
+ * bitset over the dense vertex ids. The arrays come from a
+ * {@link SearchWorkspace} checked out by the constructor and returned by
+ * {@link #close()}, and its generation stamps mark the visited vertices, so a
+ * search that stays top-down costs time in the part of the graph it explores
+ * and allocates nothing. An instance is not thread-safe and must be closed by
+ * the thread that created it.
+ */
+public class DirectionOptimizingBfs implements AutoCloseable {
+
+    // heuristic constants from the paper
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final CompactGraph graph;
+    private final boolean directionOptimizing;
+
+    private final SearchWorkspace workspace;
+
+    // top-down frontiers
+    private int[] queue;
+    private int[] nextQueue;
+
+    // bottom-up frontiers
+    private long[] frontierBits;
+    private long[] nextBits;
+
+    // neighbor checks of the last search, for benchmarks
+    private long edgeChecks;
+
+    /**
+     * Constructor for DirectionOptimizingBfs objects
+     * @param graph graph to search
+     */
+    public DirectionOptimizingBfs(CompactGraph graph) {
+        this(graph, true);
+    }
+
+    /**
+     * Constructor for DirectionOptimizingBfs objects
+     * @param graph graph to search
+     * @param directionOptimizing false to only ever take top-down steps
+     */
+    public DirectionOptimizingBfs(CompactGraph graph, boolean directionOptimizing) {
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.directionOptimizing = directionOptimizing;
+        this.workspace = SearchWorkspace.acquire(n);
+    }
+
+    /**
+     * Returns the workspace to the pool of the thread, the results of the last
+     * search are gone afterwards
+     */
+    @Override
+    public void close() {
+        workspace.close();
+    }
+
+    /**
+     * Runs a breadth first search from source over the whole graph
+     * @param source id of the source
+     */
+    public void search(int source) {
+        search(source, -1);
+    }
+
+    /**
+     * Runs a breadth first search from source, which stops as soon as target is
+     * reached. The distances of the vertices closer to source than target are then
+     * all known, those as far as target only partly.
+     * 
+     * @param source id of the source
+     * @param target id of the vertex to stop at, -1 to search the whole graph
+     */
+    public void search(int source, int target) {
+
+        int n = graph.vertexCount();
+        workspace.begin();
+        queue = workspace.queue;
+        nextQueue = workspace.nextQueue;
+        edgeChecks = 0;
+
+        workspace.reach(source, 0, source);
+        queue[0] = source;
+        int queueSize = 1;
+        int frontierSize = 1;
+        boolean bottomUp = false;
+
+        // edges of the frontier and of the unvisited vertices, for the switching heuristic
+        long frontierEdges = graph.degree(source);
+        long unexploredEdges = graph.targets().length - frontierEdges;
+
+        for (int level = 1; target < 0 || !workspace.isReached(target); level++) {
+
+            int previousSize = frontierSize;
+            if (bottomUp) {
+                frontierSize = bottomUpStep(level);
+                long[] tmp = frontierBits;
+                frontierBits = nextBits;
+                nextBits = tmp;
+            } else {
+                frontierSize = queueSize = topDownStep(queueSize, level);
+            }
+            if (frontierSize == 0) {
+                break;
+            }
+
+            frontierEdges = frontierEdges(bottomUp, queueSize);
+            unexploredEdges -= frontierEdges;
+            if (bottomUp && frontierSize < n / BETA && frontierSize < previousSize) {
+                queueSize = toQueue();
+                bottomUp = false;
+            } else if (!bottomUp && directionOptimizing && frontierSize > previousSize
+                    && frontierEdges > unexploredEdges / ALPHA) {
+                toBits(queueSize);
+                bottomUp = true;
+            }
+        }
+    }
+
+    /**
+     * Expands every vertex of the queue
+     * @return the size of the next frontier, which becomes the queue
+     */
+    private int topDownStep(int queueSize, int level) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int size = 0;
+        for (int i = 0; i < queueSize; i++) {
+            int v = queue[i];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                edgeChecks++;
+                int w = targets[e];
+                if (!workspace.isReached(w)) {
+                    workspace.reach(w, level, v);
+                    nextQueue[size++] = w;
+                }
+            }
+        }
+        int[] tmp = queue;
+        queue = nextQueue;
+        nextQueue = tmp;
+        return size;
+    }
+
+    /**
+     * Lets every unvisited vertex look for a parent in frontierBits
+     * @return the size of the next frontier, left in nextBits
+     */
+    private int bottomUpStep(int level) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        Arrays.fill(nextBits, 0);
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (workspace.isReached(v)) {
+                continue;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                edgeChecks++;
+                int u = targets[e];
+                if ((frontierBits[u >>> 6] & (1L << u)) != 0) {
+                    // v only looks at the old frontier, so it can be marked right away
+                    workspace.reach(v, level, u);
+                    nextBits[v >>> 6] |= 1L << v;
+                    size++;
+                    break;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Sums the degrees of the current frontier
+     */
+    private long frontierEdges(boolean bottomUp, int queueSize) {
+        long edges = 0;
+        if (bottomUp) {
+            for (int i = 0; i < frontierBits.length; i++) {
+                for (long bits = frontierBits[i]; bits != 0; bits &= bits - 1) {
+                    edges += graph.degree((i << 6) + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        } else {
+            for (int i = 0; i < queueSize; i++) {
+                edges += graph.degree(queue[i]);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Moves the queue frontier into frontierBits
+     */
+    private void toBits(int queueSize) {
+        if (frontierBits == null) {
+            frontierBits = workspace.bits(false);
+            nextBits = workspace.bits(true);
+        } else {
+            Arrays.fill(frontierBits, 0);
+        }
+        for (int i = 0; i < queueSize; i++) {
+            frontierBits[queue[i] >>> 6] |= 1L << queue[i];
+        }
+    }
+
+    /**
+     * Moves the frontierBits frontier into the queue
+     * @return the size of the queue
+     */
+    private int toQueue() {
+        int size = 0;
+        for (int i = 0; i < frontierBits.length; i++) {
+            for (long bits = frontierBits[i]; bits != 0; bits &= bits - 1) {
+                queue[size++] = (i << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a distance found by the last search
+     * @param v id of the vertex
+     * @return the number of edges from the source to v, -1 if it was not reached
+     */
+    public int distance(int v) {
+        return workspace.distance(v);
+    }
+
+    /**
+     * Returns the shortest path to a vertex found by the last search
+     * @param target id of the vertex
+     * @return ids of the path from the source to target, empty if target was not reached
+     */
+    public int[] pathTo(int target) {
+        return workspace.pathTo(target);
+    }
+
+    /**
+     * Returns the tree of the last search
+     * @return parents[v] is the vertex before v on a shortest path from the source,
+     * the source itself for the source, -1 if v was not reached
+     */
+    public int[] parents() {
+        int n = graph.vertexCount();
+        int[] parents = new int[n];
+        for (int v = 0; v < n; v++) {
+            parents[v] = workspace.isReached(v) ? workspace.parent[v] : -1;
+        }
+        return parents;
+    }
+
+    /**
+     * Returns how many times the last search looked at an edge
+     * @return the number of edge checks
+     */
+    public long edgeChecks() {
+        return edgeChecks;
+    }
+}
@@ -0,0 +1,190 @@
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           EditCosts.java
+//Description:     Costs of the single character edits, used to weigh the
+//				   edges of the word graph.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   EditCosts.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The cost of each kind of single character edit: replacing a character,
+ * replacing it with a character next to it on a QWERTY keyboard, adding a
+ * character and deleting one. All costs are small positive integers.
+ * 
+ * The word graph is undirected, and an addition seen from one end of an edge
+ * is a deletion seen from the other end, so the weight of an edge is the
+ * cheaper of the two directions {@link #weight(String, String)}.
+ */
+public class EditCosts {
+
+    /**
+     * Every edit costs 1, which gives the plain edit distance
+     */
+    public static final EditCosts UNIT = new EditCosts(1, 1, 1, 1);
+
+    // rows of a QWERTY keyboard, each row is shifted half a key to the right
+    private static final String[] KEYBOARD_ROWS = { "QWERTYUIOP", "ASDFGHJKL", "ZXCVBNM" };
+
+    private final int substitution;
+    private final int keyboardSubstitution;
+    private final int insertion;
+    private final int deletion;
+
+    /**
+     * Constructor for EditCosts objects
+     * @param substitution cost of replacing a character
+     * @param keyboardSubstitution cost of replacing a character with one next to it on the keyboard
+     * @param insertion cost of adding a character
+     * @param deletion cost of deleting a character
+     */
+    public EditCosts(int substitution, int keyboardSubstitution, int insertion, int deletion) {
+        if (substitution < 1 || keyboardSubstitution < 1 || insertion < 1 || deletion < 1) {
+            throw new IllegalArgumentException("edit costs must be at least 1");
+        }
+        this.substitution = substitution;
+        this.keyboardSubstitution = keyboardSubstitution;
+        this.insertion = insertion;
+        this.deletion = deletion;
+    }
+
+    /**
+     * Returns the cost of replacing one character with another
+     * @param from character being replaced
+     * @param to character replacing it
+     * @return 0 if the characters are equal, the keyboard substitution cost if
+     * they are next to each other on the keyboard, else the substitution cost
+     */
+    public int substitutionCost(char from, char to) {
+        if (from == to) {
+            return 0;
+        }
+        return areKeyboardNeighbors(from, to) ? keyboardSubstitution : substitution;
+    }
+
+    /**
+     * Returns the cost of adding a character
+     * @return the insertion cost
+     */
+    public int getInsertion() {
+        return insertion;
+    }
+
+    /**
+     * Returns the cost of deleting a character
+     * @return the deletion cost
+     */
+    public int getDeletion() {
+        return deletion;
+    }
+
+    /**
+     * Returns the largest cost of a single edit
+     * @return the largest of the four costs
+     */
+    public int getMaxCost() {
+        return Math.max(Math.max(substitution, keyboardSubstitution), Math.max(insertion, deletion));
+    }
+
+    /**
+     * Computes the cheapest way of turning word1 into word2, the weighted version
+     * of {@link WordProcessor#editDistance(String, String)}
+     * 
+     * @param word1 word to start from
+     * @param word2 word to end at
+     * @return the total cost of the cheapest sequence of edits
+     */
+    public int distance(String word1, String word2) {
+
+        int m = word2.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+
+        for (int j = 1; j <= m; j++) {
+            previous[j] = previous[j - 1] + insertion;
+        }
+        for (int i = 1; i <= word1.length(); i++) {
+            current[0] = previous[0] + deletion;
+            char c = word1.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int cost = previous[j - 1] + substitutionCost(c, word2.charAt(j - 1));
+                cost = Math.min(cost, previous[j] + deletion);
+                cost = Math.min(cost, current[j - 1] + insertion);
+                current[j] = cost;
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[m];
+    }
+
+    /**
+     * Weight of the undirected edge between word1 and word2: the cheaper of
+     * turning word1 into word2 and turning word2 into word1
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return weight of the edge between the words
+     */
+    public int weight(String word1, String word2) {
+        if (insertion == deletion) {
+            return distance(word1, word2);
+        }
+        return Math.min(distance(word1, word2), distance(word2, word1));
+    }
+
+    /**
+     * Determines whether two letters are next to each other on a QWERTY keyboard,
+     * either on the same row or on neighboring rows
+     * @param a first character
+     * @param b second character
+     * @return true if the keys of a and b touch
+     */
+    static boolean areKeyboardNeighbors(char a, char b) {
+
+        a = Character.toUpperCase(a);
+        b = Character.toUpperCase(b);
+        for (int row = 0; row < KEYBOARD_ROWS.length; row++) {
+            int column = KEYBOARD_ROWS[row].indexOf(a);
+            if (column < 0) {
+                continue;
+            }
+            // same row: the keys to the left and right
+            if (column > 0 && KEYBOARD_ROWS[row].charAt(column - 1) == b) {
+                return true;
+            }
+            if (column + 1 < KEYBOARD_ROWS[row].length() && KEYBOARD_ROWS[row].charAt(column + 1) == b) {
+                return true;
+            }
+            // the row below is shifted right, so key c touches keys c - 1 and c below it,
+            // and keys c and c + 1 above it
+            if (row + 1 < KEYBOARD_ROWS.length) {
+                int below = KEYBOARD_ROWS[row + 1].indexOf(b);
+                if (below >= 0 && (below == column || below == column - 1)) {
+                    return true;
+                }
+            }
+            if (row > 0) {
+                int above = KEYBOARD_ROWS[row - 1].indexOf(b);
+                if (above >= 0 && (above == column || above == column + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+}
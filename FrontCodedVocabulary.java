@@ -0,0 +1,331 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           FrontCodedVocabulary.java
+//Description:     Sorted set of words stored as front-coded blocks, mapping
+//				   each word to its rank and back.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, FrontCodedVocabulary.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * An immutable sorted set of words which maps every word to its rank, its
+ * position in {@link String#compareTo(String)} order, and every rank back to
+ * its word, in a few bytes per word instead of a String object and a hash map
+ * entry.
+ *
+ * The words are cut into blocks of BLOCK_SIZE. The first word of a block is
+ * stored in full, every other one as the number of leading chars it shares
+ * with the previous word and the chars that follow. Chars are written in an
+ * order preserving code: one byte below 0x80, two bytes 10xxxxxx xxxxxxxx
+ * below 0x4000, otherwise 0xC0 and the char in two bytes. Comparing the code
+ * byte by byte therefore compares the chars, so a lookup binary searches the
+ * first words of the blocks straight in the encoded data and then decodes at
+ * most one block. Lengths are varints.
+ */
+public class FrontCodedVocabulary {
+
+    /**
+     * Words per block
+     */
+    static final int BLOCK_SIZE = 16;
+
+    private final byte[] data;
+
+    /**
+     * blockStarts[b] is the index in data of the first word of block b
+     */
+    private final int[] blockStarts;
+
+    private final int size;
+
+    /**
+     * Length in chars of the longest word
+     */
+    private final int maxLength;
+
+    /**
+     * Constructor for FrontCodedVocabulary objects, use {@link #of(String[])}
+     */
+    private FrontCodedVocabulary(byte[] data, int[] blockStarts, int size, int maxLength) {
+        this.data = data;
+        this.blockStarts = blockStarts;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Encodes a sorted array of words
+     *
+     * @param sorted distinct words in increasing order
+     * @return the vocabulary, the rank of sorted[i] is i
+     */
+    public static FrontCodedVocabulary of(String[] sorted) {
+        int[] blockStarts = new int[(sorted.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        byte[] data = new byte[Math.max(16, sorted.length * 4)];
+        int at = 0;
+        int maxLength = 0;
+
+        for (int i = 0; i < sorted.length; i++) {
+            String word = sorted[i];
+            maxLength = Math.max(maxLength, word.length());
+            if (i > 0 && sorted[i - 1].compareTo(word) >= 0) {
+                throw new IllegalArgumentException("words not sorted or not distinct at " + i);
+            }
+            int shared = 0;
+            if (i % BLOCK_SIZE == 0) {
+                blockStarts[i / BLOCK_SIZE] = at;
+            } else {
+                String previous = sorted[i - 1];
+                int limit = Math.min(previous.length(), word.length());
+                while (shared < limit && previous.charAt(shared) == word.charAt(shared)) {
+                    shared++;
+                }
+            }
+
+            // 2 varints of at most 5 bytes and at most 3 bytes per char
+            int needed = at + 10 + 3 * (word.length() - shared);
+            if (needed > data.length) {
+                data = Arrays.copyOf(data, Math.max(needed, data.length * 2));
+            }
+            if (i % BLOCK_SIZE != 0) {
+                at = writeVarint(data, at, shared);
+            }
+            at = writeVarint(data, at, word.length() - shared);
+            for (int c = shared; c < word.length(); c++) {
+                char ch = word.charAt(c);
+                if (ch < 0x80) {
+                    data[at++] = (byte) ch;
+                } else if (ch < 0x4000) {
+                    data[at++] = (byte) (0x80 | (ch >>> 8));
+                    data[at++] = (byte) ch;
+                } else {
+                    data[at++] = (byte) 0xC0;
+                    data[at++] = (byte) (ch >>> 8);
+                    data[at++] = (byte) ch;
+                }
+            }
+        }
+        return new FrontCodedVocabulary(Arrays.copyOf(data, at), blockStarts, sorted.length, maxLength);
+    }
+
+    /**
+     * Returns the number of words
+     * @return the size of the vocabulary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of the encoded words and of the block index
+     * @return the size of the vocabulary in bytes, without object headers
+     */
+    public long footprintBytes() {
+        return data.length + 4L * blockStarts.length;
+    }
+
+    /**
+     * Estimates the heap bytes of the vocabulary {@link MemoryAccount}
+     * @return the estimated bytes of the vocabulary and its arrays
+     */
+    public long estimatedBytes() {
+        return MemoryAccount.object(2 * MemoryAccount.REFERENCE + 2 * 4)
+                + MemoryAccount.byteArray(data.length) + MemoryAccount.intArray(blockStarts.length);
+    }
+
+    /**
+     * Returns the word of a rank
+     *
+     * @param rank the rank, 0 for the smallest word
+     * @return the word
+     */
+    public String word(int rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("rank " + rank + " of " + size + " words");
+        }
+        char[] chars = new char[maxLength];
+        int[] position = { blockStarts[rank / BLOCK_SIZE] };
+        int length = 0;
+        for (int i = rank - rank % BLOCK_SIZE; i <= rank; i++) {
+            length = decodeNext(chars, position, i % BLOCK_SIZE == 0 ? 0 : -1);
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Decodes every word, in one pass over the data
+     * @return the words, words[r] has rank r
+     */
+    public String[] words() {
+        String[] words = new String[size];
+        char[] chars = new char[maxLength];
+        int[] position = { 0 };
+        for (int i = 0; i < size; i++) {
+            int length = decodeNext(chars, position, i % BLOCK_SIZE == 0 ? 0 : -1);
+            words[i] = new String(chars, 0, length);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the rank of a word
+     *
+     * @param word the word
+     * @return its rank, or -1 if it is not in the vocabulary
+     */
+    public int rank(String word) {
+        if (size == 0) {
+            return -1;
+        }
+        // last block whose first word is <= word
+        int low = 0;
+        int high = blockStarts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (compareFirst(middle, word) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        char[] chars = new char[maxLength];
+        int[] position = { blockStarts[low] };
+        int end = Math.min(size, (low + 1) * BLOCK_SIZE);
+        for (int i = low * BLOCK_SIZE; i < end; i++) {
+            int length = decodeNext(chars, position, i % BLOCK_SIZE == 0 ? 0 : -1);
+            int compared = compare(chars, length, word);
+            if (compared == 0) {
+                return i;
+            }
+            if (compared > 0) {
+                break;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the first word of a block to a word, without decoding it into chars
+     *
+     * @param block the block
+     * @param word the word
+     * @return a negative number, zero or a positive number as the first word of the
+     * block is smaller, equal or larger
+     */
+    private int compareFirst(int block, String word) {
+        int at = blockStarts[block];
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = data[at++];
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        int common = Math.min(length, word.length());
+        for (int c = 0; c < common; c++) {
+            int b = data[at++] & 0xFF;
+            int ch;
+            if (b < 0x80) {
+                ch = b;
+            } else if (b < 0xC0) {
+                ch = ((b & 0x3F) << 8) | (data[at++] & 0xFF);
+            } else {
+                ch = ((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF);
+                at += 2;
+            }
+            if (ch != word.charAt(c)) {
+                return ch - word.charAt(c);
+            }
+        }
+        return length - word.length();
+    }
+
+    /**
+     * Decodes the word at a position over the previous word
+     *
+     * @param chars the previous word, overwritten with the decoded one
+     * @param position position[0] is the index in data of the word, moved past it
+     * @param shared 0 for the first word of a block, -1 to read the shared length
+     * @return the length of the decoded word
+     */
+    private int decodeNext(char[] chars, int[] position, int shared) {
+        int at = position[0];
+        if (shared < 0) {
+            shared = 0;
+            for (int shift = 0;; shift += 7) {
+                int b = data[at++];
+                shared |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+        }
+        int rest = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = data[at++];
+            rest |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        for (int c = shared; c < shared + rest; c++) {
+            int b = data[at++] & 0xFF;
+            if (b < 0x80) {
+                chars[c] = (char) b;
+            } else if (b < 0xC0) {
+                chars[c] = (char) (((b & 0x3F) << 8) | (data[at++] & 0xFF));
+            } else {
+                chars[c] = (char) (((data[at] & 0xFF) << 8) | (data[at + 1] & 0xFF));
+                at += 2;
+            }
+        }
+        position[0] = at;
+        return shared + rest;
+    }
+
+    /**
+     * Compares decoded chars to a word, in {@link String#compareTo(String)} order
+     */
+    private static int compare(char[] chars, int length, String word) {
+        int common = Math.min(length, word.length());
+        for (int c = 0; c < common; c++) {
+            if (chars[c] != word.charAt(c)) {
+                return chars[c] - word.charAt(c);
+            }
+        }
+        return length - word.length();
+    }
+
+    /**
+     * Writes a varint
+     *
+     * @param data buffer with at least 5 bytes left at the position
+     * @param at position to write at
+     * @param value non-negative value to write
+     * @return the position after the varint
+     */
+    private static int writeVarint(byte[] data, int at, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[at++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        data[at++] = (byte) value;
+        return at;
+    }
+}
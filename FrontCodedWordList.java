@@ -0,0 +1,203 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           FrontCodedWordList.java
+//Description:     File format for sorted word lists which stores each word
+//				   as the prefix it shares with the previous one and the rest.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   FrontCodedWordList.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Reads and writes front-coded word lists.
+ *
+ * The file starts with the int MAGIC, the int number of words and the int
+ * block size B. The words follow in increasing order, each as the varint
+ * number of leading UTF-8 bytes it shares with the previous word, the varint
+ * number of bytes of the rest, and those bytes. The first word of every block
+ * of B words shares nothing, so a reader can start decoding at any block.
+ * Neighboring words of a sorted dictionary share their prefixes, so most
+ * words cost their last few bytes plus two.
+ *
+ * A front-coded list can be gzipped as well; {@link WordProcessor#getWordStream(String)}
+ * reads both.
+ */
+public class FrontCodedWordList {
+
+    /**
+     * First int of every front-coded file
+     */
+    static final int MAGIC = 0x46435731;
+
+    /**
+     * Words per block, every block starts with a word stored in full
+     */
+    public static final int BLOCK_SIZE = 16;
+
+    /**
+     * Longest word in UTF-8 bytes, a longer length read from a file means it is corrupt
+     */
+    static final int MAX_WORD_BYTES = 1 << 20;
+
+    /**
+     * Constructor for FrontCodedWordList objects, only static methods
+     */
+    private FrontCodedWordList() {
+    }
+
+    /**
+     * Writes a word list to a file
+     *
+     * @param file the file, replaced if it exists
+     * @param words the words, in any order, duplicates are written once
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, Collection<String> words) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, words);
+        }
+    }
+
+    /**
+     * Writes a word list to a stream
+     *
+     * @param out the stream, not closed
+     * @param words the words, in any order, duplicates are written once
+     * @throws IOException if the stream can not be written
+     * @throws IllegalArgumentException if a word is longer than MAX_WORD_BYTES
+     */
+    public static void write(OutputStream out, Collection<String> words) throws IOException {
+        TreeSet<String> sorted = new TreeSet<String>(words);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(sorted.size());
+        data.writeInt(BLOCK_SIZE);
+
+        byte[] previous = new byte[0];
+        int index = 0;
+        for (String word : sorted) {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_WORD_BYTES) {
+                throw new IllegalArgumentException("word of " + bytes.length + " bytes is too long");
+            }
+            int shared = 0;
+            if (index % BLOCK_SIZE != 0) {
+                int limit = Math.min(previous.length, bytes.length);
+                while (shared < limit && previous[shared] == bytes[shared]) {
+                    shared++;
+                }
+            }
+            writeVarint(data, shared);
+            writeVarint(data, bytes.length - shared);
+            data.write(bytes, shared, bytes.length - shared);
+            previous = bytes;
+            index++;
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads every word of a front-coded stream whose MAGIC was already read
+     *
+     * @param data the stream, positioned after the MAGIC
+     * @param action called with each word, in order
+     * @throws IOException if the stream can not be read or is not front-coded
+     */
+    static void readAfterMagic(DataInputStream data, Consumer<String> action) throws IOException {
+        int count = data.readInt();
+        int blockSize = data.readInt();
+        if (count < 0 || blockSize < 1) {
+            throw new IOException("not a front-coded word list");
+        }
+        byte[] word = new byte[64];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int shared = readVarint(data);
+            int rest = readVarint(data);
+            if (shared < 0 || shared > length || (i % blockSize == 0 && shared != 0)
+                    || rest < 0 || rest > MAX_WORD_BYTES - shared) {
+                throw new IOException("corrupt front-coded word list at word " + i);
+            }
+            if (shared + rest > word.length) {
+                word = Arrays.copyOf(word, Math.max(word.length * 2, shared + rest));
+            }
+            data.readFully(word, shared, rest);
+            length = shared + rest;
+            action.accept(new String(word, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Reads every word of a front-coded stream
+     *
+     * @param in the stream, not closed
+     * @param action called with each word, in order
+     * @throws IOException if the stream can not be read or is not front-coded
+     */
+    public static void read(InputStream in, Consumer<String> action) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a front-coded word list");
+        }
+        readAfterMagic(data, action);
+    }
+
+    /**
+     * Writes a varint, 7 bits per byte with the high bit set on every byte but the last
+     * @param data the stream
+     * @param value non-negative value to write
+     */
+    private static void writeVarint(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.write(value | 0x80);
+            value >>>= 7;
+        }
+        data.write(value);
+    }
+
+    /**
+     * Reads a varint
+     * @param data the stream
+     * @return the value of the varint
+     */
+    private static int readVarint(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.read();
+            if (b < 0) {
+                throw new EOFException("front-coded word list ends inside a word");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint too long");
+    }
+}
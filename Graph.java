@@ -1,9 +1,12 @@
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 ////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
 //
@@ -25,12 +28,13 @@ import java.util.Set;
 //
 ///////////////////////////////// KNOWN BUGS //////////////////////////////////
 //
-// We are having a bug in Graph Processor file where the shortestPathPrecomputation
-//    method will only generate paths of the form HAT -> CAT -> HAT or
-//    ON -> HAT -> ON
-// 
-//    Currently we are unsure what is causing this bug, other than the fact it
-//    is occurring in the shortestPathPrecomputation method
+// GraphProcessorTest fails 5 of its tests, whose expectations or input files
+//    do not match the code:
+//  - test02 reads shortestPath.txt, which is not in the repository.
+//  - test03 expects CAT -> WHEAT in shortestPathTest.txt, which has no path.
+//  - test04 reads words_list.txt, which is not in the repository.
+//  - test06 expects lowercase words, getWordStream returns them in UPPERCASE.
+//  - test09 expects 7 for ON -> HAT, the shortest path has 6 edges.
 //
 ///////////////////////////// CREDIT OUTSIDE HELP /////////////////////////////
 //
@@ -42,20 +46,26 @@ import java.util.Set;
 
 
 /**
- * Undirected and unweighted graph implementation using a generic VertexNode class which 
+ * Undirected graph implementation using a generic VertexNode class which 
  * stores the data associated to each vertex of the graph, as well as the data of each 
- * adjacent vertex; and an EdgeNode class which stores a pair of VertexNode objects.
+ * adjacent vertex and the weight of the edge to it. Edges added without a weight
+ * have a weight of 1.
+ * 
+ * Every VertexNode gets an id, and the neighbors of a vertex are kept as ids.
+ * The ids are found by label in a {@link LabelIndex}, which tells labels with
+ * equal hash codes apart.
  * 
  * @param <E> type of a vertex
  * 
  * @author Chance Sanford (csanford4@wisc.edu), sapan (sapan@cs.wisc.edu)
  * 
  */
-public class Graph<E> implements GraphADT<E> {
+public class Graph<E> implements WeightedGraphADT<E> {
     
 	/**
 	 * Class which stores the data associated with each vertex as well as
-	 * an ArrayList of each neighbor's data.
+	 * the ids of its neighbors in a {@link NeighborSet}, so checking whether
+	 * two vertices are adjacent does not scan the neighbors.
 	 * 
 	 * @author Chance Sanford (csanford4@wisc.edu)
 	 *
@@ -63,12 +73,16 @@ public class Graph<E> implements GraphADT<E> {
 	 */
 	class VertexNode<E> {
 		
-		//ArrayList to store data of all adjacent vertices
-		private ArrayList<E> neighbors;
+		//Set of the ids of all adjacent vertices, with the weight of the edge
+		//to each of them
+		private NeighborSet neighbors;
 		
 		//Class field for the data associated to this VertexNode object
 		final private E label;
 		
+		//Number of this VertexNode object in the graph, see nodes
+		final private int id;
+		
 		/**
 		 * Vertex constructor
 		 * @param label The data associated to this VertexNode object
@@ -76,24 +90,35 @@ public class Graph<E> implements GraphADT<E> {
 		public VertexNode(E label) {
 			
 			this.label = label;
-			this.neighbors = new ArrayList<E>();
+			this.neighbors = new NeighborSet();
+			this.id = allocateId(this);
 		}
 		
 		/**
-		 * Adds an element to the neighbor ArrayList
+		 * Adds an element to the neighbors
 		 * @param newVertex data to be added
 		 */
 		public void addNeighbor(E newVertex) {
 			
-			if (this.neighbors.contains(newVertex)) {
-				return;
-			}
+			addNeighbor(newVertex, 1);
+		}
+		
+		/**
+		 * Adds an element to the neighbors together with the weight
+		 * of the edge leading to it
+		 * @param newVertex data to be added, must be a vertex of the graph
+		 * @param weight weight of the edge to newVertex
+		 */
+		public void addNeighbor(E newVertex, int weight) {
 			
-			neighbors.add(newVertex);
+			VertexNode<?> node = getNode(newVertex);
+			if (node != null) {
+				this.neighbors.add(node.id, weight, nodes.size());
+			}
 		}
 
 		/**
-		 * Determines whether neighbors ArrayList contains 
+		 * Determines whether the neighbors contain 
 		 * the data newVertex
 		 * @param newVertex Data to check if in neighbors 
 		 * @return True if newVertex is in neighbors, else
@@ -101,22 +126,39 @@ public class Graph<E> implements GraphADT<E> {
 		 */
 		public boolean hasNeighbor(E newVertex) {
 
-			return this.neighbors.contains(newVertex);
+			VertexNode<?> node = getNode(newVertex);
+			return node != null && this.neighbors.contains(node.id);
+			
+		}
+		
+		/**
+		 * Returns the weight of the edge to a neighbor
+		 * @param vertex Data of the neighbor
+		 * @return The weight of the edge, or -1 if vertex
+		 * is not a neighbor
+		 */
+		public int getWeight(E vertex) {
+			
+			VertexNode<?> node = getNode(vertex);
+			return node == null ? -1 : this.neighbors.weight(node.id);
 			
 		}
+		
 		/**
-		 * Removes an element from neighbors ArrayList
+		 * Removes an element from the neighbors
 		 * @param vertex Data to be removed from neighbors
 		 */
 		public void removeNeighbor(E vertex) {
 			
-			this.neighbors.remove(vertex);
+			VertexNode<?> node = getNode(vertex);
+			if (node != null) {
+				this.neighbors.remove(node.id);
+			}
 			
 		}
 		
 		/**
-		 * Returns the number of elements in neighbors
-		 * ArrayList
+		 * Returns the number of neighbors
 		 * @return The size of neighbors
 		 */
 		public int getNeighborCount() {
@@ -135,6 +177,16 @@ public class Graph<E> implements GraphADT<E> {
 			
 		}
 		
+		/**
+		 * Returns the number of this VertexNode object in the graph
+		 * @return The field id
+		 */
+		public int getId() {
+			
+			return this.id;
+			
+		}
+		
 		/**
 		 * A toString method for VertexNode objects
 		 * @return Returns "Vertex " + label
@@ -179,144 +231,96 @@ public class Graph<E> implements GraphADT<E> {
 			
 		}
 		/**
-		 * A method which returns the ArrayList neighbors
+		 * A method which returns the data of all neighbors, in increasing
+		 * order of their ids
 		 * @return neighbors
 		 */
+		@SuppressWarnings("unchecked")
 		public ArrayList<E> getNeighbors() {
 			
-			return new ArrayList<E>(this.neighbors);
-			
-		}
-
-	}
-	/**
-	 * A class which stores two VertexNode objects.  The Graph data structure
-	 * could have been implemented just with the Vertex class, but the addition
-	 * of edge class provides flexibility for certain tasks, such as Dijkstra's
-	 * algorithm.
-	 * @author Chance Sanford (csanford4@wisc.edu)
-	 *
-	 */
-	class EdgeNode {
-		
-		//Class field to store a VertexNode object
-		final private VertexNode<E> source;
-		
-		//Class field to store a VertexNode object 
-		final private VertexNode<E> target;
-		
-		/**
-		 * Constructor for EdgeNode class
-		 * @param source First VertexNode object
-		 * @param target Second VertexNode object
-		 */
-		public EdgeNode(VertexNode<E> source, VertexNode<E> target) {
-			
-			this.source = source;
-			this.target = target;
-			
-		}
-		
-		/**
-		 * Method which returns the other vertexNode associated with this Edge object
-		 * @param current The first VertexNode associated with this Edge object
-		 * @return The target VertexNode if current equals source, and returns the
-		 * source VertexNode if current equals target
-		 */
-		public VertexNode<E> getVertex(VertexNode<E> current) {
-
-			if(!(current.equals(source) || current.equals(target))){
-
-				return null;
-
+			int[] ids = this.neighbors.toArray();
+			ArrayList<E> list = new ArrayList<E>(ids.length);
+			for (int neighbor : ids) {
+				list.add((E) nodes.get(neighbor).label);
 			}
-
-
-			return (current.equals(source)) ? target : source;
-
-		}
-		
-		/**
-		 * Retruns source field
-		 * @return source
-		 */
-		public VertexNode<E> getSource() {
-			
-			return source;
-			
-		}
-		
-		/**
-		 * Returns target field
-		 * @return target
-		 */
-		public VertexNode<E> getTarget() {
-			
-			return target;
+			return list;
 			
 		}
-		
-		/**
-		 * A hashCode method for EdgeNode objects.  Adds the hash codes of
-		 * source and target field.
-		 * @return The sum of source's and target's hash code
-		 */
-		public int hashCode() {
-			
-			return (source.hashCode() + target.hashCode());
-			
-		}
-		
-		/**
-		 * An equals method for EdgeNode objects.  Checks equality between the source and 
-		 * target fields of two EdgeNode objects.
-		 * @param other The object to be checked for equality against this EdgeNode object
-		 * @return Returns true if source and target fields of both edge objects are equal
-		 */
-		 @SuppressWarnings("unchecked")
-		public boolean equals(Object other){
-			 
-
-			 EdgeNode edge = (EdgeNode)other;
-
-			 return edge.source.equals(this.source) && edge.target.equals(this.target);
-
-		 }  
-
 
 	}
 	
 	
     
-	//HashMap which stores the vertices of the graph
-	private HashMap<Integer, VertexNode<E>> vertices;
+	//Index which maps the label of each vertex to its id, created for
+	//the type of the first vertex added
+	private LabelIndex vertices;
 	
-	//HashMap which stores the edges of the graph
-    private HashMap<Integer, EdgeNode> edges;
+	//List of the VertexNode objects by id, null for ids of removed vertices.
+	//Neighbors are stored as ids, which keeps the neighbor sets small
+	private ArrayList<VertexNode<E>> nodes;
+	
+	//Ids of removed vertices, handed out again before new ones
+	private int[] freeIds;
+	private int freeCount;
 	
     /**
      * Constructor for Graph objects
      */
 	public Graph() {
-		this.vertices = new HashMap<Integer, VertexNode<E>>();
-		this.edges = new HashMap<Integer, EdgeNode>();
+		this.vertices = new LabelIndex();
+		this.nodes = new ArrayList<VertexNode<E>>();
+		this.freeIds = new int[16];
 		
 	}
 	
 	/**
 	 * Overloaded constructor for Graph objects
 	 * @param vertices An ArrayList of vertices which
-	 * are added to the graph
+	 * are added to the graph, together with their edges
+	 * to each other
 	 */
 	public Graph(ArrayList<VertexNode<E>> vertices) {
-		this.vertices = new HashMap<Integer, VertexNode<E>>();
-		this.edges = new HashMap<Integer, EdgeNode>();
+		this();
 		
 		for (VertexNode<E> v : vertices) {
-			this.vertices.put(v.hashCode(), v);
+			this.addVertex(v.getLabel());
+		}
+		for (VertexNode<E> v : vertices) {
+			for (E neighbor : v.getNeighbors()) {
+				this.addEdge(v.getLabel(), neighbor, v.getWeight(neighbor));
+			}
 		}
 		
 	}
+	
+	/**
+	 * Gives a new VertexNode object its id
+	 * @param node The new VertexNode object
+	 * @return The id of node
+	 */
+	@SuppressWarnings("unchecked")
+	private int allocateId(VertexNode<?> node) {
+		
+		if (freeCount > 0) {
+			int id = freeIds[--freeCount];
+			nodes.set(id, (VertexNode<E>) node);
+			return id;
+		}
+		nodes.add((VertexNode<E>) node);
+		return nodes.size() - 1;
+	}
+	
+	/**
+	 * Returns the VertexNode object of a vertex
+	 * @param vertex Data of the vertex
+	 * @return The VertexNode object whose label equals vertex, or null
+	 * if vertex is not in the graph
+	 */
+	private VertexNode<E> getNode(Object vertex) {
+		
+		int id = vertices.get(vertex);
+		return id < 0 ? null : nodes.get(id);
+	}
 
     /**
      * {@inheritDoc}
@@ -329,18 +333,19 @@ public class Graph<E> implements GraphADT<E> {
     		return null;
     	}
     	
-    	// Checks that the data vertex doesn't already exist in the graph
-    	VertexNode<E> current = vertices.get(vertex.hashCode());
-    	
+    	if (nodes.isEmpty() && vertex instanceof String) {
+    		vertices = LabelIndex.forStrings();
+    	}
     	
-    	if (current != null) {
+    	// Checks that the data vertex doesn't already exist in the graph
+    	if (vertices.get(vertex) >= 0) {
     		return null;
     	}
     	
     	//If vertex doesn't already exist, a new VertexNode is added to graph
     	VertexNode<E> newVertex = new VertexNode<E>(vertex);
     	
-    	vertices.put(newVertex.hashCode(), newVertex);
+    	vertices.add(vertex, newVertex.id);
 
     	
 		return vertex;
@@ -352,23 +357,26 @@ public class Graph<E> implements GraphADT<E> {
      */
     @Override
     public E removeVertex(E vertex) {
-    	//Makes sure vertex is not null and vertices contains the VertexNode object 
+    	//Makes sure vertices contains the VertexNode object 
     	//which has vertex as it's data
-    	if (vertex == null || !vertices.containsKey(vertex.hashCode())) {
+    	VertexNode<E> v = getNode(vertex);
+    	if (v == null) {
     		return null;
     	}
     	
-    	VertexNode<E> v = vertices.get(vertex.hashCode());
-    	
     	//Removes all edges associated with vertex
-    	for (E neighbor : v.getNeighbors()) {
+    	for (int neighbor : v.neighbors.toArray()) {
     		
-    		if (!this.removeEdge(vertex, neighbor)) {
-    			return null;
-    		}
+    		nodes.get(neighbor).neighbors.remove(v.id);
     	}
-    	//Removes VertexNode object associated with vertex label
-    	vertices.remove(vertex.hashCode());
+    	//Removes VertexNode object associated with vertex label, its id
+    	//can be reused as no neighbor set refers to it anymore
+    	vertices.remove(vertex);
+    	nodes.set(v.id, null);
+    	if (freeCount == freeIds.length) {
+    		freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+    	}
+    	freeIds[freeCount++] = v.id;
     	
         return vertex;
     }
@@ -378,37 +386,31 @@ public class Graph<E> implements GraphADT<E> {
      */
     @Override
     public boolean addEdge(E vertex1, E vertex2) {
+    	
+    	return addEdge(vertex1, vertex2, 1);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean addEdge(E vertex1, E vertex2, int weight) {
     	//Makes sure vertec1 and vertex2 are assocaited with existing VertexNodes
     	//and that they are not equal
-    	if (!vertices.containsKey(vertex1.hashCode()) || !vertices.containsKey(vertex2.hashCode())
-    			|| vertex1.equals(vertex2)) {
+    	VertexNode<E> v1 = getNode(vertex1);
+    	VertexNode<E> v2 = getNode(vertex2);
+    	if (v1 == null || v2 == null || v1 == v2 || weight < 1) {
     		
     		return false;
     	}
     	
-    	VertexNode<E> v1 = vertices.get(vertex1.hashCode());
-    	VertexNode<E> v2 = vertices.get(vertex2.hashCode());
-    	EdgeNode newEdge = new EdgeNode(v1,v2);
-    	
-    	//Checks that an edge containing v1 and v2 does not already exist
-    	if (edges.containsKey(newEdge.hashCode())) {
-    		
-    		return false;
-    		
-    	}
     	//Checks that v1 and v2 are not already neighbors
-    	else if(v1.hasNeighbor(vertex1) || v2.hasNeighbor(vertex2)){
+    	if (!v1.neighbors.add(v2.id, weight, nodes.size())) {
     		
     		return false;
     		
     	}
-
-    	edges.put(newEdge.hashCode(), newEdge);
-    	
-    	
-    	v1.addNeighbor(vertex2);
-    	v2.addNeighbor(vertex1);
-    	
+    	v2.neighbors.add(v1.id, weight, nodes.size());
     	
         return true;
     }    
@@ -420,23 +422,15 @@ public class Graph<E> implements GraphADT<E> {
     public boolean removeEdge(E vertex1, E vertex2) {
     	//Makes sure vertec1 and vertex2 are assocaited with existing VertexNodes
     	//and that they are not equal
-    	if (!vertices.containsKey(vertex1.hashCode()) || !vertices.containsKey(vertex2.hashCode())
-    			|| vertex1.equals(vertex2)) {
+    	VertexNode<E> v1 = getNode(vertex1);
+    	VertexNode<E> v2 = getNode(vertex2);
+    	if (v1 == null || v2 == null || v1 == v2) {
     		
     		return false;
     	}
     	
-    	VertexNode<E> v1 = vertices.get(vertex1.hashCode());
-    	VertexNode<E> v2 = vertices.get(vertex2.hashCode());
-    	
-    	//Creates new EdgeNode object to enable calling it's hashcode to remove
-    	//it from edges HashMap
-    	EdgeNode newEdge = new EdgeNode(v1,v2);
-    	
-    	v1.removeNeighbor(vertex2);
-    	v2.removeNeighbor(vertex1);
-
-    	edges.remove(newEdge.hashCode());
+    	v1.neighbors.remove(v2.id);
+    	v2.neighbors.remove(v1.id);
     	
     	return true;
 
@@ -449,22 +443,29 @@ public class Graph<E> implements GraphADT<E> {
     public boolean isAdjacent(E vertex1, E vertex2) {
     	//Makes sure vertec1 and vertex2 are assocaited with existing VertexNodes
     	//and that they are not equal
-    	if (!vertices.containsKey(vertex1.hashCode()) || !vertices.containsKey(vertex2.hashCode())
-    			|| vertex1.equals(vertex2)) {
+    	VertexNode<E> v1 = getNode(vertex1);
+    	VertexNode<E> v2 = getNode(vertex2);
+    	if (v1 == null || v2 == null || v1 == v2) {
     		
     		return false;
     	}
     	
-    
-    	
-    	VertexNode<E> v = vertices.get(vertex1.hashCode());
+        return v1.neighbors.contains(v2.id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEdgeWeight(E vertex1, E vertex2) {
     	
-    	if (v.hasNeighbor(vertex2)) {
-    		return true;
+    	VertexNode<E> v1 = getNode(vertex1);
+    	VertexNode<E> v2 = getNode(vertex2);
+    	if (v1 == null || v2 == null) {
+    		return -1;
     	}
-    
     	
-        return false;
+    	return v1.neighbors.weight(v2.id);
     }
 
     /**
@@ -473,11 +474,11 @@ public class Graph<E> implements GraphADT<E> {
     @Override
     public Iterable<E> getNeighbors(E vertex) {
     	
-    	if (!vertices.containsKey(vertex.hashCode())) {
+    	VertexNode<E> v = getNode(vertex);
+    	if (v == null) {
     		return null;
     	}
     	
-    	VertexNode<E> v = vertices.get(vertex.hashCode());
     	//Returns an ArrayList of neighbor vertices
         return v.getNeighbors();
     }
@@ -488,24 +489,88 @@ public class Graph<E> implements GraphADT<E> {
     @Override
     public Iterable<E> getAllVertices() {
     	
-    	//Creates a temporary ArrayList of VertexNodes
-    	ArrayList<VertexNode<E>> vertList = new ArrayList<VertexNode<E>>();
+    	ArrayList<E> valueList = new ArrayList<E>(vertices.size());
+    	//For each loop which iterates through the VertexNodes by id, skipping
+    	//the ids of removed vertices, and adds each label to valueList
+    	for (VertexNode<E> v : nodes) {
+    		if (v != null) {
+    			valueList.add(v.getLabel());
+    		}
+    	}
     	
-    	//For each loop which iterates through the entrySet of vertices 
-    	//and adds the value of the key-value pair map to vertList
-    	for (Map.Entry<Integer, VertexNode<E>> map : vertices.entrySet()) {
-    		
-    		vertList.add(map.getValue());
+        return valueList;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The vertices are streamed in the order of their ids. While no vertex has
+     * been removed without its id being reused the stream is SIZED.
+     */
+    @Override
+    public Stream<E> vertexStream() {
+    	
+    	ArrayList<VertexNode<E>> nodes = this.nodes;
+    	//Only removed vertices leave null entries, one per free id
+    	IntPredicate present = freeCount == 0 ? null : id -> nodes.get(id) != null;
+    	return StreamSupport.stream(new RangeSpliterator<E>(0, nodes.size(), present,
+    			id -> nodes.get(id).label, Spliterator.DISTINCT | Spliterator.ORDERED), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Each edge is streamed from the end with the lower id.
+     */
+    @Override
+    public Stream<WeightedEdge<E>> edgeStream() {
+    	
+    	ArrayList<VertexNode<E>> nodes = this.nodes;
+    	IntPredicate present = freeCount == 0 ? null : id -> nodes.get(id) != null;
+    	return StreamSupport.stream(new RangeSpliterator<VertexNode<E>>(0, nodes.size(), present,
+    			nodes::get, Spliterator.DISTINCT), false)
+    			.flatMap(v -> StreamSupport.stream(v.neighbors.spliterator(neighbor -> neighbor > v.id,
+    					(neighbor, weight) -> new WeightedEdge<E>(v.label, nodes.get(neighbor).label, weight)),
+    					false));
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The neighbors are streamed straight from the neighbor set of vertex.
+     */
+    @Override
+    public Stream<E> neighborStream(E vertex) {
+    	
+    	VertexNode<E> v = getNode(vertex);
+    	if (v == null) {
+    		return Stream.empty();
     	}
+    	ArrayList<VertexNode<E>> nodes = this.nodes;
+    	return StreamSupport.stream(v.neighbors.spliterator(null, (neighbor, weight) -> nodes.get(neighbor).label),
+    			false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * String labels are counted with their chars, other labels as plain objects.
+     */
+    @Override
+    public long estimatedBytes() {
     	
-    	ArrayList<E> valueList = new ArrayList<E>();
-    	//For each loop which iterates through vertList and adds each VertexNode's
-    	//label to the ArrayList valueList
-    	for (VertexNode<E> v : vertList) {
-    		valueList.add(v.getLabel());
+    	long bytes = MemoryAccount.object(3 * MemoryAccount.REFERENCE + 4) + vertices.estimatedBytes()
+    			+ MemoryAccount.object(2 * 4 + MemoryAccount.REFERENCE) + MemoryAccount.referenceArray(nodes.size())
+    			+ MemoryAccount.intArray(freeIds.length);
+    	//Each VertexNode object with its neighbor set and its label
+    	for (VertexNode<E> v : nodes) {
+    		if (v != null) {
+    			bytes += MemoryAccount.object(3 * MemoryAccount.REFERENCE + 4) + v.neighbors.estimatedBytes();
+    			bytes += v.label instanceof String ? MemoryAccount.string((String) v.label) : MemoryAccount.object(0);
+    		}
     	}
     	
-        return valueList;
+        return bytes;
     }
     
  
@@ -0,0 +1,397 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           GraphAnalytics.java
+//Description:     Whole graph measures: eccentricity, diameter and
+//				   betweenness centrality of the words.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   GraphAnalytics.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Batch analytics over a snapshot of a graph, meant for offline jobs which
+ * would otherwise call {@link GraphProcessor#getShortestDistance(String, String)}
+ * for every pair of words.
+ * 
+ * Eccentricities and the diameter come from a bit-parallel breadth first search
+ * {@link MultiSourceBfs} which runs 64 sources at once, one bit of a long per source. Betweenness
+ * centrality uses Brandes' algorithm. Both spread their sources over a
+ * fork/join pool, both can work on a random sample of the sources for graphs
+ * too large for the exact answer, and both can write their results to a file
+ * as they are produced.
+ * 
+ * Distances are counted in edges and edge weights are ignored. The eccentricity
+ * of a word is taken within its connected component, so on a disconnected graph
+ * the diameter is the largest diameter of a component.
+ */
+public class GraphAnalytics {
+
+    // sources handled by one bit-parallel search
+    private static final int BATCH = 64;
+
+    // sources below which a Brandes task stops splitting
+    private static final int BRANDES_GRAIN = 16;
+
+    private final CompactGraph graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for GraphAnalytics objects, which takes a snapshot of graph.
+     * Later changes to graph are not seen.
+     * @param graph graph to analyze
+     */
+    public GraphAnalytics(GraphADT<String> graph) {
+        this(CompactGraph.of(graph), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for GraphAnalytics objects
+     * @param graph snapshot to analyze
+     * @param pool pool the sources are spread over
+     */
+    public GraphAnalytics(CompactGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Receives the eccentricity of each source once its search is done, called
+     * from the pool's threads
+     */
+    private interface EccentricitySink {
+        void accept(int vertex, int eccentricity);
+    }
+
+    /**
+     * Computes the eccentricity of every vertex
+     * @return eccentricity[v] is the largest distance from v to a vertex of its component
+     */
+    public int[] eccentricities() {
+        int[] eccentricity = new int[graph.vertexCount()];
+        runEccentricities(allVertices(), (vertex, value) -> eccentricity[vertex] = value);
+        return eccentricity;
+    }
+
+    /**
+     * Computes the diameter, the largest distance between two connected vertices
+     * @return the diameter, 0 for a graph without edges
+     */
+    public int diameter() {
+        return runEccentricities(allVertices(), (vertex, value) -> { });
+    }
+
+    /**
+     * Estimates the diameter from the eccentricities of a random sample of vertices.
+     * The estimate never exceeds the true diameter, and since the diameter is at most
+     * twice any eccentricity it is never below half of it either.
+     * 
+     * @param samples number of vertices to sample
+     * @param seed seed of the random sample
+     * @return a lower bound of the diameter
+     */
+    public int approximateDiameter(int samples, long seed) {
+        return runEccentricities(sample(samples, seed), (vertex, value) -> { });
+    }
+
+    /**
+     * Computes the eccentricity of every vertex and writes one "WORD\teccentricity"
+     * line per vertex to file, batch by batch as the searches finish, so the
+     * results are never all held in memory. Lines are not in any particular order.
+     * 
+     * @param file file to write, replaced if it exists
+     * @return the diameter
+     * @throws IOException if the file cannot be written
+     */
+    public int writeEccentricities(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            return runEccentricities(allVertices(), (vertex, value) -> {
+                synchronized (writer) {
+                    try {
+                        writer.write(graph.label(vertex));
+                        writer.write('\t');
+                        writer.write(Integer.toString(value));
+                        writer.newLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Runs the bit-parallel searches from the given sources, 64 at a time, over the pool
+     * @return the largest eccentricity found
+     */
+    private int runEccentricities(int[] sources, EccentricitySink sink) {
+        AtomicInteger max = new AtomicInteger();
+        pool.invoke(new EccentricityTask(sources, 0, (sources.length + BATCH - 1) / BATCH, sink, max));
+        return max.get();
+    }
+
+    /**
+     * Splits a range of batches of sources until one batch is left, and runs it
+     */
+    private class EccentricityTask extends RecursiveTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int fromBatch;
+        private final int toBatch;
+        private final EccentricitySink sink;
+        private final AtomicInteger max;
+
+        EccentricityTask(int[] sources, int fromBatch, int toBatch, EccentricitySink sink, AtomicInteger max) {
+            this.sources = sources;
+            this.fromBatch = fromBatch;
+            this.toBatch = toBatch;
+            this.sink = sink;
+            this.max = max;
+        }
+
+        @Override
+        protected Void compute() {
+            if (toBatch - fromBatch > 1) {
+                int middle = (fromBatch + toBatch) >>> 1;
+                invokeAll(new EccentricityTask(sources, fromBatch, middle, sink, max),
+                        new EccentricityTask(sources, middle, toBatch, sink, max));
+                return null;
+            }
+            if (toBatch > fromBatch) {
+                int from = fromBatch * BATCH;
+                int[] batch = Arrays.copyOfRange(sources, from, Math.min(sources.length, from + BATCH));
+                int[] eccentricity = bitParallelEccentricities(batch);
+                for (int i = 0; i < batch.length; i++) {
+                    sink.accept(batch[i], eccentricity[i]);
+                    max.accumulateAndGet(eccentricity[i], Math::max);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Breadth first search from up to 64 sources at once {@link MultiSourceBfs}.
+     * Levels are reported in increasing order, so a source's eccentricity is the
+     * last level at which it reached a vertex.
+     * 
+     * @param sources ids of at most 64 sources
+     * @return eccentricity[i] is the eccentricity of sources[i]
+     */
+    private int[] bitParallelEccentricities(int[] sources) {
+        int[] eccentricity = new int[sources.length];
+        new MultiSourceBfs(graph, 1).run(sources, (vertex, sourceBase, bits, level) -> {
+            for (; bits != 0; bits &= bits - 1) {
+                eccentricity[sourceBase + Long.numberOfTrailingZeros(bits)] = level;
+            }
+        });
+        return eccentricity;
+    }
+
+    /**
+     * Computes the exact betweenness centrality of every vertex: the number of
+     * shortest paths between other pairs of vertices which go through it, each
+     * path counting 1 / (number of shortest paths of its pair).
+     * 
+     * @return betweenness[v] is the betweenness centrality of vertex v
+     */
+    public double[] betweenness() {
+        double[] betweenness = pool.invoke(new BrandesTask(allVertices(), 0, graph.vertexCount()));
+        for (int v = 0; v < betweenness.length; v++) {
+            betweenness[v] /= 2; // every pair is counted from both of its ends
+        }
+        return betweenness;
+    }
+
+    /**
+     * Estimates the betweenness centrality of every vertex from a random sample of
+     * source vertices, scaled up to the whole graph
+     * 
+     * @param samples number of source vertices to sample
+     * @param seed seed of the random sample
+     * @return betweenness[v] is the estimated betweenness centrality of vertex v
+     */
+    public double[] approximateBetweenness(int samples, long seed) {
+        int[] sources = sample(samples, seed);
+        double[] betweenness = pool.invoke(new BrandesTask(sources, 0, sources.length));
+        double scale = sources.length == 0 ? 0 : (double) graph.vertexCount() / sources.length / 2;
+        for (int v = 0; v < betweenness.length; v++) {
+            betweenness[v] *= scale;
+        }
+        return betweenness;
+    }
+
+    /**
+     * Writes one "WORD\tscore" line per vertex to file
+     * @param file file to write, replaced if it exists
+     * @param scores one score per vertex id, such as the result of {@link #betweenness()}
+     * @throws IOException if the file cannot be written
+     */
+    public void writeScores(Path file, double[] scores) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int v = 0; v < scores.length; v++) {
+                writer.write(graph.label(v));
+                writer.write('\t');
+                writer.write(Double.toString(scores[v]));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Runs Brandes' algorithm from a range of sources, splitting the range over the
+     * pool, and adds up the dependencies of every source
+     */
+    private class BrandesTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final int from;
+        private final int to;
+
+        BrandesTask(int[] sources, int from, int to) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > BRANDES_GRAIN) {
+                int middle = (from + to) >>> 1;
+                BrandesTask left = new BrandesTask(sources, from, middle);
+                left.fork();
+                double[] result = new BrandesTask(sources, middle, to).compute();
+                double[] other = left.join();
+                for (int v = 0; v < result.length; v++) {
+                    result[v] += other[v];
+                }
+                return result;
+            }
+
+            int n = graph.vertexCount();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            double[] betweenness = new double[n];
+            int[] distance = new int[n];
+            double[] sigma = new double[n];
+            double[] delta = new double[n];
+            int[] order = new int[n];
+            Arrays.fill(distance, -1);
+
+            for (int i = from; i < to; i++) {
+                int s = sources[i];
+
+                // breadth first search counting the shortest paths from s,
+                // order holds the vertices by increasing distance
+                int head = 0;
+                int tail = 0;
+                distance[s] = 0;
+                sigma[s] = 1;
+                order[tail++] = s;
+                while (head < tail) {
+                    int v = order[head++];
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (distance[w] < 0) {
+                            distance[w] = distance[v] + 1;
+                            order[tail++] = w;
+                        }
+                        if (distance[w] == distance[v] + 1) {
+                            sigma[w] += sigma[v];
+                        }
+                    }
+                }
+
+                // dependencies, from the farthest vertices back to s; the predecessors
+                // of w are its neighbors one step closer to s
+                for (int k = tail - 1; k > 0; k--) {
+                    int w = order[k];
+                    double share = (1 + delta[w]) / sigma[w];
+                    for (int e = offsets[w]; e < offsets[w + 1]; e++) {
+                        int v = targets[e];
+                        if (distance[v] == distance[w] - 1) {
+                            delta[v] += sigma[v] * share;
+                        }
+                    }
+                    betweenness[w] += delta[w];
+                }
+
+                for (int k = 0; k < tail; k++) {
+                    int v = order[k];
+                    distance[v] = -1;
+                    sigma[v] = 0;
+                    delta[v] = 0;
+                }
+            }
+            return betweenness;
+        }
+    }
+
+    /**
+     * Returns the ids of all the vertices
+     * @return 0..n-1
+     */
+    private int[] allVertices() {
+        int[] vertices = new int[graph.vertexCount()];
+        for (int v = 0; v < vertices.length; v++) {
+            vertices[v] = v;
+        }
+        return vertices;
+    }
+
+    /**
+     * Picks distinct random vertices
+     * @param samples number of vertices to pick, all of them if there are fewer
+     * @param seed seed of the random generator
+     * @return ids of the picked vertices
+     */
+    private int[] sample(int samples, long seed) {
+        int[] vertices = allVertices();
+        int count = Math.min(Math.max(samples, 0), vertices.length);
+        Random random = new Random(seed);
+        // partial Fisher-Yates shuffle
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(vertices.length - i);
+            int tmp = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = tmp;
+        }
+        return Arrays.copyOf(vertices, count);
+    }
+
+    /**
+     * Returns the label of a vertex, to read the arrays returned by this class
+     * @param id id of the vertex
+     * @return its label
+     */
+    public String label(int id) {
+        return graph.label(id);
+    }
+}
@@ -0,0 +1,567 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           GraphBenchmark.java
+//Description:     Micro benchmarks for the word graph data structures.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   GraphBenchmark.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Runs benchmarks over {@link SyntheticDictionary} vocabularies and prints one
+ * table per benchmark.
+ * 
+ * Usage: java GraphBenchmark [benchmark ...]
+ * 
+ * Without arguments every benchmark is run. Available benchmarks:
+ *  - neighbors: cost of finding all words within edit distance k of a word,
+ *    {@link WordTrie} against a scan of the whole vocabulary, as the vocabulary grows
+ *  - directions: edge checks and time of a full breadth first search on dense graphs
+ *    of 3 and 4 letter words, top-down only against {@link DirectionOptimizingBfs}
+ *  - compression: size of the adjacency and time of a full breadth first search,
+ *    {@link CompactGraph} arrays against {@link CompressedAdjacency}
+ *  - reordering: time of a full breadth first search after renumbering the
+ *    vertices in each {@link VertexOrder}, and in random order as a baseline
+ *  - vocabulary: memory and lookup time of the vertex labels, String objects in
+ *    an array and a HashMap against a {@link FrontCodedVocabulary}
+ *  - labels: time to add and look up vertex labels, a HashMap keyed by the
+ *    hashCode of the label against a {@link LabelIndex}, on random words and on
+ *    words which all have the same String.hashCode
+ *  - io: time to build a graph from its words, against exporting it and
+ *    importing it again as an edge list and as a CSR file {@link GraphIO}
+ */
+public class GraphBenchmark {
+
+    // number of timed queries per measurement
+    private static final int QUERIES = 2000;
+
+    // the full scan is slow, so it is timed on fewer queries
+    private static final int SCAN_QUERIES = 200;
+
+    // prevents the JIT from dropping the benchmarked work
+    private static long blackhole;
+
+    public static void main(String[] args) {
+
+        if (args.length == 0) {
+            args = new String[] { "neighbors", "directions", "compression", "reordering", "vocabulary", "labels",
+                    "io" };
+        }
+        for (String benchmark : args) {
+            switch (benchmark) {
+            case "neighbors":
+                neighbors();
+                break;
+            case "directions":
+                directions();
+                break;
+            case "compression":
+                compression();
+                break;
+            case "reordering":
+                reordering();
+                break;
+            case "vocabulary":
+                vocabulary();
+                break;
+            case "labels":
+                labels();
+                break;
+            case "io":
+                io();
+                break;
+            default:
+                System.err.println("Unknown benchmark: " + benchmark);
+            }
+        }
+        if (blackhole == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Compares the trie neighbor search with a full scan for k = 1..3 over
+     * vocabularies from 1k to 64k words. Reports microseconds per query and the
+     * average number of words found per query.
+     */
+    private static void neighbors() {
+
+        System.out.println("== neighbors: us/query");
+        System.out.printf("%8s %4s %10s %10s %10s%n", "words", "k", "trie", "scan", "matches");
+
+        for (int size = 1000; size <= 64000; size *= 2) {
+            List<String> words = SyntheticDictionary.generate(size, size);
+            WordTrie trie = new WordTrie();
+            for (String word : words) {
+                trie.add(word);
+            }
+            List<String> queries = SyntheticDictionary.generate(QUERIES, -size);
+            List<String> scanQueries = queries.subList(0, SCAN_QUERIES);
+
+            for (int k = 1; k <= 3; k++) {
+                // warm up both code paths before timing them
+                runTrie(trie, queries, k);
+                runScan(words, scanQueries, k);
+
+                long before = blackhole;
+                long start = System.nanoTime();
+                runTrie(trie, queries, k);
+                double trieMicros = (System.nanoTime() - start) / 1000.0 / queries.size();
+                double matches = (double) (blackhole - before) / queries.size();
+
+                start = System.nanoTime();
+                runScan(words, scanQueries, k);
+                double scanMicros = (System.nanoTime() - start) / 1000.0 / scanQueries.size();
+
+                System.out.printf("%8d %4d %10.1f %10.1f %10.1f%n", size, k, trieMicros, scanMicros, matches);
+            }
+        }
+    }
+
+    private static void runTrie(WordTrie trie, List<String> queries, int k) {
+        for (String query : queries) {
+            blackhole += trie.search(query, k).size();
+        }
+    }
+
+    private static void runScan(List<String> words, List<String> queries, int k) {
+        for (String query : queries) {
+            for (String word : words) {
+                if (WordProcessor.isAdjacent(query, word, k)) {
+                    blackhole++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs full breadth first searches from random sources over graphs of short
+     * words, once only top-down and once direction-optimizing, and reports the
+     * average edge checks and milliseconds per search
+     */
+    private static void directions() {
+
+        System.out.println("== directions: edge checks/search (ms/search)");
+        System.out.printf("%8s %9s %24s %24s%n", "words", "edges", "top-down", "direction-optimizing");
+
+        for (int size = 2500; size <= 40000; size *= 2) {
+            CompactGraph graph = buildGraph(SyntheticDictionary.generate(size, size, 3, 4));
+            int searches = 200;
+            Random random = new Random(size);
+            int[] sources = new int[searches];
+            for (int i = 0; i < searches; i++) {
+                sources[i] = random.nextInt(graph.vertexCount());
+            }
+
+            long[] topDownResult;
+            long[] optimizingResult;
+            try (DirectionOptimizingBfs topDown = new DirectionOptimizingBfs(graph, false);
+                    DirectionOptimizingBfs optimizing = new DirectionOptimizingBfs(graph, true)) {
+                topDownResult = runSearches(topDown, sources);
+                optimizingResult = runSearches(optimizing, sources);
+            }
+            System.out.printf("%8d %9d %14d (%7.3f) %14d (%7.3f)%n", graph.vertexCount(), graph.edgeCount(),
+                    topDownResult[0] / searches, topDownResult[1] / 1e6 / searches,
+                    optimizingResult[0] / searches, optimizingResult[1] / 1e6 / searches);
+        }
+    }
+
+    /**
+     * Searches from every source, after a warm up round
+     * @return the total edge checks and the total nanoseconds
+     */
+    private static long[] runSearches(DirectionOptimizingBfs search, int[] sources) {
+        for (int source : sources) {
+            search.search(source);
+        }
+        long checks = 0;
+        long start = System.nanoTime();
+        for (int source : sources) {
+            search.search(source);
+            checks += search.edgeChecks();
+        }
+        return new long[] { checks, System.nanoTime() - start };
+    }
+
+    /**
+     * Compresses the adjacency of graphs of growing vocabularies and reports the
+     * bytes per edge slot and the milliseconds per full breadth first search over
+     * the plain arrays, through a {@link CompressedAdjacency.Cursor} and with bulk decoding
+     */
+    private static void compression() {
+
+        System.out.println("== compression: bytes/slot, ms/search");
+        System.out.printf("%8s %9s %8s %8s %7s %8s %8s %8s%n", "words", "edges", "plain", "varint", "ratio",
+                "plain", "cursor", "bulk");
+
+        for (int size = 8000; size <= 128000; size *= 2) {
+            CompactGraph graph = buildGraph(SyntheticDictionary.generate(size, size));
+            CompressedAdjacency compressed = CompressedAdjacency.of(graph);
+            int slots = graph.targets().length;
+            long plainBytes = 4L * (graph.offsets().length + slots);
+            int searches = 50;
+            Random random = new Random(size);
+            int[] sources = new int[searches];
+            for (int i = 0; i < searches; i++) {
+                sources[i] = random.nextInt(graph.vertexCount());
+            }
+
+            double[] millis = new double[3];
+            for (int round = 0; round < 2; round++) {
+                for (int kind = 0; kind < 3; kind++) {
+                    long start = System.nanoTime();
+                    for (int source : sources) {
+                        blackhole += bfs(graph, compressed, source, kind);
+                    }
+                    millis[kind] = (System.nanoTime() - start) / 1e6 / searches;
+                }
+            }
+            System.out.printf("%8d %9d %8.2f %8.2f %6.1fx %8.3f %8.3f %8.3f%n", graph.vertexCount(),
+                    graph.edgeCount(), (double) plainBytes / slots, (double) compressed.footprintBytes() / slots,
+                    (double) plainBytes / compressed.footprintBytes(), millis[0], millis[1], millis[2]);
+        }
+    }
+
+    /**
+     * Runs a full breadth first search
+     * @param kind 0 over the arrays of graph, 1 through a cursor over compressed, 2 with bulk decoding
+     * @return the number of vertices reached
+     */
+    private static int bfs(CompactGraph graph, CompressedAdjacency compressed, int source, int kind) {
+        int n = graph.vertexCount();
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int[] neighbors = new int[compressed.maxDegree()];
+        CompressedAdjacency.Cursor cursor = compressed.cursor();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int head = 0;
+        int tail = 0;
+        visited[source] = true;
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            if (kind == 0) {
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        queue[tail++] = w;
+                    }
+                }
+            } else if (kind == 1) {
+                cursor.reset(v);
+                while (cursor.hasNext()) {
+                    int w = cursor.next();
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        queue[tail++] = w;
+                    }
+                }
+            } else {
+                int count = compressed.neighbors(v, neighbors);
+                for (int i = 0; i < count; i++) {
+                    int w = neighbors[i];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Renumbers graphs of growing vocabularies in random order, which is what the
+     * iteration order of a hash map gives, and in every {@link VertexOrder}. Reports
+     * the average id distance between the ends of an edge and the milliseconds per
+     * full top-down breadth first search.
+     */
+    private static void reordering() {
+
+        System.out.println("== reordering: average edge id gap (ms/search)");
+        System.out.printf("%8s %9s %20s", "words", "edges", "random");
+        for (VertexOrder order : VertexOrder.values()) {
+            System.out.printf(" %20s", order.name().toLowerCase());
+        }
+        System.out.println();
+
+        for (int size = 32000; size <= 128000; size *= 2) {
+            CompactGraph lexicographic = buildGraph(SyntheticDictionary.generate(size, size));
+            int n = lexicographic.vertexCount();
+            int searches = 50;
+            Random random = new Random(size);
+            int[] sources = new int[searches];
+            for (int i = 0; i < searches; i++) {
+                sources[i] = random.nextInt(n);
+            }
+
+            int[] shuffle = new int[n];
+            for (int v = 0; v < n; v++) {
+                shuffle[v] = v;
+            }
+            for (int v = n - 1; v > 0; v--) {
+                int other = random.nextInt(v + 1);
+                int tmp = shuffle[v];
+                shuffle[v] = shuffle[other];
+                shuffle[other] = tmp;
+            }
+            CompactGraph shuffled = lexicographic.permute(shuffle);
+
+            System.out.printf("%8d %9d", n, lexicographic.edgeCount());
+            reorderingRow(shuffled, shuffle, sources);
+            for (VertexOrder order : VertexOrder.values()) {
+                // start from the shuffled graph, so every order is computed from the same input
+                int[] newIdOf = order.permutation(shuffled);
+                int[] composed = new int[n];
+                for (int v = 0; v < n; v++) {
+                    composed[v] = newIdOf[shuffle[v]];
+                }
+                reorderingRow(shuffled.permute(newIdOf), composed, sources);
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Prints the average edge id gap and the time per search of one renumbered graph
+     * @param newIdOf new id of each vertex of the lexicographic graph the sources refer to
+     */
+    private static void reorderingRow(CompactGraph graph, int[] newIdOf, int[] sources) {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long gaps = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                gaps += Math.abs(targets[e] - v);
+            }
+        }
+        int[] mapped = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            mapped[i] = newIdOf[sources[i]];
+        }
+        long[] result;
+        try (DirectionOptimizingBfs search = new DirectionOptimizingBfs(graph, false)) {
+            result = runSearches(search, mapped);
+        }
+        System.out.printf(" %11d (%6.3f)", gaps / Math.max(1, targets.length), result[1] / 1e6 / sources.length);
+    }
+
+    /**
+     * Compares the memory of the labels as String objects indexed by a HashMap,
+     * estimated for a 64 bit JVM with compressed references, with the bytes of a
+     * {@link FrontCodedVocabulary}, for 125k to 1M words. Reports nanoseconds per
+     * word to id and id to word lookup for both.
+     */
+    private static void vocabulary() {
+
+        System.out.println("== vocabulary: MB, ns/lookup");
+        System.out.printf("%8s %8s %8s %7s %8s %8s %8s %8s%n", "words", "strings", "coded", "ratio",
+                "map id", "coded id", "array", "coded");
+
+        for (int size = 125000; size <= 1000000; size *= 2) {
+            String[] words = new TreeSet<String>(SyntheticDictionary.generate(size, size)).toArray(new String[0]);
+            Map<String, Integer> ids = new HashMap<String, Integer>(words.length * 2);
+            long stringBytes = 16 + 4L * words.length;
+            for (int i = 0; i < words.length; i++) {
+                ids.put(words[i], i);
+                // String object, its Latin-1 byte[], a map entry and a boxed Integer
+                stringBytes += 24 + ((16 + words[i].length() + 7) & ~7) + 32 + 16;
+            }
+            stringBytes += 16 + 4L * Integer.highestOneBit(words.length * 2 - 1) * 2;
+            FrontCodedVocabulary vocabulary = FrontCodedVocabulary.of(words);
+
+            Random random = new Random(size);
+            String[] queries = new String[QUERIES];
+            int[] ranks = new int[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                ranks[i] = random.nextInt(words.length);
+                // a copy, so the map has to compare the chars as well
+                queries[i] = new String(words[ranks[i]].toCharArray());
+            }
+
+            double[] nanos = new double[4];
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                for (String query : queries) {
+                    blackhole += ids.get(query);
+                }
+                nanos[0] = (double) (System.nanoTime() - start) / QUERIES;
+                start = System.nanoTime();
+                for (String query : queries) {
+                    blackhole += vocabulary.rank(query);
+                }
+                nanos[1] = (double) (System.nanoTime() - start) / QUERIES;
+                start = System.nanoTime();
+                for (int rank : ranks) {
+                    blackhole += words[rank].length();
+                }
+                nanos[2] = (double) (System.nanoTime() - start) / QUERIES;
+                start = System.nanoTime();
+                for (int rank : ranks) {
+                    blackhole += vocabulary.word(rank).length();
+                }
+                nanos[3] = (double) (System.nanoTime() - start) / QUERIES;
+            }
+            System.out.printf("%8d %8.1f %8.1f %6.1fx %8.0f %8.0f %8.0f %8.0f%n", words.length, stringBytes / 1e6,
+                    vocabulary.footprintBytes() / 1e6, (double) stringBytes / vocabulary.footprintBytes(),
+                    nanos[0], nanos[1], nanos[2], nanos[3]);
+        }
+    }
+
+    /**
+     * Times building graphs of 100k to 400k words from the words, which computes
+     * the edges, against writing them with {@link GraphIO} and reading them back
+     * in each format, in ms, with the size of the files in MB.
+     */
+    private static void io() {
+
+        System.out.println("== io: ms, MB");
+        System.out.printf("%8s %8s %8s %8s %8s %8s %8s %8s%n", "words", "build", "list MB", "write",
+                "read", "csr MB", "write", "read");
+
+        try {
+            Path file = Files.createTempFile("benchmark", ".graph");
+            try {
+                for (int size = 100000; size <= 400000; size *= 2) {
+                    List<String> words = SyntheticDictionary.generate(size, size);
+                    long start = System.nanoTime();
+                    CompactGraph graph = buildGraph(words);
+                    double build = (System.nanoTime() - start) / 1e6;
+
+                    double[] millis = new double[4];
+                    long[] bytes = new long[2];
+                    for (GraphIO.Format format : GraphIO.Format.values()) {
+                        int i = format.ordinal();
+                        start = System.nanoTime();
+                        GraphIO.write(graph, file, format);
+                        millis[2 * i] = (System.nanoTime() - start) / 1e6;
+                        bytes[i] = Files.size(file);
+                        start = System.nanoTime();
+                        Graph<String> read = GraphIO.read(file, WordNormalizer.DEFAULT);
+                        millis[2 * i + 1] = (System.nanoTime() - start) / 1e6;
+                        blackhole += read.getEdgeWeight(words.get(0), words.get(1));
+                    }
+                    System.out.printf("%8d %8.0f %8.1f %8.0f %8.0f %8.1f %8.0f %8.0f%n", graph.vertexCount(), build,
+                            bytes[0] / 1e6, millis[0], millis[1], bytes[1] / 1e6, millis[2], millis[3]);
+                }
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Times adding 256k labels and looking each of them up again, in ns per
+     * label, with a HashMap from hashCode to label (which loses colliding
+     * labels), with a {@link LabelIndex} hashing by hashCode and with
+     * {@link LabelIndex#forStrings()}. The colliding set is 16k words made of
+     * the pairs Aa and BB.
+     */
+    private static void labels() {
+
+        System.out.println("== labels: ns/add, ns/get");
+        System.out.printf("%10s %8s %8s %8s %8s %8s %8s %6s%n", "words", "map add", "map get", "idx add",
+                "idx get", "str add", "str get", "lost");
+
+        // distinct words in random order, sorted ones would hit the same cache lines of a table
+        List<String> distinct = new ArrayList<String>(new TreeSet<String>(SyntheticDictionary.generate(1 << 18, 1)));
+        Collections.shuffle(distinct, new Random(1));
+        String[] random = distinct.toArray(new String[0]);
+        String[] colliding = new String[1 << 14];
+        for (int bits = 0; bits < colliding.length; bits++) {
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < 14; i++) {
+                word.append((bits >> i & 1) == 0 ? "Aa" : "BB");
+            }
+            colliding[bits] = word.toString();
+        }
+
+        for (String[] words : new String[][] { random, colliding }) {
+            // copies, so the lookups hash and compare the chars
+            String[] queries = new String[words.length];
+            for (int i = 0; i < words.length; i++) {
+                queries[i] = new String(words[i].toCharArray());
+            }
+            double[] nanos = new double[6];
+            int lost = 0;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                Map<Integer, String> map = new HashMap<Integer, String>();
+                for (String word : words) {
+                    map.put(word.hashCode(), word);
+                }
+                nanos[0] = (double) (System.nanoTime() - start) / words.length;
+                start = System.nanoTime();
+                for (String query : queries) {
+                    String found = map.get(query.hashCode());
+                    blackhole += found != null && found.equals(query) ? 1 : 0;
+                }
+                nanos[1] = (double) (System.nanoTime() - start) / words.length;
+                lost = words.length - map.size();
+
+                LabelIndex[] indexes = { new LabelIndex(), LabelIndex.forStrings() };
+                for (int kind = 0; kind < 2; kind++) {
+                    start = System.nanoTime();
+                    for (int i = 0; i < words.length; i++) {
+                        indexes[kind].add(words[i], i);
+                    }
+                    nanos[2 + 2 * kind] = (double) (System.nanoTime() - start) / words.length;
+                    start = System.nanoTime();
+                    for (String query : queries) {
+                        blackhole += indexes[kind].get(query);
+                    }
+                    nanos[3 + 2 * kind] = (double) (System.nanoTime() - start) / words.length;
+                }
+            }
+            System.out.printf("%10s %8.0f %8.0f %8.0f %8.0f %8.0f %8.0f %6d%n",
+                    words == random ? words.length + "" : words.length + " coll", nanos[0], nanos[1], nanos[2],
+                    nanos[3], nanos[4], nanos[5], lost);
+        }
+    }
+
+    /**
+     * Builds the edit distance 1 graph of a list of words, the way
+     * {@link GraphProcessor#populateGraph(String)} does
+     * @param words the words
+     * @return a snapshot of the graph
+     */
+    private static CompactGraph buildGraph(List<String> words) {
+        Graph<String> graph = new Graph<String>();
+        WordTrie trie = new WordTrie();
+        for (String word : words) {
+            graph.addVertex(word);
+            for (String neighbor : trie.search(word, 1)) {
+                graph.addEdge(word, neighbor);
+            }
+            trie.add(word);
+        }
+        return CompactGraph.of(graph);
+    }
+}
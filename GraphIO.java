@@ -0,0 +1,617 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           GraphIO.java
+//Description:     Exports a graph as an edge list or a binary CSR file, and
+//				   imports either of them without computing any adjacency.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   GraphIO.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Reads and writes whole graphs in two formats, so that graphs built by other
+ * tools can be loaded as they are, and graphs built here can be analyzed
+ * elsewhere.
+ *
+ *  - EDGE_LIST: UTF-8 text, one edge per line as the two words and an
+ *    optional weight (1 if it is left out), separated by tabs, so words may
+ *    contain spaces. A line with one word adds a vertex without edges. Blank
+ *    lines and lines whose first byte is '#' are skipped; a word starting
+ *    with '#' is written after a tab. Each edge is written once; reading it
+ *    twice, in either direction, is accepted if the weights agree.
+ *  - CSR: the layout of {@link OffHeapGraph}, so an exported file can also be
+ *    mapped with {@link OffHeapGraph#map(Path)}: a header of 4 little endian
+ *    ints (magic, vertices, adjacency slots, label chars), offsets, targets,
+ *    weights, label starts and the labels in UTF-16, the vertices in
+ *    lexicographic order of their labels.
+ *
+ * Both formats are written and read through a FileChannel and one buffer of
+ * BUFFER_SIZE bytes, so neither the file nor its text is ever held in memory
+ * as a whole. Imports check the data as they read it: a malformed line, an
+ * edge from a word to itself, conflicting weights, also of words which only
+ * become the same once normalized, a weight so large that the weight of a path
+ * might not fit into an int {@link #maxWeight(long)}, or a CSR file whose arrays
+ * are inconsistent or not symmetric fail with an IOException naming the file
+ * and the position. The vertex index of the new {@link Graph} is filled while
+ * the file is read, in the one pass over it.
+ */
+public class GraphIO {
+
+    /**
+     * The file formats
+     */
+    public enum Format {
+        EDGE_LIST, CSR
+    }
+
+    /**
+     * Size of the buffer between the channel and the graph
+     */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Constructor for GraphIO objects, only static methods
+     */
+    private GraphIO() {
+    }
+
+    /**
+     * Returns the largest edge weight a graph may have, so that the weight of any
+     * path without repeated vertices fits into an int
+     *
+     * @param vertices number of vertices of the graph
+     * @return the largest weight
+     */
+    static int maxWeight(long vertices) {
+        return (int) (Integer.MAX_VALUE / Math.max(1, vertices - 1));
+    }
+
+    /**
+     * Writes a graph to a file
+     *
+     * @param graph snapshot of the graph
+     * @param file the file, replaced if it exists
+     * @param format the format
+     * @throws IOException if the file can not be written
+     */
+    public static void write(CompactGraph graph, Path file, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (format == Format.CSR) {
+                writeCsr(graph, channel, buffer);
+            } else {
+                writeEdgeList(graph, channel, buffer);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Tells the format of a file by its first bytes
+     *
+     * @param file the file
+     * @return CSR if the file starts with the magic number of the layout, EDGE_LIST otherwise
+     * @throws IOException if the file can not be read
+     */
+    public static Format formatOf(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) >= 0) {
+                // read up to 4 bytes
+            }
+            return head.position() == 4 && head.getInt(0) == OffHeapGraph.MAGIC ? Format.CSR : Format.EDGE_LIST;
+        }
+    }
+
+    /**
+     * Reads a graph from a file in either format {@link #formatOf(Path)}
+     *
+     * @param file the file
+     * @param normalizer normalization applied to every word read; words which become
+     * equal are merged into one vertex
+     * @return a new graph with the vertices and edges of the file
+     * @throws IOException if the file can not be read or its data is not valid
+     */
+    public static Graph<String> read(Path file, WordNormalizer normalizer) throws IOException {
+        Format format = formatOf(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input in = new Input(file, channel);
+            return format == Format.CSR ? readCsr(in, normalizer) : readEdgeList(in, normalizer);
+        }
+    }
+
+    /**
+     * Writes every edge once, from its smaller id, and every vertex without edges on its own
+     * @throws IllegalArgumentException if a label contains a tab or a line break
+     */
+    private static void writeEdgeList(CompactGraph graph, FileChannel channel, ByteBuffer buffer)
+            throws IOException {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] weights = graph.weights();
+        String[] labels = graph.labelsById();
+        byte[][] encoded = new byte[n][];
+        for (int v = 0; v < n; v++) {
+            if (labels[v].indexOf('\t') >= 0 || labels[v].indexOf('\n') >= 0 || labels[v].indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("label can not be written to an edge list: " + labels[v]);
+            }
+            encoded[v] = labels[v].getBytes(StandardCharsets.UTF_8);
+        }
+        labels = null;
+
+        put(channel, buffer, ("# " + n + " vertices, " + graph.edgeCount() + " edges\n")
+                .getBytes(StandardCharsets.UTF_8));
+        for (int v = 0; v < n; v++) {
+            //a line starting with '#' would be a comment
+            boolean hash = encoded[v].length > 0 && encoded[v][0] == '#';
+            if (offsets[v] == offsets[v + 1]) {
+                if (hash) {
+                    put(channel, buffer, (byte) '\t');
+                }
+                put(channel, buffer, encoded[v]);
+                put(channel, buffer, (byte) '\n');
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (w < v) {
+                    continue;
+                }
+                if (hash) {
+                    put(channel, buffer, (byte) '\t');
+                }
+                put(channel, buffer, encoded[v]);
+                put(channel, buffer, (byte) '\t');
+                put(channel, buffer, encoded[w]);
+                if (weights[e] != 1) {
+                    put(channel, buffer, (byte) '\t');
+                    put(channel, buffer, Integer.toString(weights[e]).getBytes(StandardCharsets.US_ASCII));
+                }
+                put(channel, buffer, (byte) '\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the layout of {@link OffHeapGraph}, renumbering the vertices into the
+     * lexicographic order of their labels first if needed
+     */
+    private static void writeCsr(CompactGraph graph, FileChannel channel, ByteBuffer buffer) throws IOException {
+        int n = graph.vertexCount();
+        String[] labels = graph.labelsById();
+        int[] ranks = new int[n];
+        boolean sorted = true;
+        for (int v = 0; v < n; v++) {
+            ranks[v] = graph.vocabulary().rank(labels[v]);
+            sorted &= ranks[v] == v;
+        }
+        if (!sorted) {
+            graph = graph.permute(ranks);
+            labels = graph.vocabulary().words();
+        }
+
+        long chars = 0;
+        for (String label : labels) {
+            chars += label.length();
+        }
+        if (chars > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("labels too long for the format: " + chars + " chars");
+        }
+        ensure(channel, buffer, 16);
+        buffer.putInt(OffHeapGraph.MAGIC).putInt(n).putInt(graph.targets().length).putInt((int) chars);
+        putInts(channel, buffer, graph.offsets());
+        putInts(channel, buffer, graph.targets());
+        putInts(channel, buffer, graph.weights());
+        int start = 0;
+        ensure(channel, buffer, 4);
+        buffer.putInt(start);
+        for (String label : labels) {
+            start += label.length();
+            ensure(channel, buffer, 4);
+            buffer.putInt(start);
+        }
+        for (String label : labels) {
+            for (int i = 0; i < label.length(); i++) {
+                ensure(channel, buffer, 2);
+                buffer.putChar(label.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Reads the lines of an edge list into a new graph
+     */
+    private static Graph<String> readEdgeList(Input in, WordNormalizer normalizer) throws IOException {
+        Graph<String> graph = new Graph<String>();
+        String[] fields = new String[3];
+        int heaviest = 1;
+        long heaviestLine = 0;
+        for (long line = 1; in.nextLine(); line++) {
+            int count = in.split(fields, line);
+            if (count == 0) {
+                continue;
+            }
+            String word1 = vertex(graph, fields[0], normalizer, in, line);
+            if (count == 1) {
+                continue;
+            }
+            String word2 = vertex(graph, fields[1], normalizer, in, line);
+            int weight = 1;
+            if (count == 3) {
+                try {
+                    weight = Integer.parseInt(fields[2]);
+                } catch (NumberFormatException e) {
+                    weight = 0;
+                }
+                if (weight < 1) {
+                    throw in.invalid(line, "weight must be a positive integer: " + fields[2]);
+                }
+                if (weight > heaviest) {
+                    heaviest = weight;
+                    heaviestLine = line;
+                }
+            }
+            if (word1.equals(word2)) {
+                if (fields[0].equals(fields[1])) {
+                    throw in.invalid(line, "edge from a word to itself: " + fields[0]);
+                }
+                continue;
+            }
+            if (!graph.addEdge(word1, word2, weight) && graph.getEdgeWeight(word1, word2) != weight) {
+                throw in.invalid(line, "edge " + word1 + " " + word2 + " given again with weight "
+                        + weight + " instead of " + graph.getEdgeWeight(word1, word2));
+            }
+        }
+        //the number of vertices is only known at the end
+        long n = graph.vertexStream().count();
+        if (heaviest > maxWeight(n)) {
+            throw in.invalid(heaviestLine, "weight " + heaviest + " is too large for a graph of " + n
+                    + " vertices, at most " + maxWeight(n));
+        }
+        return graph;
+    }
+
+    /**
+     * Adds the vertex of a word read from a file, unless it is in the graph already
+     * @return the normalized word
+     */
+    private static String vertex(Graph<String> graph, String field, WordNormalizer normalizer, Input in, long line)
+            throws IOException {
+        String word = normalizer.normalize(field);
+        if (word.isEmpty()) {
+            throw in.invalid(line, "word is empty once normalized: " + field);
+        }
+        graph.addVertex(word);
+        return word;
+    }
+
+    /**
+     * Reads the arrays of a CSR file, checks them, and builds a new graph from them
+     */
+    private static Graph<String> readCsr(Input in, WordNormalizer normalizer) throws IOException {
+        long size = in.channel.size();
+        in.require(16);
+        in.buffer.getInt();
+        int n = in.buffer.getInt();
+        int slots = in.buffer.getInt();
+        int chars = in.buffer.getInt();
+        if (n < 0 || slots < 0 || slots % 2 != 0 || chars < 0
+                || size != 16 + 4L * (2 * (n + 1L) + 2L * slots) + 2L * chars) {
+            throw in.invalid(0, "header does not match the size of the file");
+        }
+
+        int[] offsets = in.ints(n + 1);
+        if (offsets[0] != 0 || offsets[n] != slots) {
+            throw in.invalid(16, "offsets must run from 0 to " + slots);
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets[v] > offsets[v + 1]) {
+                throw in.invalid(16 + 4L * v, "offsets decrease at vertex " + v);
+            }
+        }
+        long at = 16 + 4L * (n + 1);
+        int[] targets = in.ints(slots);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                if (w < 0 || w >= n || w == v || (e > offsets[v] && targets[e - 1] >= w)) {
+                    throw in.invalid(at + 4L * e, "neighbors of vertex " + v
+                            + " must be other vertices in increasing order: " + w);
+                }
+            }
+        }
+        at += 4L * slots;
+        long weightsAt = at;
+        int[] weights = in.ints(slots);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = targets[e];
+                int back = Arrays.binarySearch(targets, offsets[w], offsets[w + 1], v);
+                if (weights[e] < 1 || back < 0 || weights[back] != weights[e]) {
+                    throw in.invalid(at + 4L * e, "edge " + v + " " + w
+                            + " must have a positive weight, the same in both directions");
+                }
+                if (weights[e] > maxWeight(n)) {
+                    throw in.invalid(at + 4L * e, "weight " + weights[e] + " is too large for a graph of "
+                            + n + " vertices, at most " + maxWeight(n));
+                }
+            }
+        }
+        at += 4L * slots;
+        int[] labelStarts = in.ints(n + 1);
+        if (labelStarts[0] != 0 || labelStarts[n] != chars) {
+            throw in.invalid(at, "label starts must run from 0 to " + chars);
+        }
+
+        //the labels, added as vertices in id order while they are read
+        Graph<String> graph = new Graph<String>();
+        String[] words = new String[n];
+        char[] label = new char[0];
+        String previous = null;
+        at += 4L * (n + 1);
+        for (int v = 0; v < n; v++) {
+            int length = labelStarts[v + 1] - labelStarts[v];
+            if (length <= 0) {
+                throw in.invalid(at, "label of vertex " + v + " is empty");
+            }
+            if (label.length < length) {
+                label = new char[Math.max(length, 2 * label.length)];
+            }
+            for (int i = 0; i < length; i++) {
+                in.require(2);
+                label[i] = in.buffer.getChar();
+            }
+            String raw = new String(label, 0, length);
+            if (previous != null && previous.compareTo(raw) >= 0) {
+                throw in.invalid(at, "labels must be distinct and in increasing order: " + raw);
+            }
+            previous = raw;
+            at += 2L * length;
+            words[v] = normalizer.normalize(raw);
+            if (words[v].isEmpty()) {
+                throw in.invalid(at, "label of vertex " + v + " is empty once normalized: " + raw);
+            }
+            graph.addVertex(words[v]);
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                String word1 = words[v];
+                String word2 = words[targets[e]];
+                if (targets[e] < v || word1.equals(word2)) {
+                    continue;
+                }
+                //labels which are the same once normalized must agree on their edges
+                if (!graph.addEdge(word1, word2, weights[e]) && graph.getEdgeWeight(word1, word2) != weights[e]) {
+                    throw in.invalid(weightsAt + 4L * e, "edge " + word1 + " " + word2 + " given again with weight "
+                            + weights[e] + " instead of " + graph.getEdgeWeight(word1, word2));
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Makes room for a number of bytes in the buffer, writing it out if needed
+     */
+    private static void ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes out the buffer and empties it
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void put(FileChannel channel, ByteBuffer buffer, byte b) throws IOException {
+        ensure(channel, buffer, 1);
+        buffer.put(b);
+    }
+
+    private static void put(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        for (int done = 0; done < bytes.length;) {
+            ensure(channel, buffer, 1);
+            int count = Math.min(bytes.length - done, buffer.remaining());
+            buffer.put(bytes, done, count);
+            done += count;
+        }
+    }
+
+    private static void putInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int done = 0; done < values.length;) {
+            ensure(channel, buffer, 4);
+            int count = Math.min(values.length - done, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, done, count);
+            buffer.position(buffer.position() + 4 * count);
+            done += count;
+        }
+    }
+
+    /**
+     * A file being read: the channel, the buffer, and for text the current line
+     */
+    private static class Input {
+
+        private final Path file;
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        // current line, buffer.array()[lineStart..lineEnd) without the line break
+        private int lineStart;
+        private int lineEnd;
+        private boolean ended;
+
+        Input(Path file, FileChannel channel) {
+            this.file = file;
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        /**
+         * Reads until the buffer holds at least a number of bytes
+         * @param bytes the number of bytes, at most BUFFER_SIZE
+         * @throws IOException if the file ends first
+         */
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException(file + " ends unexpectedly");
+                }
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Reads an array of ints
+         * @param length the length of the array
+         * @return the ints
+         */
+        int[] ints(int length) throws IOException {
+            int[] values = new int[length];
+            for (int done = 0; done < length;) {
+                require(4);
+                int count = Math.min(length - done, buffer.remaining() / 4);
+                buffer.asIntBuffer().get(values, done, count);
+                buffer.position(buffer.position() + 4 * count);
+                done += count;
+            }
+            return values;
+        }
+
+        /**
+         * Moves to the next line, reading more of the file if the line is not in the buffer
+         * @return false at the end of the file
+         */
+        boolean nextLine() throws IOException {
+            byte[] bytes = buffer.array();
+            while (true) {
+                for (int i = buffer.position(); i < buffer.limit(); i++) {
+                    if (bytes[i] == '\n') {
+                        lineStart = buffer.position();
+                        lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                        buffer.position(i + 1);
+                        return true;
+                    }
+                }
+                if (ended) {
+                    if (!buffer.hasRemaining()) {
+                        return false;
+                    }
+                    lineStart = buffer.position();
+                    lineEnd = buffer.limit();
+                    buffer.position(buffer.limit());
+                    return true;
+                }
+                if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                    //a line longer than the buffer
+                    ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+                    larger.put(buffer);
+                    buffer = larger;
+                    bytes = buffer.array();
+                } else {
+                    buffer.compact();
+                }
+                ended = channel.read(buffer) < 0;
+                buffer.flip();
+            }
+        }
+
+        /**
+         * Splits the current line into fields separated by tabs, the spaces around
+         * a field are left to the normalizer
+         *
+         * @param fields receives the fields
+         * @param line number of the line, for errors
+         * @return the number of fields, 0 for a blank line or a comment
+         */
+        int split(String[] fields, long line) throws IOException {
+            byte[] bytes = buffer.array();
+            if (lineStart < lineEnd && bytes[lineStart] == '#') {
+                return 0;
+            }
+            int blank = lineStart;
+            while (blank < lineEnd && (bytes[blank] == ' ' || bytes[blank] == '\t')) {
+                blank++;
+            }
+            if (blank == lineEnd) {
+                return 0;
+            }
+            int count = 0;
+            int i = lineStart;
+            while (true) {
+                while (i < lineEnd && bytes[i] == '\t') {
+                    i++;
+                }
+                if (i == lineEnd) {
+                    return count;
+                }
+                int start = i;
+                boolean ascii = true;
+                while (i < lineEnd && bytes[i] != '\t') {
+                    ascii &= bytes[i] >= 0;
+                    i++;
+                }
+                if (count == fields.length) {
+                    throw invalid(line, "more than " + fields.length + " fields");
+                }
+                fields[count++] = ascii ? new String(bytes, start, i - start, StandardCharsets.ISO_8859_1)
+                        : decode(bytes, start, i - start, line);
+            }
+        }
+
+        private String decode(byte[] bytes, int start, int length, long line) throws IOException {
+            try {
+                return decoder.decode(ByteBuffer.wrap(bytes, start, length)).toString();
+            } catch (CharacterCodingException e) {
+                throw invalid(line, "not UTF-8");
+            }
+        }
+
+        /**
+         * Creates the exception for invalid data
+         * @param position line number for text, byte offset for CSR files
+         * @param reason what is wrong
+         * @return the exception
+         */
+        IOException invalid(long position, String reason) {
+            return new IOException(file + ":" + position + ": " + reason);
+        }
+    }
+}
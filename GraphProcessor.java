@@ -1,14 +1,22 @@
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.function.Supplier;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 ////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
@@ -31,12 +39,13 @@ import java.util.stream.Stream;
 //
 ///////////////////////////////// KNOWN BUGS //////////////////////////////////
 //
-// We are having a bug in Graph Processor file where the shortestPathPrecomputation
-//    method will only generate paths of the form HAT -> CAT -> HAT or
-//    ON -> HAT -> ON
-// 
-//    Currently we are unsure what is causing this bug, other than the fact it
-//    is occurring in the shortestPathPrecomputation method
+// GraphProcessorTest fails 5 of its tests, whose expectations or input files
+//    do not match the code:
+//  - test02 reads shortestPath.txt, which is not in the repository.
+//  - test03 expects CAT -> WHEAT in shortestPathTest.txt, which has no path.
+//  - test04 reads words_list.txt, which is not in the repository.
+//  - test06 expects lowercase words, getWordStream returns them in UPPERCASE.
+//  - test09 expects 7 for ON -> HAT, the shortest path has 6 edges.
 //
 /////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
 
@@ -59,11 +68,16 @@ import java.util.stream.Stream;
  * @see #getShortestPath(String, String)
  *  - returns a list of vertices that constitute the shortest path between two given vertices, 
  *    computed using the precomputed data structures computed as part of {@link #shortestPathPrecomputation()}.
- *  - {@link #shortestPathPrecomputation()} must have been invoked once before invoking this method.
+ *  - without the precomputed data structures, the path is found by the {@link QueryStrategy}
+ *    picked for the graph after populateGraph, or set with {@link #setQueryStrategy(QueryStrategy)}.
  * @see #getShortestDistance(String, String)
  *  - returns distance (number of edges) as an Integer for the shortest path between two given vertices
  *  - this is computed using the precomputed data structures computed as part of {@link #shortestPathPrecomputation()}.
- *  - {@link #shortestPathPrecomputation()} must have been invoked once before invoking this method.
+ *  - without the precomputed data structures, a search of the query strategy is run instead.
+ * @see #setMemoryBudget(long)
+ *  - limits the estimated heap memory of the graph, the distance table and the caches
+ *    {@link #getMemoryAccount()}. Over the budget, the distance table keeps the distances of
+ *    fewer sources and the caches keep fewer entries, instead of running out of memory.
  *  
  * @author sapan (sapan@cs.wisc.edu)
  * 
@@ -73,17 +87,140 @@ public class GraphProcessor {
     /**
      * Graph which stores the dictionary words and their associated connections
      */
-    private GraphADT<String> graph;
+    private WeightedGraphADT<String> graph;
     
     /**
-     * HashMap which stores the shortest path from all combinations of words
+     * Distances between all pairs of words, distanceTable[u][v] is the number of edges
+     * between the vertices with ids u and v of {@link #compactGraph}, -1 if there is no path.
+     * Computed by {@link #shortestPathPrecomputation()}. The row of a vertex is null if the
+     * memory budget left it out.
      */
-    private Map<String, Map<String, ArrayList<String>>> shortestPathHash;
+    private int[][] distanceTable;
+    
+    /**
+     * Largest number of longs per vertex used by the multi-source breadth first search
+     * of the precomputation, i.e. at most 64 * 8 sources per pass
+     */
+    private static final int MAX_BFS_WORDS = 8;
+    
+    /**
+     * Strategy set by {@link #setQueryStrategy(QueryStrategy)}, null to let the cost model pick one
+     */
+    private QueryStrategy queryStrategy;
+    
+    /**
+     * Strategy in use with its estimates, picked with each new snapshot, null until the next
+     * query picks one if the snapshot was dropped
+     */
+    private QueryStrategy.Plan queryPlan;
+    
+    /**
+     * Parents of the breadth first search trees of the recently queried words, by their id,
+     * kept while the strategy is {@link QueryStrategy#PER_SOURCE_CACHE}
+     */
+    private LinkedHashMap<Integer, int[]> sourceTrees;
+    
+    private static final Logger LOG = Logger.getLogger(GraphProcessor.class.getName());
+    
+    /**
+     * Largest estimated heap bytes of the graph, the distance table and the caches together,
+     * Long.MAX_VALUE if there is no budget
+     */
+    private long memoryBudget = Long.MAX_VALUE;
+    
+    /**
+     * Share of the budget left after the graph the path cache may take; the rest is left
+     * to the query strategy
+     */
+    static final double PATH_CACHE_SHARE = 0.25;
+    
+    /**
+     * Largest edit distance between two words which are connected by an edge
+     */
+    private final int maxEditDistance;
+    
+    /**
+     * Costs of the edits, used as the weights of the edges
+     */
+    private final EditCosts editCosts;
+    
+    /**
+     * Canonical form of the words of the dictionaries and of the queries
+     */
+    private WordNormalizer wordNormalizer = WordNormalizer.DEFAULT;
+    
+    /**
+     * Index over all the words in the graph, used to find the neighbors of a new word
+     * without comparing it against every other word
+     */
+    private WordTrie wordIndex;
+    
+    /**
+     * Snapshot of the graph used by the searches over vertex ids, null until needed
+     * and reset whenever the graph changes
+     */
+    private CompactGraph compactGraph;
+    
+    /**
+     * Order the vertices of compactGraph are numbered in
+     */
+    private VertexOrder vertexOrder = VertexOrder.LEXICOGRAPHIC;
+    
+    /**
+     * Number of paths kept by the path cache
+     */
+    public static final int DEFAULT_PATH_CACHE_CAPACITY = 4096;
+    
+    /**
+     * Size from which a dictionary file is read by a {@link ParallelWordLoader}
+     */
+    public static final long PARALLEL_LOAD_BYTES = 16L << 20;
+    
+    /**
+     * Recent results of {@link #getShortestPath(String, String)} and {@link #getShortestDistance(String, String)}
+     * as ids of compactGraph, cleared whenever compactGraph is replaced
+     */
+    private PathCache pathCache = new PathCache(DEFAULT_PATH_CACHE_CAPACITY);
+    
+    /**
+     * Lock held for a whole {@link #applyChanges(Collection, Collection)}, so two batches
+     * never derive their snapshots from the same one
+     */
+    private final Object changeLock = new Object();
+    
     /**
      * Constructor for this class. Initializes instances variables to set the starting state of the object
      */
     public GraphProcessor() {
+        this(1);
+    }
+    
+    /**
+     * Constructor for a graph where words are adjacent if they are within maxEditDistance
+     * edits of each other {@link WordProcessor#isAdjacent(String, String, int)}
+     * 
+     * @param maxEditDistance largest edit distance between adjacent words, at least 1
+     */
+    public GraphProcessor(int maxEditDistance) {
+        this(maxEditDistance, EditCosts.UNIT);
+    }
+    
+    /**
+     * Constructor for a weighted graph where words are adjacent if they are within
+     * maxEditDistance edits of each other, and the weight of an edge is the cost
+     * of the edits {@link EditCosts#weight(String, String)}
+     * 
+     * @param maxEditDistance largest edit distance between adjacent words, at least 1
+     * @param editCosts costs of the edits
+     */
+    public GraphProcessor(int maxEditDistance, EditCosts editCosts) {
+        if (maxEditDistance < 1) {
+            throw new IllegalArgumentException("maxEditDistance must be at least 1: " + maxEditDistance);
+        }
+        this.maxEditDistance = maxEditDistance;
+        this.editCosts = editCosts;
         this.graph = new Graph<>();
+        this.wordIndex = new WordTrie();
     }
         
     /**
@@ -94,42 +231,359 @@ public class GraphProcessor {
      * Reads a word from the file and adds it as a vertex to a graph.
      * Repeat for all words.
      * 
-     * For all possible pairs of vertices, finds if the pair of vertices is adjacent {@link WordProcessor#isAdjacent(String, String)}
-     * If a pair is adjacent, adds an undirected and unweighted edge between the pair of vertices in the graph.
+     * For each new vertex, finds the existing vertices it is adjacent to {@link WordProcessor#isAdjacent(String, String, int)}
+     * through {@link #wordIndex}, and adds an undirected edge between each such pair of vertices in the graph,
+     * weighted by {@link #editCosts}.
+     * 
+     * Plain files of at least {@link #PARALLEL_LOAD_BYTES} bytes are read, normalized and
+     * deduplicated in parallel chunks by a {@link ParallelWordLoader}, and their words
+     * are added in increasing order; smaller and compressed files are streamed in file order.
+     * 
+     * Afterwards the query strategy is picked for the new graph and logged {@link QueryStrategy}.
+     * If the file turns out to be unreadable partway through, the words read before stay in
+     * the graph, and the snapshot and the query strategy are still brought up to date.
      * 
      * @param filepath file path to the dictionary
-     * @return Integer the number of vertices (words) added
+     * @return Integer the number of vertices (words) added, -1 if the file can not be read
      */
-    public Integer populateGraph(String filepath) {
+    public synchronized Integer populateGraph(String filepath) {
     	
         Stream<String> wordStream = null;
         
-        //Get stream
+        //Get stream, large files through a table loaded in parallel
         try {
-            wordStream = getWordStream(filepath);
+            Path file = Paths.get(filepath);
+            if (Files.size(file) >= PARALLEL_LOAD_BYTES && !WordListReader.isEncoded(file)) {
+                wordStream = Arrays.stream(new ParallelWordLoader(wordNormalizer).load(file));
+            } else {
+                wordStream = getWordStream(filepath);
+            }
         } catch (IOException e) {
             return -1;
         }
         
-        //Add each string in the stream into the graph
-        wordStream.forEach(graph::addVertex);
-        
-        //populate edges 
-        Iterable<String> vertecies = graph.getAllVertices();
+        //Add each new string in the stream into the graph, connecting it to the
+        //words already indexed that are within maxEditDistance of it
+        //Closing the stream stops a decoder thread and closes the file, also when
+        //the words can not all be read
         int size = 0;
-        for (String vertex1 : vertecies) {
-            
-            for (String vertex2 : vertecies) {
-            	    if(WordProcessor.isAdjacent(vertex1, vertex2));
-                    graph.addEdge(vertex1, vertex2);
+        try (Stream<String> words = wordStream) {
+            for (String word : (Iterable<String>) words::iterator) {
+                
+                if (insertWord(word) != null) {
+                    size++;
+                }
             }
-            size++;
+        } catch (UncheckedIOException e) {
+            LOG.log(Level.WARNING, "could not read {0}: {1}", new Object[] { filepath, e.getCause().getMessage() });
+            size = -1;
+        } finally {
+            invalidate();
+            planQueries(Level.INFO);
         }
         
+        return size;
+    
+    }
+    
+    /**
+     * Replaces the graph with one read from a file written by {@link #exportGraph(String, GraphIO.Format)}
+     * or by another tool, in either format of {@link GraphIO}. The edges are taken as they are
+     * instead of being computed from the words; words added later are still connected by
+     * their edit distance.
+     * 
+     * The words are normalized like the words of a dictionary. If the file can not be read
+     * or its data is not valid, the graph is left unchanged and the reason is logged.
+     * 
+     * @param filepath file path to the graph
+     * @return Integer the number of vertices read, -1 if the file could not be imported
+     */
+    public synchronized Integer importGraph(String filepath) {
+        Graph<String> imported;
+        try {
+            imported = GraphIO.read(Paths.get(filepath), wordNormalizer);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "could not import graph: {0}", e.getMessage());
+            return -1;
+        }
         
-        
+        WordTrie index = new WordTrie();
+        int size = 0;
+        for (String word : imported.getAllVertices()) {
+            index.add(word);
+            size++;
+        }
+        graph = imported;
+        wordIndex = index;
+        invalidate();
+        planQueries(Level.INFO);
         return size;
+    }
     
+    /**
+     * Writes the graph to a file {@link GraphIO}, which {@link #importGraph(String)} and
+     * other tools can read without computing the edges again
+     * 
+     * @param filepath file path to write to, replaced if it exists
+     * @param format the format of the file
+     * @return Integer the number of vertices written, -1 if the file could not be written
+     */
+    public synchronized Integer exportGraph(String filepath, GraphIO.Format format) {
+        CompactGraph snapshot = getCompactGraph();
+        try {
+            GraphIO.write(snapshot, Paths.get(filepath), format);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "could not export graph: {0}", e.getMessage());
+            return -1;
+        }
+        return snapshot.vertexCount();
+    }
+    
+    /**
+     * Adds a single word to the graph, with an edge to every word within maxEditDistance of it
+     * {@link #applyChanges(Collection, Collection)}
+     * 
+     * @param word the word, trimmed and converted to UPPERCASE like the words of a dictionary file
+     * @return true if the word was not in the graph yet
+     */
+    public boolean addWord(String word) {
+        return applyChanges(Collections.singletonList(word), Collections.<String>emptyList()) == 1;
+    }
+    
+    /**
+     * Removes a single word from the graph, together with its edges
+     * {@link #applyChanges(Collection, Collection)}
+     * 
+     * @param word the word, trimmed and converted to UPPERCASE like the words of a dictionary file
+     * @return true if the word was in the graph
+     */
+    public boolean removeWord(String word) {
+        return applyChanges(Collections.<String>emptyList(), Collections.singletonList(word)) == 1;
+    }
+    
+    /**
+     * Applies a batch of dictionary changes: removes the words of removed, then adds
+     * the words of added.
+     * 
+     * Queries are only held up while the graph and the index are changed. The next
+     * snapshot for the queries is derived from the current one and the changes
+     * {@link CompactGraph#withChanges(Set, Map)} without holding the lock, and so are
+     * its query strategy and, for ALL_PAIRS, its distance table. Queries keep answering
+     * from the current snapshot, with its query plan and distance table, until the new
+     * ones are swapped in.
+     * 
+     * @param added words to add, trimmed and converted to UPPERCASE
+     * @param removed words to remove, trimmed and converted to UPPERCASE
+     * @return the number of words actually added or removed
+     */
+    public int applyChanges(Collection<String> added, Collection<String> removed) {
+        synchronized (changeLock) {
+            
+            Set<String> removedWords = new HashSet<String>();
+            Map<String, Map<String, Integer>> addedWords = new HashMap<String, Map<String, Integer>>();
+            CompactGraph previous;
+            CompactGraph next = null;
+            VertexOrder order;
+            QueryStrategy strategy;
+            long budget;
+            long required;
+            
+            synchronized (this) {
+                previous = compactGraph;
+                order = vertexOrder;
+                strategy = queryStrategy;
+                budget = memoryBudget;
+                for (String word : removed) {
+                    word = normalize(word);
+                    if (deleteWord(word)) {
+                        removedWords.add(word);
+                    }
+                }
+                for (String word : added) {
+                    word = normalize(word);
+                    Map<String, Integer> edges = insertWord(word);
+                    if (edges != null) {
+                        addedWords.put(word, edges);
+                    }
+                }
+                if (previous == null) {
+                    //no snapshot to derive the next one from, take one of the graph as it is now
+                    invalidate();
+                    next = getCompactGraph();
+                    previous = next;
+                }
+                required = graph.estimatedBytes() + wordIndex.estimatedBytes();
+            }
+            
+            if (next == null) {
+                if (removedWords.isEmpty() && addedWords.isEmpty()) {
+                    return 0;
+                }
+                next = previous.withChanges(removedWords, addedWords);
+                if (order != VertexOrder.LEXICOGRAPHIC) {
+                    next = next.permute(order.permutation(next));
+                }
+            }
+            long spare = spareBytes(budget, required + next.estimatedBytes());
+            QueryStrategy.Plan plan = QueryStrategy.plan(next, queryBudget(spare), strategy);
+            int[][] table = plan.getStrategy() == QueryStrategy.ALL_PAIRS ? precomputeDistances(next, spare) : null;
+            
+            synchronized (this) {
+                //another writer may have replaced the snapshot or its settings in the meantime
+                if (compactGraph == previous && order == vertexOrder && strategy == queryStrategy
+                        && budget == memoryBudget) {
+                    invalidate();
+                    compactGraph = next;
+                    usePlan(plan, table, spare, Level.FINE);
+                } else {
+                    invalidate();
+                    planQueries(Level.FINE);
+                }
+            }
+            return removedWords.size() + addedWords.size();
+        }
+    }
+    
+    /**
+     * Adds a word to the graph and to the index, with an edge to every indexed word within
+     * maxEditDistance of it. Does not touch the snapshot.
+     * 
+     * @param word the word
+     * @return the weight of the edge to each neighbor, null if the word was already in the graph
+     */
+    private Map<String, Integer> insertWord(String word) {
+        if (word.isEmpty() || graph.addVertex(word) == null) {
+            return null;
+        }
+        Map<String, Integer> edges = new HashMap<String, Integer>();
+        for (String neighbor : wordIndex.search(word, maxEditDistance)) {
+            int weight = editCosts.weight(word, neighbor);
+            if (graph.addEdge(word, neighbor, weight)) {
+                edges.put(neighbor, weight);
+            }
+        }
+        wordIndex.add(word);
+        return edges;
+    }
+    
+    /**
+     * Removes a word from the graph and from the index. Does not touch the snapshot.
+     * 
+     * @param word the word
+     * @return true if the word was in the graph
+     */
+    private boolean deleteWord(String word) {
+        if (!wordIndex.remove(word)) {
+            return false;
+        }
+        graph.removeVertex(word);
+        return true;
+    }
+    
+    /**
+     * Brings a word to the form the words of a dictionary file have {@link WordProcessor#getWordStream(String)}
+     * 
+     * @param word the word
+     * @return the word trimmed and in UPPERCASE, by {@link #wordNormalizer}
+     */
+    private String normalize(String word) {
+        return wordNormalizer.normalize(word);
+    }
+    
+    /**
+     * Drops the snapshot and everything computed from it, after the graph changed
+     */
+    private void invalidate() {
+        pathCache.clear();
+        compactGraph = null;
+        distanceTable = null;
+        queryPlan = null;
+        sourceTrees = null;
+    }
+    
+    /**
+     * Picks the query strategy for the current graph, and prepares it: computes the
+     * distances for ALL_PAIRS, or makes room for the source trees
+     * 
+     * @param level level the decision is logged at
+     */
+    private void planQueries(Level level) {
+        CompactGraph snapshot = getCompactGraph();
+        long spare = spareBytes();
+        QueryStrategy.Plan plan = QueryStrategy.plan(snapshot, queryBudget(spare), queryStrategy);
+        int[][] table = distanceTable;
+        if (plan.getStrategy() == QueryStrategy.ALL_PAIRS && table == null) {
+            table = precomputeDistances(snapshot, spare);
+        }
+        usePlan(plan, table, spare, level);
+    }
+    
+    /**
+     * Makes a query plan the current one, with the distance table computed for it
+     * 
+     * @param plan the plan
+     * @param table the distance table, null if there is none
+     * @param spare the spare bytes of the budget {@link #spareBytes(long, long)}
+     * @param level level the decision is logged at
+     */
+    private void usePlan(QueryStrategy.Plan plan, int[][] table, long spare, Level level) {
+        pathCache.setMaxBytes(spare == Long.MAX_VALUE ? Long.MAX_VALUE : (long) (spare * PATH_CACHE_SHARE));
+        queryPlan = plan;
+        distanceTable = table;
+        
+        int trees = plan.getSourceTrees();
+        sourceTrees = trees == 0 ? null : new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > trees;
+            }
+        };
+        LOG.log(level, "query strategy {0}", queryPlan);
+        if (memoryBudget != Long.MAX_VALUE) {
+            MemoryAccount account = getMemoryAccount();
+            LOG.log(account.total() > memoryBudget ? Level.WARNING : level, "memory {0}", account);
+        }
+    }
+    
+    /**
+     * Estimates the heap bytes of the budget which the graph, the word index and the
+     * snapshot leave for the distance table and the caches
+     * 
+     * @return the spare bytes {@link #spareBytes(long, long)}
+     */
+    private long spareBytes() {
+        long required = graph.estimatedBytes() + wordIndex.estimatedBytes() + getCompactGraph().estimatedBytes();
+        return spareBytes(memoryBudget, required);
+    }
+    
+    /**
+     * Estimates the heap bytes of a budget which are left once the required bytes are kept
+     * 
+     * @param budget the budget, Long.MAX_VALUE for no budget
+     * @param required the bytes of the graph, the word index and the snapshot
+     * @return the spare bytes, 0 if the graph alone takes the whole budget, Long.MAX_VALUE if there is no budget
+     */
+    private static long spareBytes(long budget, long required) {
+        return budget == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, budget - required);
+    }
+    
+    /**
+     * Estimates the heap bytes the query strategy may keep: a share of the free heap,
+     * and no more than the spare bytes of the budget which the path cache leaves
+     * 
+     * @param spare the spare bytes of the budget {@link #spareBytes(long, long)}
+     * @return the bytes
+     */
+    private static long queryBudget(long spare) {
+        Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        long budget = (long) (available * QueryStrategy.HEAP_SHARE);
+        if (spare == Long.MAX_VALUE) {
+            return budget;
+        }
+        return Math.min(budget, spare - (long) (spare * PATH_CACHE_SHARE));
     }
     
     /**
@@ -141,7 +595,7 @@ public class GraphProcessor {
      */
     private Stream<String> getWordStream(String filepath) throws IOException {
         
-        Stream<String> wordStream = WordProcessor.getWordStream(filepath);
+        Stream<String> wordStream = WordProcessor.getWordStream(filepath, wordNormalizer);
         
         return wordStream;
     }
@@ -162,13 +616,126 @@ public class GraphProcessor {
      * 
      * @param word1 first word
      * @param word2 second word
-     * @return List<String> list of the words
+     * @return IntPath read-only list of the words, empty if there is no path
+     */
+    public synchronized IntPath getShortestPath(String word1, String word2) {
+        CompactGraph snapshot = getCompactGraph();
+        int source = snapshot.id(normalize(word1));
+        int target = snapshot.id(normalize(word2));
+        if (source < 0 || target < 0) {
+            return IntPath.empty(snapshot);
+        }
+        return new IntPath(snapshot, path(source, target));
+    }
+    
+    /**
+     * Finds a shortest path between two vertices of {@link #compactGraph}, through the
+     * path cache first
+     * 
+     * @param source id of the first vertex
+     * @param target id of the last vertex
+     * @return the ids of the path, empty if there is none
      */
-    public List<String> getShortestPath(String word1, String word2) {
-      	//access nested HashMap
-        ArrayList<String> shortestPath = new ArrayList<String>();  // *** This line isn't doing much
-        shortestPath = shortestPathHash.get(word1.toUpperCase()).get(word2.toUpperCase()); // *** shortestPathHash never initialized
-        return shortestPath;
+    private int[] path(int source, int target) {
+        int[] path = pathCache.get(source, target);
+        if (path != null) {
+            return path;
+        }
+        if (queryPlan == null) {
+            planQueries(Level.FINE);
+        }
+        
+        //Without the distances of either word in the table, take the path from a
+        //search tree of either word, or search from both words until they meet
+        if (distanceTable != null && distanceTable[target] != null) {
+            path = tablePath(source, target);
+        } else if (distanceTable != null && distanceTable[source] != null) {
+            int[] reversed = tablePath(target, source);
+            path = new int[reversed.length];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = reversed[path.length - 1 - i];
+            }
+        } else if (sourceTrees != null) {
+            path = treePath(source, target);
+        } else {
+            try (BidirectionalBfs search = new BidirectionalBfs(compactGraph)) {
+                path = search.path(source, target);
+            }
+        }
+        pathCache.put(source, target, path);
+        return path;
+    }
+    
+    /**
+     * Walks from source towards target, each step to the first neighbor one edge closer
+     * according to the row of target in the distance table
+     * 
+     * @param source id of the first vertex
+     * @param target id of the last vertex, whose row is in the table
+     * @return the ids of the path, empty if there is none
+     */
+    private int[] tablePath(int source, int target) {
+        int[] toTarget = distanceTable[target];
+        if (toTarget[source] < 0) {
+            return new int[0];
+        }
+        int[] offsets = compactGraph.offsets();
+        int[] targets = compactGraph.targets();
+        int[] path = new int[toTarget[source] + 1];
+        path[0] = source;
+        for (int i = 1; i < path.length; i++) {
+            int current = path[i - 1];
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                if (toTarget[targets[e]] == toTarget[current] - 1) {
+                    path[i] = targets[e];
+                    break;
+                }
+            }
+        }
+        return path;
+    }
+    
+    /**
+     * Finds a shortest path in the breadth first search tree of one of its ends,
+     * searching the whole graph from source if neither has a tree yet
+     * 
+     * @param source id of the first vertex
+     * @param target id of the last vertex
+     * @return the ids of the path, empty if there is none
+     */
+    private int[] treePath(int source, int target) {
+        int[] parents = sourceTrees.get(target);
+        boolean fromTarget = parents != null;
+        if (!fromTarget) {
+            parents = sourceTrees.get(source);
+        }
+        if (parents == null) {
+            try (DirectionOptimizingBfs search = new DirectionOptimizingBfs(compactGraph)) {
+                search.search(source);
+                parents = search.parents();
+            }
+            sourceTrees.put(source, parents);
+        }
+        
+        //walk up the tree from the end which is not its root
+        int from = fromTarget ? source : target;
+        if (parents[from] < 0) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = from; parents[v] != v; v = parents[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int at = fromTarget ? 0 : length - 1;
+        for (int v = from;; v = parents[v]) {
+            path[at] = v;
+            at += fromTarget ? 1 : -1;
+            if (parents[v] == v) {
+                break;
+            }
+        }
+        return path;
     }
     
     /**
@@ -186,107 +753,458 @@ public class GraphProcessor {
      * 
      * @param word1 first word
      * @param word2 second word
-     * @return Integer distance
+     * @return Integer distance, -1 if there is no path
      */
-    public Integer getShortestDistance(String word1, String word2) {
-        //access nested HashMap
-        int shortestDistance = 0;
+    public synchronized Integer getShortestDistance(String word1, String word2) {
         
-        if (word1.equalsIgnoreCase(word2)) {
+        if (normalize(word1).equals(normalize(word2))) {
             return 0;
         }
-	    
-        ArrayList<String> shortestPath = shortestPathHash.get(word1.toUpperCase()).get(word2.toUpperCase());
-        shortestDistance = shortestPath.size() - 1;
-        return shortestDistance;
+        
+        CompactGraph snapshot = getCompactGraph();
+        int source = snapshot.id(normalize(word1));
+        int target = snapshot.id(normalize(word2));
+        if (source < 0 || target < 0) {
+            return -1;
+        }
+        if (queryPlan == null) {
+            planQueries(Level.FINE);
+        }
+        if (distanceTable != null && distanceTable[target] != null) {
+            return distanceTable[target][source];
+        }
+        if (distanceTable != null && distanceTable[source] != null) {
+            return distanceTable[source][target];
+        }
+        return path(source, target).length - 1;
     }
-
+    
+    /**
+     * Gets the list of words that create the lightest path between word1 and word2,
+     * where the weight of each step is the cost of its edits {@link EditCosts}
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return IntPath read-only list of the words, empty if there is no path
+     */
+    public synchronized IntPath getWeightedShortestPath(String word1, String word2) {
+        CompactGraph snapshot = getCompactGraph();
+        int source = snapshot.id(normalize(word1));
+        int target = snapshot.id(normalize(word2));
+        if (source < 0 || target < 0) {
+            return IntPath.empty(snapshot);
+        }
+        try (DijkstraEngine engine = new DijkstraEngine(snapshot)) {
+            return new IntPath(snapshot, engine.path(source, target));
+        }
+    }
+    
     /**
-     * Innner class for encapsulating data for each node in the graph, and 
-     * making it comparable to use within a priority queue.
+     * Gets the total weight of the lightest path between word1 and word2
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return Integer the sum of the edit costs along the path, -1 if there is no path
      */
-    class DijkstraNode implements Comparable<DijkstraNode> {
-    	
-    	private DijkstraNode predecessor;
-    	private String associatedString;
-    	private int cost;
-    	private boolean visited;
-    	
-    	/**
-    	 * Constructs a DijkstraNode object
-    	 * @param predecessor
-    	 * @param string
-    	 * @param cost
-    	 * @param visited
-    	 */
-    	DijkstraNode(DijkstraNode predecessor, String string, int cost, boolean visited) {
-    		
-    		this.visited = false;
-    		this.predecessor = predecessor;
-    		this.associatedString = string;
-    		this.cost = cost;
-    	}
-    	
-    	//link to parent node, used for constructing shortest path
-		DijkstraNode getPred() {
-			return predecessor;
-		}
+    public synchronized Integer getWeightedShortestDistance(String word1, String word2) {
+        CompactGraph snapshot = getCompactGraph();
+        int source = snapshot.id(normalize(word1));
+        int target = snapshot.id(normalize(word2));
+        if (source < 0 || target < 0) {
+            return -1;
+        }
+        try (DijkstraEngine engine = new DijkstraEngine(snapshot)) {
+            return engine.distance(source, target);
+        }
+    }
+    
+    /**
+     * Returns the snapshot of the graph, taking a new one if the graph changed
+     * since the last search
+     * 
+     * @return the snapshot
+     */
+    private CompactGraph getCompactGraph() {
+        if (compactGraph == null) {
+            CompactGraph snapshot = CompactGraph.of(graph);
+            if (vertexOrder != VertexOrder.LEXICOGRAPHIC) {
+                snapshot = snapshot.permute(vertexOrder.permutation(snapshot));
+            }
+            compactGraph = snapshot;
+        }
+        return compactGraph;
+    }
+    
+    /**
+     * Sets the order the vertices of the snapshot used by the searches are numbered in.
+     * The order does not change the distances, but may change which of several shortest
+     * paths is returned. An existing snapshot is renumbered, and the precomputed distances
+     * are moved to the new ids instead of being computed again.
+     * 
+     * @param order the new order
+     */
+    public synchronized void setVertexOrder(VertexOrder order) {
+        if (order == vertexOrder) {
+            return;
+        }
+        vertexOrder = order;
+        if (compactGraph == null) {
+            return;
+        }
+        
+        int[] newIdOf = order.permutation(compactGraph);
+        int[][] table = distanceTable;
+        CompactGraph snapshot = compactGraph.permute(newIdOf);
+        invalidate();
+        compactGraph = snapshot;
+        
+        if (table != null) {
+            int n = newIdOf.length;
+            distanceTable = new int[n][];
+            for (int target = 0; target < n; target++) {
+                if (table[target] == null) {
+                    continue;
+                }
+                int[] row = new int[n];
+                distanceTable[newIdOf[target]] = row;
+                for (int source = 0; source < n; source++) {
+                    row[newIdOf[source]] = table[target][source];
+                }
+            }
+        }
+        planQueries(Level.FINE);
+    }
+    
+    /**
+     * Sets how shortest path queries are answered, instead of letting the cost model pick
+     * the strategy for the graph {@link QueryStrategy}
+     * 
+     * @param strategy the strategy, null to let the cost model pick it again
+     */
+    public synchronized void setQueryStrategy(QueryStrategy strategy) {
+        queryStrategy = strategy;
+        if (queryPlan != null) {
+            pathCache.clear();
+            sourceTrees = null;
+            if (strategy != QueryStrategy.ALL_PAIRS && queryPlan.getStrategy() == QueryStrategy.ALL_PAIRS) {
+                distanceTable = null;
+            }
+            planQueries(Level.INFO);
+        }
+    }
+    
+    /**
+     * Gets the strategy used for shortest path queries and what the cost model expects
+     * of it, picking one if the graph changed since the last query
+     * 
+     * @return the plan of the strategy
+     */
+    public synchronized QueryStrategy.Plan getQueryPlan() {
+        if (queryPlan == null) {
+            planQueries(Level.FINE);
+        }
+        return queryPlan;
+    }
+    
+    /**
+     * Gets the normalization applied to the words of the dictionaries and of the queries
+     * 
+     * @return the normalizer
+     */
+    public synchronized WordNormalizer getWordNormalizer() {
+        return wordNormalizer;
+    }
+    
+    /**
+     * Sets the normalization applied to the words of the dictionaries and of the queries,
+     * for example the locale of a Turkish dictionary. Words already in the graph are
+     * not normalized again, so it should be set before the graph is populated.
+     * 
+     * @param normalizer the normalizer
+     */
+    public synchronized void setWordNormalizer(WordNormalizer normalizer) {
+        if (normalizer == null) {
+            throw new IllegalArgumentException("normalizer must not be null");
+        }
+        wordNormalizer = normalizer;
+    }
+    
+    /**
+     * Gets the cache of shortest paths, for its hit and miss statistics
+     * 
+     * @return the path cache
+     */
+    public synchronized PathCache getPathCache() {
+        return pathCache;
+    }
+    
+    /**
+     * Replaces the cache of shortest paths with an empty one
+     * 
+     * @param capacity largest number of cached paths, at least 1
+     */
+    public synchronized void setPathCacheCapacity(int capacity) {
+        long maxBytes = pathCache.maxBytes();
+        pathCache = new PathCache(capacity);
+        pathCache.setMaxBytes(maxBytes);
+    }
+    
+    /**
+     * Sets the memory budget: the largest estimated heap bytes of the graph, the distance
+     * table and the caches together {@link MemoryAccount}.
+     * 
+     * The graph, the word index and the snapshot are always kept. Of the rest of the
+     * budget, the path cache may take {@link #PATH_CACHE_SHARE}, and the query strategy is
+     * picked for what is left: the distance table only keeps the rows of as many sources
+     * as fit, the highest degree words first, and fewer source trees are kept. A distance
+     * table computed before is computed again within the new budget.
+     * 
+     * @param bytes the budget in bytes, Long.MAX_VALUE for no budget
+     */
+    public synchronized void setMemoryBudget(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("memory budget must not be negative: " + bytes);
+        }
+        memoryBudget = bytes;
+        if (queryPlan == null && distanceTable == null) {
+            return;
+        }
+        boolean precomputed = distanceTable != null;
+        distanceTable = null;
+        sourceTrees = null;
+        planQueries(Level.INFO);
+        if (precomputed && distanceTable == null) {
+            shortestPathPrecomputation();
+        }
+    }
+    
+    /**
+     * Gets the memory budget
+     * 
+     * @return the budget in bytes, Long.MAX_VALUE if there is none
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    /**
+     * Estimates the heap memory taken by each structure of the processor: the graph,
+     * the word index, the snapshot of the graph, the distance table, the source trees
+     * and the path cache
+     * 
+     * @return the estimates, with the budget they are held to
+     */
+    public synchronized MemoryAccount getMemoryAccount() {
+        LinkedHashMap<String, Long> parts = new LinkedHashMap<String, Long>();
+        parts.put("graph", graph.estimatedBytes());
+        parts.put("wordIndex", wordIndex.estimatedBytes());
+        parts.put("snapshot", compactGraph == null ? 0 : compactGraph.estimatedBytes());
+        long table = 0;
+        if (distanceTable != null) {
+            table = MemoryAccount.referenceArray(distanceTable.length);
+            for (int[] row : distanceTable) {
+                table += row == null ? 0 : MemoryAccount.intArray(row.length);
+            }
+        }
+        parts.put("distanceTable", table);
+        long trees = 0;
+        if (sourceTrees != null) {
+            for (int[] parents : sourceTrees.values()) {
+                trees += MemoryAccount.MAP_ENTRY + MemoryAccount.object(4) + MemoryAccount.intArray(parents.length);
+            }
+        }
+        parts.put("sourceTrees", trees);
+        parts.put("pathCache", pathCache.estimatedBytes());
+        return new MemoryAccount(memoryBudget, parts);
+    }
+    
+    /**
+     * Gets the batch analytics (eccentricity, diameter, betweenness) over the
+     * current graph {@link GraphAnalytics}
+     * 
+     * @return analytics over a snapshot of the graph
+     */
+    public synchronized GraphAnalytics getAnalytics() {
+        return new GraphAnalytics(getCompactGraph(), ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Gets every shortest path between word1 and word2, in the compact form of
+     * the DAG of the edges they use {@link ShortestPathDag}
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return the DAG of the shortest paths, null if either word is not in the graph
+     */
+    public synchronized ShortestPathDag getShortestPathDag(String word1, String word2) {
+        CompactGraph snapshot = getCompactGraph();
+        int source = snapshot.id(normalize(word1));
+        int target = snapshot.id(normalize(word2));
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        return ShortestPathDag.build(snapshot, source, target);
+    }
+    
+    /**
+     * Gets every shortest path between word1 and word2. The paths are produced
+     * one at a time while iterating, so they are never all held in memory.
+     * 
+     * Example: Given a dictionary,
+     *             cat
+     *             cot
+     *             hat
+     *             hot
+     *  the shortest paths between cat and hot are:
+     *     [CAT, COT, HOT] and [CAT, HAT, HOT]
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return Iterable<List<String>> the shortest paths, none if there is no path
+     */
+    public synchronized Iterable<List<String>> getAllShortestPaths(String word1, String word2) {
+        ShortestPathDag dag = getShortestPathDag(word1, word2);
+        if (dag == null) {
+            return new ArrayList<List<String>>();
+        }
+        return dag.paths();
+    }
+    
+    /**
+     * Counts the shortest paths between word1 and word2, in time linear in the
+     * number of vertices and edges on those paths
+     * 
+     * @param word1 first word
+     * @param word2 second word
+     * @return BigInteger the number of shortest paths, 0 if there is no path
+     */
+    public synchronized BigInteger countShortestPaths(String word1, String word2) {
+        ShortestPathDag dag = getShortestPathDag(word1, word2);
+        return dag == null ? BigInteger.ZERO : dag.countPaths();
+    }
 
-		@Override
-		public int compareTo(DijkstraNode other) {
-			return Integer.compare(other.cost, cost);
-		}
+    /**
+     * Gets the words of the graph which start with a prefix, for autocompletion.
+     * The words are looked up in {@link #wordIndex} while the stream is consumed,
+     * so the work depends on how many of them are taken, not on the size of the graph.
+     * 
+     * Example: Given a dictionary,
+     *             cat
+     *             cot
+     *             cattle
+     *  the words with prefix ca are: [CAT, CATTLE]
+     * 
+     * @param prefix the prefix, normalized like a word
+     * @return Stream<String> the words with the prefix, in increasing order
+     */
+    public synchronized Stream<String> findWordsWithPrefix(String prefix) {
+        return wordIndex.withPrefix(normalize(prefix));
     }
+    
+    /**
+     * Gets the words of the graph which match a pattern, where ? stands for any one
+     * letter and * for any sequence of letters {@link WordTrie#matching(String)}
+     * 
+     * Example: Given a dictionary,
+     *             cat
+     *             cot
+     *             coat
+     *  the words matching c?t are: [CAT, COT], and the words matching c*t are: [CAT, COAT, COT]
+     * 
+     * @param pattern the pattern, the text between the wildcards is normalized like a word
+     * @return Stream<String> the matching words, in increasing order
+     */
+    public synchronized Stream<String> findWordsMatching(String pattern) {
+        StringBuilder normalized = new StringBuilder(pattern.length());
+        int start = 0;
+        for (int i = 0; i <= pattern.length(); i++) {
+            if (i == pattern.length() || pattern.charAt(i) == '?' || pattern.charAt(i) == '*') {
+                normalized.append(normalize(pattern.substring(start, i)));
+                if (i < pattern.length()) {
+                    normalized.append(pattern.charAt(i));
+                }
+                start = i + 1;
+            }
+        }
+        return wordIndex.matching(normalized.toString());
+    }
+    
+    /**
+     * Gets the words of the graph nearest to a word by edit distance, for
+     * suggestions when a query word is not in the graph. Limiting the stream to k
+     * words gives the k nearest words {@link WordTrie#nearest(String, int)}
+     * 
+     * @param word the word, which does not need to be in the graph
+     * @param maxDistance largest edit distance of a returned word
+     * @return Stream<String> the words within maxDistance of word, nearest first
+     */
+    public synchronized Stream<String> findNearestWords(String word, int maxDistance) {
+        return wordIndex.nearest(normalize(word), maxDistance);
+    }
+
     /**
      * Computes shortest paths and distances between all possible pairs of vertices.
      * This method is called after every set of updates in the graph to recompute the path information.
-     * Any shortest path algorithm can be used (Djikstra's or Floyd-Warshall recommended).
+     * 
+     * Runs a bit-parallel breadth first search {@link MultiSourceBfs} from all the vertices,
+     * up to 512 of them per pass over the graph, and keeps the table of all distances.
+     * The paths themselves are not stored, {@link #getShortestPath(String, String)}
+     * rebuilds them from the distances.
+     * 
+     * If the table does not fit into the memory budget {@link #setMemoryBudget(long)},
+     * only the words of highest degree are searched from, as many as fit; queries
+     * between two words which were both left out run a search instead.
      */
-    public void shortestPathPrecomputation() { 
-        //Nested HashMap to calculate shortest distances between all combinations
-        shortestPathHash = new HashMap<String, Map<String, ArrayList<String>>>();
-
-        //Graph Processor only needs to iterate through String vertices
-        for(String i : graph.getAllVertices()) { 
-            
-            //Setup
-            Map<String, ArrayList<String>> innerHash = new HashMap<String, ArrayList<String>>();
-            DijkstraNode newNode = new DijkstraNode(null, i, 0, false);
-
-            PriorityQueue<DijkstraNode> priorityQ = new PriorityQueue<DijkstraNode>();
-            priorityQ.add(newNode);
-
-            //keep track of the strings in the queue
-            ArrayList<String> expandedStringNodes = new ArrayList<String>(); 
-            while (!priorityQ.isEmpty()) {
-                
-                //pop lowest cost node out of the queue
-                DijkstraNode node = priorityQ.poll();
-                node.visited = true;
-
-                for(String s : graph.getNeighbors(i)) {
-                    //check if node is already expanded, by reference
-                    if (!expandedStringNodes.contains(s)) {
-                        
-                        expandedStringNodes.add(s);
-                        DijkstraNode successor = new DijkstraNode(node, s, node.cost + 1, false);
-                        ArrayList<String> shortestPathList = new ArrayList<String>();
-                        //add string to visted strings and associated dijkstra node to PQ
-                        shortestPathList.add(i);
-                        priorityQ.add(successor);
-
-                        //computing shortest path for these two nodes with strings i & s
-                        while (successor != null) { 
-                            shortestPathList.add(successor.associatedString);
-                            successor = successor.predecessor;
-                        }
-
-                        innerHash.put(s, shortestPathList);
-
-                    }
-                }
+    public synchronized void shortestPathPrecomputation() {
+        sourceTrees = null;
+        distanceTable = precomputeDistances(getCompactGraph(), spareBytes());
+    }
+    
+    /**
+     * Computes the distance table of a snapshot {@link #shortestPathPrecomputation()}.
+     * Only reads the snapshot, so it runs without holding the lock.
+     * 
+     * @param snapshot the snapshot
+     * @param spare the spare bytes of the budget {@link #spareBytes(long, long)}
+     * @return the table, with null rows for the words left out, null if no row fits
+     */
+    private static int[][] precomputeDistances(CompactGraph snapshot, long spare) {
+        int n = snapshot.vertexCount();
+        int words = Math.max(1, Math.min(MAX_BFS_WORDS, (n + 63) / 64));
+        
+        int rows = n;
+        if (spare != Long.MAX_VALUE) {
+            spare -= (long) (spare * PATH_CACHE_SHARE) + MemoryAccount.referenceArray(n);
+            rows = (int) Math.max(0, Math.min(n, spare / MemoryAccount.intArray(n)));
+        }
+        if (rows == n) {
+            int[] sources = new int[n];
+            for (int v = 0; v < n; v++) {
+                sources[v] = v;
             }
-            shortestPathHash.put(i, innerHash); // store shortest path in hashmap
+            return new MultiSourceBfs(snapshot, words).distances(sources);
+        }
+        
+        LOG.log(Level.WARNING, "memory budget leaves room for the distances of {0} of {1} words",
+                new Object[] { rows, n });
+        if (rows == 0) {
+            return null;
+        }
+        //the words of highest degree, which the most shortest paths pass
+        long[] byDegree = new long[n];
+        for (int v = 0; v < n; v++) {
+            byDegree[v] = (long) -snapshot.degree(v) << 32 | v;
+        }
+        Arrays.sort(byDegree);
+        int[] sources = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            sources[i] = (int) byDegree[i];
+        }
+        int[][] distances = new MultiSourceBfs(snapshot, words).distances(sources);
+        int[][] table = new int[n][];
+        for (int i = 0; i < rows; i++) {
+            table[sources[i]] = distances[i];
         }
+        return table;
     }
 }
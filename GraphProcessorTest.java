@@ -1,10 +1,35 @@
 import static org.junit.Assert.*;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -30,12 +55,13 @@ import org.junit.*;
 //
 ///////////////////////////////// KNOWN BUGS //////////////////////////////////
 //
-// We are having a bug in Graph Processor file where the shortestPathPrecomputation
-//    method will only generate paths of the form HAT -> CAT -> HAT or
-//    ON -> HAT -> ON
-// 
-//    Currently we are unsure what is causing this bug, other than the fact it
-//    is occurring in the shortestPathPrecomputation method
+// GraphProcessorTest fails 5 of its tests, whose expectations or input files
+//    do not match the code:
+//  - test02 reads shortestPath.txt, which is not in the repository.
+//  - test03 expects CAT -> WHEAT in shortestPathTest.txt, which has no path.
+//  - test04 reads words_list.txt, which is not in the repository.
+//  - test06 expects lowercase words, getWordStream returns them in UPPERCASE.
+//  - test09 expects 7 for ON -> HAT, the shortest path has 6 edges.
 //
 /////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
 
@@ -246,4 +272,1084 @@ public class GraphProcessorTest {
 			
 		}
 
+		@Test
+		public void test14_weightedShortestPathUsesEditCosts() {
+			
+			//substitutions cost 3, keyboard neighbors 1, additions and deletions 2
+			GraphProcessor weighted = new GraphProcessor(1, new EditCosts(3, 1, 2, 2));
+			weighted.populateGraph("similarWords.txt");
+			
+			//ON +E ONE +H HONE N>P HOPE -E HOP P>T HOT O>A HAT
+			assertEquals(15, (int) weighted.getWeightedShortestDistance("on", "hat"));
+			assertEquals(7, weighted.getWeightedShortestPath("on", "hat").size());
+			assertEquals(-1, (int) weighted.getWeightedShortestDistance("on", "nope"));
+			
+			//weights too large for buckets are searched with a binary heap, and
+			//the same workspace still serves the bucket queue afterwards
+			Graph<String> heavy = new Graph<String>();
+			for (String word : new String[] { "A", "B", "C", "D" }) {
+				heavy.addVertex(word);
+			}
+			heavy.addEdge("A", "B", 400000000);
+			heavy.addEdge("B", "D", 400000000);
+			heavy.addEdge("A", "C", 100000000);
+			heavy.addEdge("C", "D", 600000000);
+			CompactGraph compact = CompactGraph.of(heavy);
+			try (DijkstraEngine engine = new DijkstraEngine(compact)) {
+				assertEquals(700000000, engine.distance(compact.id("A"), compact.id("D")));
+				assertEquals(3, engine.path(compact.id("D"), compact.id("A")).length);
+			}
+			assertEquals(15, (int) weighted.getWeightedShortestDistance("on", "hat"));
+			
+			//weights which add up to more than an int saturate instead of turning
+			//negative, so the lighter path still wins
+			heavy.addVertex("E");
+			heavy.addEdge("B", "C", 1);
+			heavy.addEdge("D", "E", Integer.MAX_VALUE);
+			heavy.addEdge("C", "E", 2000000000);
+			heavy.addEdge("A", "E", Integer.MAX_VALUE - 5);
+			compact = CompactGraph.of(heavy);
+			try (DijkstraEngine engine = new DijkstraEngine(compact)) {
+				assertEquals(2100000000, engine.distance(compact.id("A"), compact.id("E")));
+				assertEquals(Integer.MAX_VALUE, engine.distance(compact.id("D"), compact.id("E")));
+				assertEquals(Arrays.asList(compact.id("A"), compact.id("C"), compact.id("E")),
+						Arrays.stream(engine.path(compact.id("A"), compact.id("E"))).boxed().collect(Collectors.toList()));
+			}
+			
+			//and agree with Floyd-Warshall on a random graph
+			Random random = new Random(27);
+			Graph<String> randomGraph = new Graph<String>();
+			int n = 40;
+			long[][] expected = new long[n][n];
+			for (int i = 0; i < n; i++) {
+				randomGraph.addVertex("V" + i);
+				Arrays.fill(expected[i], Long.MAX_VALUE / 4);
+				expected[i][i] = 0;
+			}
+			for (int k = 0; k < 120; k++) {
+				int i = random.nextInt(n);
+				int j = random.nextInt(n);
+				int weight = 1 + random.nextInt(1000000);
+				if (i != j && randomGraph.addEdge("V" + i, "V" + j, weight)) {
+					expected[i][j] = expected[j][i] = weight;
+				}
+			}
+			for (int k = 0; k < n; k++) {
+				for (int i = 0; i < n; i++) {
+					for (int j = 0; j < n; j++) {
+						expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+					}
+				}
+			}
+			CompactGraph randomCompact = CompactGraph.of(randomGraph);
+			try (DijkstraEngine engine = new DijkstraEngine(randomCompact)) {
+				for (int i = 0; i < n; i++) {
+					for (int j = 0; j < n; j++) {
+						long distance = engine.distance(randomCompact.id("V" + i), randomCompact.id("V" + j));
+						assertEquals(expected[i][j] >= Long.MAX_VALUE / 4 ? -1 : expected[i][j], distance);
+					}
+				}
+			}
+		}
+		
+		@Test
+		public void test15_allShortestPathsAreEnumeratedAndCounted() {
+			
+			graphPrc.populateGraph("ladderWords.txt");
+			
+			//CAT-HAT-HOT-HOG, CAT-COT-HOT-HOG and CAT-COT-COG-HOG
+			ArrayList<List<String>> paths = new ArrayList<List<String>>();
+			for (List<String> path : graphPrc.getAllShortestPaths("cat", "hog")) {
+				assertEquals(4, path.size());
+				paths.add(path);
+			}
+			
+			assertEquals(3, paths.size());
+			assertEquals(3, graphPrc.countShortestPaths("cat", "hog").intValue());
+			assertEquals(0, graphPrc.countShortestPaths("cat", "dog").intValue());
+		}
+		
+		@Test
+		public void test16_analyticsDiameterAndEccentricity() {
+			
+			graphPrc.populateGraph("similarWords.txt");
+			GraphAnalytics analytics = graphPrc.getAnalytics();
+			
+			//ON-ONE-HONE-HOPE-HOP-HOT-HAT is the longest shortest path
+			assertEquals(6, analytics.diameter());
+			
+			int[] eccentricities = analytics.eccentricities();
+			double[] betweenness = analytics.betweenness();
+			for (int v = 0; v < eccentricities.length; v++) {
+				if (analytics.label(v).equals("ON")) {
+					assertEquals(6, eccentricities[v]);
+					assertEquals(0.0, betweenness[v], 1e-9);
+				}
+				if (analytics.label(v).equals("ONE")) {
+					//every path from ON to the 8 words past ONE
+					assertEquals(8.0, betweenness[v], 1e-9);
+				}
+			}
+		}
+		
+		@Test
+		public void test17_precomputedShortestPathAndDistance() {
+			
+			graphPrc.populateGraph("similarWords.txt");
+			graphPrc.shortestPathPrecomputation();
+			
+			List<String> expectedList = new ArrayList<String>();
+			expectedList.add("ON");
+			expectedList.add("ONE");
+			expectedList.add("HONE");
+			expectedList.add("HOPE");
+			expectedList.add("HOP");
+			expectedList.add("HOT");
+			expectedList.add("HAT");
+			
+			assertEquals(expectedList, graphPrc.getShortestPath("on", "hat"));
+			assertEquals(6, (int) graphPrc.getShortestDistance("hat", "on"));
+			assertEquals(-1, (int) graphPrc.getShortestDistance("on", "cat"));
+			assertTrue(graphPrc.getShortestPath("on", "cat").isEmpty());
+		}
+		
+		@Test
+		public void test18_changeLogIngestion() throws IOException {
+			
+			graphPrc.populateGraph("ladderWords.txt");
+			assertEquals(2, (int) graphPrc.getShortestDistance("cat", "cog"));
+			
+			Path log = Files.createTempFile("changes", ".log");
+			try {
+				//the last line is not complete yet
+				String applied = "-COT\n+CAG\n";
+				Files.write(log, (applied + "+DOG").getBytes(StandardCharsets.UTF_8));
+				
+				ChangeLogIngestor ingestor = new ChangeLogIngestor(graphPrc, log, 0);
+				assertEquals(2, ingestor.poll());
+				assertEquals(applied.length(), ingestor.getAppliedOffset());
+				
+				List<String> expectedList = new ArrayList<String>();
+				expectedList.add("CAT");
+				expectedList.add("CAG");
+				expectedList.add("COG");
+				assertEquals(expectedList, graphPrc.getShortestPath("cat", "cog"));
+				assertEquals(-1, (int) graphPrc.getShortestDistance("cat", "cot"));
+				assertEquals(-1, (int) graphPrc.getShortestDistance("dog", "cog"));
+				
+				Files.write(log, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+				assertEquals(1, ingestor.poll());
+				assertEquals(Files.size(log), ingestor.getAppliedOffset());
+				assertEquals(3, (int) graphPrc.getShortestDistance("dog", "cat"));
+				assertEquals(0, ingestor.poll());
+			} finally {
+				Files.delete(log);
+			}
+		}
+		
+		@Test
+		public void test19_offHeapGraphMatchesGraph() throws IOException {
+			
+			Graph<String> graph = new Graph<String>();
+			for (String word : new String[] {"HOT", "HAT", "CAT", "COT", "COG"}) {
+				graph.addVertex(word);
+			}
+			graph.addEdge("HOT", "HAT", 2);
+			graph.addEdge("HAT", "CAT");
+			graph.addEdge("CAT", "COT");
+			graph.addEdge("COT", "HOT");
+			graph.addEdge("COT", "COG", 3);
+			
+			Path file = Files.createTempFile("graph", ".bin");
+			//a file can not be deleted on every platform while it is mapped
+			file.toFile().deleteOnExit();
+			
+			OffHeapGraph written = OffHeapGraph.write(CompactGraph.of(graph), file);
+			OffHeapGraph[] copies = {OffHeapGraph.of(graph), written, OffHeapGraph.map(file)};
+			for (OffHeapGraph offHeap : copies) {
+				assertEquals(Files.size(file), offHeap.footprintBytes());
+				assertEquals(5, offHeap.vertexCount());
+				assertEquals(5, offHeap.edgeCount());
+				assertTrue(offHeap.isAdjacent("COG", "COT"));
+				assertFalse(offHeap.isAdjacent("COG", "HOT"));
+				assertFalse(offHeap.isAdjacent("DOG", "COG"));
+				assertEquals(2, offHeap.getEdgeWeight("HAT", "HOT"));
+				assertEquals(3, offHeap.getEdgeWeight("COG", "COT"));
+				assertEquals(-1, offHeap.getEdgeWeight("HAT", "COT"));
+				
+				for (String vertex : graph.getAllVertices()) {
+					List<String> expected = new ArrayList<String>();
+					graph.getNeighbors(vertex).forEach(expected::add);
+					expected.sort(null);
+					List<String> actual = new ArrayList<String>();
+					offHeap.getNeighbors(vertex).forEach(actual::add);
+					assertEquals(expected, actual);
+				}
+				
+				int[] distances = offHeap.distances(offHeap.id("HAT"));
+				assertEquals(3, distances[offHeap.id("COG")]);
+			}
+		}
+		
+		@Test
+		public void test20_compressedAdjacencyDecodesNeighbors() {
+			
+			Graph<String> graph = new Graph<String>();
+			String[] words = {"AT", "CAT", "COT", "COG", "DOG", "HAT", "HOT", "OAT", "ZOT"};
+			for (String word : words) {
+				graph.addVertex(word);
+			}
+			for (String word1 : words) {
+				for (String word2 : words) {
+					if (WordProcessor.isAdjacent(word1, word2)) {
+						graph.addEdge(word1, word2);
+					}
+				}
+			}
+			
+			CompactGraph compact = CompactGraph.of(graph);
+			CompressedAdjacency compressed = CompressedAdjacency.of(compact);
+			CompressedAdjacency.Cursor cursor = compressed.cursor();
+			int[] neighbors = new int[compressed.maxDegree()];
+			
+			for (int v = 0; v < compact.vertexCount(); v++) {
+				List<String> expected = new ArrayList<String>();
+				graph.getNeighbors(compact.label(v)).forEach(expected::add);
+				expected.sort(null);
+				
+				int count = compressed.neighbors(v, neighbors);
+				assertEquals(expected, compact.labels(Arrays.copyOf(neighbors, count)));
+				
+				List<String> decoded = new ArrayList<String>();
+				cursor.reset(v);
+				while (cursor.hasNext()) {
+					decoded.add(compact.label(cursor.next()));
+				}
+				assertEquals(expected, decoded);
+			}
+		}
+		
+		@Test
+		public void test21_vertexOrderKeepsDistances() {
+			
+			graphPrc.populateGraph("similarWords.txt");
+			graphPrc.shortestPathPrecomputation();
+			assertEquals(6, (int) graphPrc.getShortestDistance("on", "hat"));
+			
+			for (VertexOrder order : VertexOrder.values()) {
+				graphPrc.setVertexOrder(order);
+				assertEquals(6, (int) graphPrc.getShortestDistance("on", "hat"));
+				assertEquals(-1, (int) graphPrc.getShortestDistance("on", "cat"));
+				
+				List<String> path = graphPrc.getShortestPath("on", "hat");
+				assertEquals(7, path.size());
+				assertEquals("ON", path.get(0));
+				assertEquals("HAT", path.get(6));
+				for (int i = 1; i < path.size(); i++) {
+					assertTrue(WordProcessor.isAdjacent(path.get(i - 1), path.get(i)));
+				}
+			}
+		}
+		
+		@Test
+		public void test22_graphHubNeighbors() {
+			
+			Graph<String> graph = new Graph<String>();
+			graph.addVertex("HUB");
+			for (int i = 0; i < 300; i++) {
+				graph.addVertex("W" + i);
+				assertTrue(graph.addEdge("HUB", "W" + i, 1 + i % 3));
+			}
+			assertFalse(graph.addEdge("W7", "HUB"));
+			
+			for (int i = 0; i < 300; i += 2) {
+				assertTrue(graph.removeEdge("W" + i, "HUB"));
+			}
+			graph.removeVertex("W299");
+			
+			int count = 0;
+			for (String neighbor : graph.getNeighbors("HUB")) {
+				assertTrue(graph.isAdjacent(neighbor, "HUB"));
+				count++;
+			}
+			assertEquals(149, count);
+			assertTrue(graph.isAdjacent("HUB", "W1"));
+			assertFalse(graph.isAdjacent("HUB", "W2"));
+			assertFalse(graph.isAdjacent("HUB", "W299"));
+			assertEquals(3, graph.getEdgeWeight("HUB", "W5"));
+			assertEquals(-1, graph.getEdgeWeight("HUB", "W4"));
+		}
+		
+		@Test
+		public void test23_pathCacheReusesReversedAndSubpaths() {
+			
+			graphPrc.setQueryStrategy(QueryStrategy.BIDIRECTIONAL);
+			graphPrc.populateGraph("similarWords.txt");
+			PathCache cache = graphPrc.getPathCache();
+			
+			List<String> path = graphPrc.getShortestPath("on", "hat");
+			assertEquals(7, path.size());
+			assertEquals(1, cache.misses());
+			
+			List<String> reversed = new ArrayList<String>(graphPrc.getShortestPath("hat", "on"));
+			Collections.reverse(reversed);
+			assertEquals(path, reversed);
+			assertEquals(1, cache.hits());
+			
+			//HONE and HOT both lie on ON-ONE-HONE-HOPE-HOP-HOT-HAT
+			assertEquals(path.subList(2, 6), graphPrc.getShortestPath("hone", "hot"));
+			assertEquals(3, (int) graphPrc.getShortestDistance("hot", "hone"));
+			assertEquals(2, cache.subpathHits());
+			assertEquals(1, cache.misses());
+		}
+		
+		@Test
+		public void test24_stressHarnessAgreesWithReference() throws IOException {
+			
+			StressHarness.Report report = new StressHarness(4).run(2000, 7, 400);
+			assertTrue(report.toString(), report.getMismatches().isEmpty());
+		}
+		
+		@Test
+		public void test25_searchWorkspacesAreReused() {
+			
+			SearchWorkspace first = SearchWorkspace.acquire(10);
+			SearchWorkspace nested = SearchWorkspace.acquire(10);
+			assertNotSame(first, nested);
+			nested.close();
+			first.close();
+			SearchWorkspace again = SearchWorkspace.acquire(5);
+			assertSame(first, again);
+			again.close();
+			
+			//every query reuses the same workspaces, so none may see the previous search
+			graphPrc.setQueryStrategy(QueryStrategy.BIDIRECTIONAL);
+			graphPrc.populateGraph("similarWords.txt");
+			GraphProcessor reverse = new GraphProcessor();
+			reverse.setQueryStrategy(QueryStrategy.PER_SOURCE_CACHE);
+			reverse.populateGraph("similarWords.txt");
+			String[] words = { "on", "hat", "hone", "cat", "hot", "wheat", "kit" };
+			int[][] forward = new int[words.length][words.length];
+			int[][] weighted = new int[words.length][words.length];
+			for (int i = 0; i < words.length; i++) {
+				for (int j = i + 1; j < words.length; j++) {
+					forward[i][j] = graphPrc.getShortestDistance(words[i], words[j]);
+					weighted[i][j] = graphPrc.getWeightedShortestDistance(words[i], words[j]);
+				}
+			}
+			for (int i = words.length - 1; i >= 0; i--) {
+				for (int j = words.length - 1; j > i; j--) {
+					assertEquals(forward[i][j], (int) reverse.getShortestDistance(words[j], words[i]));
+					assertEquals(weighted[i][j], (int) graphPrc.getWeightedShortestDistance(words[j], words[i]));
+				}
+			}
+		}
+		@Test
+		public void test26_intPathRoundTrips() throws IOException {
+			
+			graphPrc.populateGraph("similarWords.txt");
+			IntPath path = graphPrc.getShortestPath("on", "hat");
+			assertEquals(6, path.length());
+			assertEquals("ON", path.source());
+			assertEquals("HAT", path.target());
+			assertEquals(2, path.indexOf("HONE"));
+			assertEquals(new ArrayList<String>(path), path);
+			try {
+				path.set(0, "CAT");
+				fail("a path is read-only");
+			} catch (UnsupportedOperationException e) {
+				//expected
+			}
+			
+			IntPath none = graphPrc.getShortestPath("on", "cat");
+			List<List<String>> paths = new ArrayList<List<String>>();
+			paths.add(path);
+			paths.add(none);
+			paths.add(graphPrc.getShortestPath("hone", "hot"));
+			
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (PathSerializer out = PathSerializer.binary(bytes)) {
+				for (List<String> p : paths) {
+					out.write(p);
+				}
+			}
+			assertEquals(paths, PathSerializer.readBinary(new ByteArrayInputStream(bytes.toByteArray())));
+			
+			StringWriter text = new StringWriter();
+			try (PathSerializer out = PathSerializer.text(text)) {
+				for (List<String> p : paths) {
+					out.write(p);
+				}
+			}
+			assertEquals(paths, PathSerializer.readText(new StringReader(text.toString())));
+		}
+		@Test
+		public void test27_wordNormalizer() {
+			
+			WordNormalizer normalizer = WordNormalizer.DEFAULT;
+			String upper = "CAT";
+			assertSame(upper, normalizer.normalize(upper));
+			assertEquals("CAT", normalizer.normalize("  cat\t"));
+			assertEquals("ISTANBUL", normalizer.normalize("istanbul"));
+			assertEquals("\u0130STANBUL", normalizer.withLocale(Locale.forLanguageTag("tr")).normalize("istanbul"));
+			assertEquals("STRASSE", normalizer.normalize("stra\u00DFe"));
+			//a decomposed e with acute accent becomes the single composed capital
+			assertEquals("CAF\u00C9", normalizer.normalize("cafe\u0301"));
+			assertEquals("COOP", normalizer.withFilter(Character::isLetter).normalize("co-op"));
+			
+			//a character outside of the BMP is one code point but two chars
+			String emoji = new String(Character.toChars(0x1F600));
+			assertTrue(WordProcessor.isAdjacent("A", "A" + emoji));
+			assertEquals(1, WordProcessor.editDistance(emoji, "X"));
+			assertFalse(WordProcessor.isAdjacent(emoji + "A", "B"));
+			
+			//the trie counts code points too, so the graph agrees with isAdjacent,
+			//and its lookups stay in the order of String.compareTo
+			WordTrie trie = new WordTrie();
+			String[] words = { "AB", "A" + emoji + "B", "A\uFB01B", "A" + emoji + emoji + "B" };
+			for (String word : words) {
+				trie.add(word);
+			}
+			for (String word1 : words) {
+				for (String word2 : words) {
+					assertEquals(word1 + " " + word2, !word1.equals(word2) && WordProcessor.isAdjacent(word1, word2),
+							trie.search(word1, 1).contains(word2));
+				}
+			}
+			List<String> sorted = new ArrayList<String>(Arrays.asList(words));
+			Collections.sort(sorted);
+			assertEquals(sorted, trie.withPrefix("A").collect(Collectors.toList()));
+			assertEquals(Arrays.asList("A" + emoji + "B", "A\uFB01B"), trie.matching("A?B").collect(Collectors.toList()));
+			assertTrue(trie.remove("A" + emoji + "B"));
+			assertFalse(trie.contains("A" + emoji + "B"));
+			assertTrue(trie.contains("A" + emoji + emoji + "B"));
+			
+			//both paths strip the same white space and keep other control chars
+			assertEquals("CAT", normalizer.normalize("\u001Ccat\u000B"));
+			assertEquals("CAF\u00C9", normalizer.normalize("\u001Ccaf\u00E9\u000B"));
+			assertEquals("\u0001CAT", normalizer.normalize("\u0001cat"));
+			assertEquals("\u0001CAF\u00C9", normalizer.normalize("\u0001caf\u00E9"));
+		}
+		@Test
+		public void test28_parallelWordLoaderMatchesStream() throws IOException {
+			
+			Path file = Files.createTempFile("words", ".txt");
+			file.toFile().deleteOnExit();
+			StringBuilder text = new StringBuilder("\uFEFF");
+			for (int i = 0; i < 500; i++) {
+				text.append(i % 7 == 0 ? "  " : "").append("word").append(i % 300).append(i % 3 == 0 ? "\r" : i % 2 == 0 ? "\r\n" : "\n");
+				if (i % 50 == 0) {
+					text.append("\n caf\u00E9").append(i).append('\n');
+				}
+			}
+			Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+			
+			List<String> expected = WordProcessor.getWordStream(file.toString())
+					.distinct().sorted().collect(Collectors.toList());
+			//the file starts with a byte order mark, which neither way keeps
+			assertTrue(expected.contains("WORD0"));
+			for (int chunkBytes : new int[] { 1, 7, 100, 1 << 20 }) {
+				String[] words = new ParallelWordLoader(WordNormalizer.DEFAULT, 3, chunkBytes).load(file);
+				assertEquals(expected, Arrays.asList(words));
+			}
+			
+			//malformed UTF-8 fails either way instead of becoming U+FFFD
+			Files.write(file, new byte[] { 'a', '\n', (byte) 0xC3, '(', '\n' });
+			try (Stream<String> stream = WordProcessor.getWordStream(file.toString())) {
+				stream.count();
+				fail("malformed line was read");
+			} catch (UncheckedIOException e) {
+				// expected
+			}
+			try {
+				new ParallelWordLoader(WordNormalizer.DEFAULT, 3, 1).load(file);
+				fail("malformed line was read");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+		@Test
+		public void test29_readsGzipAndFrontCodedWordLists() throws IOException {
+			
+			List<String> words;
+			try (Stream<String> plain = WordProcessor.getWordStream("similarWords.txt")) {
+				words = plain.distinct().sorted().collect(Collectors.toList());
+			}
+			
+			Path text = Files.createTempFile("words", ".txt.gz");
+			Path frontCoded = Files.createTempFile("words", ".fcw");
+			Path both = Files.createTempFile("words", ".fcw.gz");
+			text.toFile().deleteOnExit();
+			frontCoded.toFile().deleteOnExit();
+			both.toFile().deleteOnExit();
+			try (Writer out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(text)), StandardCharsets.UTF_8)) {
+				for (String word : words) {
+					out.write(word.toLowerCase() + "\r\n");
+				}
+			}
+			FrontCodedWordList.write(frontCoded, words);
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(both))) {
+				FrontCodedWordList.write(out, words);
+			}
+			
+			for (Path file : new Path[] { text, frontCoded, both }) {
+				assertTrue(WordListReader.isEncoded(file));
+				try (Stream<String> stream = WordProcessor.getWordStream(file.toString())) {
+					assertEquals(words, stream.collect(Collectors.toList()));
+				}
+			}
+			//closing a stream before its end stops the decoder
+			try (Stream<String> stream = WordProcessor.getWordStream(frontCoded.toString())) {
+				assertEquals(words.get(0), stream.findFirst().get());
+			}
+			
+			//malformed UTF-8 in a gzipped file fails the read like in a plain one
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(text))) {
+				out.write(new byte[] { 'a', '\n', (byte) 0xC3, '(', '\n' });
+			}
+			try (Stream<String> stream = WordProcessor.getWordStream(text.toString())) {
+				stream.count();
+				fail("malformed line was read");
+			} catch (UncheckedIOException e) {
+				assertTrue(e.getCause() instanceof CharacterCodingException);
+			}
+			
+			//a negative length ends the words with an error instead of leaving
+			//populateGraph waiting for them
+			ByteBuffer corrupt = ByteBuffer.allocate(19);
+			corrupt.putInt(FrontCodedWordList.MAGIC).putInt(2).putInt(16).put((byte) 0);
+			corrupt.put(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'a' });
+			Files.write(frontCoded, corrupt.array());
+			GraphProcessor processor = new GraphProcessor();
+			processor.populateGraph("similarWords.txt");
+			assertEquals(-1, (int) processor.populateGraph(frontCoded.toString()));
+			
+			//the words read before a file turns out to be cut short are in the
+			//snapshot the queries use, and in the one changes are applied to
+			List<String> many = new ArrayList<String>();
+			for (int i = 0; i < 600; i++) {
+				many.add(String.format("a%03d", i));
+			}
+			FrontCodedWordList.write(frontCoded, many);
+			byte[] bytes = Files.readAllBytes(frontCoded);
+			Files.write(frontCoded, Arrays.copyOf(bytes, bytes.length - 2));
+			assertEquals(-1, (int) processor.populateGraph(frontCoded.toString()));
+			assertEquals(1, (int) processor.getShortestDistance("a000", "a001"));
+			assertEquals(1, (int) processor.getShortestDistance("hot", "hat"));
+			assertTrue(processor.addWord("hax"));
+			assertEquals(1, (int) processor.getShortestDistance("hax", "hat"));
+			assertEquals(1, (int) processor.getShortestDistance("a000", "a001"));
+		}
+		@Test
+		public void test30_frontCodedVocabularyResolvesLabels() {
+			
+			List<String> words = new ArrayList<String>();
+			for (int i = 0; i < 100; i++) {
+				words.add("WORD" + i);
+				words.add("CAF\u00C9" + i);
+			}
+			words.addAll(Arrays.asList("", "A", "AB", "\u4E2D\u6587", "\uD83D\uDE00X", "\uFFFF"));
+			String[] sorted = words.toArray(new String[0]);
+			Arrays.sort(sorted);
+			
+			FrontCodedVocabulary vocabulary = FrontCodedVocabulary.of(sorted);
+			assertEquals(sorted.length, vocabulary.size());
+			assertEquals(Arrays.asList(sorted), Arrays.asList(vocabulary.words()));
+			for (int rank = 0; rank < sorted.length; rank++) {
+				assertEquals(sorted[rank], vocabulary.word(rank));
+				assertEquals(rank, vocabulary.rank(sorted[rank]));
+			}
+			for (String absent : new String[] {"WORD100", "WORD", "B", "\u0000", "\uFFFF\uFFFF", "CAF\u00C9"}) {
+				assertEquals(-1, vocabulary.rank(absent));
+			}
+			try {
+				FrontCodedVocabulary.of(new String[] {"B", "A"});
+				fail("unsorted words accepted");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+			
+			//a renumbered snapshot still maps every label to its new id
+			Graph<String> graph = new Graph<String>();
+			for (String word : sorted) {
+				graph.addVertex(word);
+			}
+			CompactGraph compact = CompactGraph.of(graph);
+			int n = compact.vertexCount();
+			int[] reversed = new int[n];
+			for (int v = 0; v < n; v++) {
+				reversed[v] = n - 1 - v;
+			}
+			CompactGraph permuted = compact.permute(reversed);
+			for (int v = 0; v < n; v++) {
+				assertEquals(compact.label(v), permuted.label(reversed[v]));
+				assertEquals(reversed[v], permuted.id(compact.label(v)));
+			}
+			assertEquals(-1, permuted.id("WORD100"));
+		}
+		@Test
+		public void test31_prefixPatternAndNearestLookups() {
+			
+			for (String word : new String[] {"cat", "cot", "coat", "cattle", "cart", "dog", "at"}) {
+				graphPrc.addWord(word);
+			}
+			assertEquals(Arrays.asList("CART", "CAT", "CATTLE"),
+					graphPrc.findWordsWithPrefix("ca").collect(Collectors.toList()));
+			assertEquals(Arrays.asList("CAT", "COT"), graphPrc.findWordsMatching("c?t").collect(Collectors.toList()));
+			assertEquals(Arrays.asList("CART", "CAT", "COAT", "COT"),
+					graphPrc.findWordsMatching("c**t").collect(Collectors.toList()));
+			assertEquals(Arrays.asList("AT", "CART", "CAT", "CATTLE", "COAT", "COT", "DOG"),
+					graphPrc.findWordsMatching("*").collect(Collectors.toList()));
+			assertEquals(0, graphPrc.findWordsWithPrefix("x").count());
+			
+			//nearest first, equally near words in order, the word itself first
+			assertEquals(Arrays.asList("CAT", "AT", "CART", "COAT", "COT"),
+					graphPrc.findNearestWords("cat", 2).collect(Collectors.toList()));
+			assertEquals(Arrays.asList("CAT", "COT"), graphPrc.findNearestWords("czt", 1).collect(Collectors.toList()));
+			assertEquals(Arrays.asList("CAT"), graphPrc.findNearestWords("cat", 3).limit(1).collect(Collectors.toList()));
+			
+			//the same results as filtering every word, on a larger vocabulary
+			WordTrie trie = new WordTrie();
+			List<String> words = SyntheticDictionary.generate(3000, 7);
+			words.forEach(trie::add);
+			List<String> sorted = words.stream().distinct().sorted().collect(Collectors.toList());
+			assertEquals(sorted.stream().filter(w -> w.startsWith("BA")).collect(Collectors.toList()),
+					trie.withPrefix("BA").collect(Collectors.toList()));
+			assertEquals(sorted.stream().filter(w -> w.matches("B.*A.")).collect(Collectors.toList()),
+					trie.matching("B*A?").collect(Collectors.toList()));
+			String query = sorted.get(100);
+			List<String> nearest = trie.nearest(query, 2).collect(Collectors.toList());
+			List<String> expected = sorted.stream().filter(w -> WordProcessor.editDistance(w, query) <= 2)
+					.sorted(Comparator.comparingInt((String w) -> WordProcessor.editDistance(w, query))
+							.thenComparing(Comparator.naturalOrder()))
+					.collect(Collectors.toList());
+			assertEquals(expected, nearest);
+			
+			//a stream can be consumed while words are added and removed
+			Iterator<String> all = trie.withPrefix("").iterator();
+			int seen = 0;
+			for (int i = 0; i < 10000 && all.hasNext(); i++) {
+				all.next();
+				seen++;
+				trie.add("ZZ" + i);
+				trie.remove(sorted.get(i % sorted.size()));
+			}
+			assertTrue(seen > 0);
+		}
+		@Test
+		public void test32_labelIndexKeepsCollidingLabels() {
+			
+			//all 2^12 words made of the pairs Aa and BB have the same String.hashCode
+			List<String> words = new ArrayList<String>();
+			for (int bits = 0; bits < 1 << 12; bits++) {
+				StringBuilder word = new StringBuilder();
+				for (int i = 0; i < 12; i++) {
+					word.append((bits >> i & 1) == 0 ? "Aa" : "BB");
+				}
+				words.add(word.toString());
+			}
+			assertEquals(words.get(0).hashCode(), words.get(words.size() - 1).hashCode());
+			
+			Graph<String> graph = new Graph<String>();
+			for (String word : words) {
+				assertEquals(word, graph.addVertex(word));
+			}
+			for (int i = 1; i < words.size(); i++) {
+				assertTrue(graph.addEdge(words.get(i - 1), words.get(i)));
+			}
+			assertNull(graph.addVertex(words.get(7)));
+			assertEquals(Arrays.asList(words.get(6), words.get(8)), graph.getNeighbors(words.get(7)));
+			
+			for (int i = 0; i < words.size(); i += 2) {
+				assertEquals(words.get(i), graph.removeVertex(words.get(i)));
+			}
+			int count = 0;
+			for (String vertex : graph.getAllVertices()) {
+				assertEquals(1, words.indexOf(vertex) % 2);
+				count++;
+			}
+			assertEquals(words.size() / 2, count);
+			assertNull(graph.getNeighbors(words.get(6)));
+			assertFalse(graph.getNeighbors(words.get(7)).iterator().hasNext());
+			
+			//the index for any labels probes by hashCode, and still tells them apart
+			LabelIndex index = new LabelIndex();
+			for (int i = 0; i < 1000; i++) {
+				assertTrue(index.add(words.get(i), i));
+			}
+			assertFalse(index.add(words.get(3), 9));
+			for (int i = 0; i < 1000; i += 3) {
+				assertEquals(i, index.remove(words.get(i)));
+			}
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(i % 3 == 0 ? -1 : i, index.get(words.get(i)));
+			}
+			assertEquals(-1, index.get(words.get(2000)));
+		}
+		
+		@Test
+		public void test33_queryStrategiesAgree() throws IOException {
+			
+			//a small dictionary gets all distances up front
+			graphPrc.populateGraph("similarWords.txt");
+			QueryStrategy.Plan plan = graphPrc.getQueryPlan();
+			assertEquals(QueryStrategy.ALL_PAIRS, plan.getStrategy());
+			assertFalse(plan.isForced());
+			String[] words = { "on", "hat", "hone", "cat", "hot", "wheat", "kit", "hope" };
+			int[][] expected = new int[words.length][words.length];
+			List<List<String>> paths = new ArrayList<List<String>>();
+			for (int i = 0; i < words.length; i++) {
+				for (int j = 0; j < words.length; j++) {
+					expected[i][j] = graphPrc.getShortestDistance(words[i], words[j]);
+					paths.add(graphPrc.getShortestPath(words[i], words[j]));
+				}
+			}
+			
+			for (QueryStrategy strategy : QueryStrategy.values()) {
+				graphPrc.setQueryStrategy(strategy);
+				assertEquals(strategy, graphPrc.getQueryPlan().getStrategy());
+				assertTrue(graphPrc.getQueryPlan().isForced());
+				for (int i = 0; i < words.length; i++) {
+					for (int j = 0; j < words.length; j++) {
+						List<String> path = graphPrc.getShortestPath(words[i], words[j]);
+						assertEquals(strategy + " " + words[i] + " " + words[j],
+								expected[i][j], (int) graphPrc.getShortestDistance(words[i], words[j]));
+						assertEquals(paths.get(i * words.length + j).size(), path.size());
+					}
+				}
+			}
+			graphPrc.setQueryStrategy(null);
+			assertFalse(graphPrc.getQueryPlan().isForced());
+			
+			//a change is planned with the new snapshot and swapped in with it, not on the next query
+			assertTrue(graphPrc.addWord("hit"));
+			assertTrue(graphPrc.getMemoryAccount().get("distanceTable") > 0);
+			assertEquals(QueryStrategy.ALL_PAIRS, graphPrc.getQueryPlan().getStrategy());
+			assertEquals(1, (int) graphPrc.getShortestDistance("hit", "hot"));
+			assertTrue(graphPrc.removeWord("hit"));
+			assertTrue(graphPrc.getMemoryAccount().get("distanceTable") > 0);
+			assertEquals(-1, (int) graphPrc.getShortestDistance("hit", "hot"));
+			
+			//without heap to spare graphs are searched from both ends
+			List<String> dictionary = SyntheticDictionary.generate(3000, 5);
+			Graph<String> graph = new Graph<String>();
+			WordTrie trie = new WordTrie();
+			for (String word : dictionary) {
+				graph.addVertex(word);
+				for (String neighbor : trie.search(word, 1)) {
+					graph.addEdge(word, neighbor);
+				}
+				trie.add(word);
+			}
+			CompactGraph compact = CompactGraph.of(graph);
+			assertEquals(QueryStrategy.BIDIRECTIONAL, QueryStrategy.plan(compact, 0, null).getStrategy());
+			assertEquals(0, QueryStrategy.plan(compact, 0, null).getSourceTrees());
+			QueryStrategy.Plan trees = QueryStrategy.plan(compact, 1 << 20, QueryStrategy.PER_SOURCE_CACHE);
+			assertTrue(trees.getSourceTrees() >= 1);
+			
+			//bidirectional search finds as short paths as a search from one end
+			Random random = new Random(5);
+			try (BidirectionalBfs both = new BidirectionalBfs(compact);
+					DirectionOptimizingBfs one = new DirectionOptimizingBfs(compact)) {
+				for (int i = 0; i < 300; i++) {
+					int source = random.nextInt(compact.vertexCount());
+					int target = random.nextInt(compact.vertexCount());
+					one.search(source, target);
+					int[] path = both.path(source, target);
+					assertEquals(one.pathTo(target).length, path.length);
+					for (int k = 1; k < path.length; k++) {
+						int[] targets = compact.targets();
+						int e = compact.offsets()[path[k - 1]];
+						while (targets[e] != path[k]) {
+							e++;
+						}
+						assertTrue(e < compact.offsets()[path[k - 1] + 1]);
+					}
+				}
+			}
+			
+			assertTrue(new StressHarness(2, QueryStrategy.PER_SOURCE_CACHE).run(1500, 3, 200).getMismatches().isEmpty());
+			assertTrue(new StressHarness(2, QueryStrategy.BIDIRECTIONAL).run(1500, 3, 200).getMismatches().isEmpty());
+		}
+		
+		@Test
+		public void test34_memoryAccountingAndBudget() throws IOException {
+			
+			//the estimates are close to the heap the structures actually take
+			long before = usedHeap();
+			List<String> dictionary = SyntheticDictionary.generate(20000, 9);
+			Graph<String> graph = new Graph<String>();
+			WordTrie trie = new WordTrie();
+			for (String word : dictionary) {
+				graph.addVertex(word);
+				for (String neighbor : trie.search(word, 1)) {
+					graph.addEdge(word, neighbor);
+				}
+				trie.add(word);
+			}
+			dictionary = null;
+			long measured = usedHeap() - before;
+			long estimated = graph.estimatedBytes() + trie.estimatedBytes();
+			assertTrue(estimated + " estimated, " + measured + " measured",
+					Math.abs(estimated - measured) < measured * 0.2);
+			
+			before = usedHeap();
+			CompactGraph compact = CompactGraph.of(graph);
+			measured = usedHeap() - before;
+			assertTrue(compact.estimatedBytes() + " estimated, " + measured + " measured",
+					Math.abs(compact.estimatedBytes() - measured) < measured * 0.2);
+			//the graph and the trie have to stay reachable until the snapshot is measured
+			assertEquals(trie.size(), compact.vertexCount());
+			assertTrue(graph.estimatedBytes() > compact.estimatedBytes());
+			
+			//a budget which only leaves room for part of the distance table
+			List<String> words = SyntheticDictionary.generate(3000, 4);
+			Path file = Files.createTempFile("budget", ".txt");
+			GraphProcessor reference = new GraphProcessor();
+			try {
+				Files.write(file, words);
+				graphPrc.setQueryStrategy(QueryStrategy.BIDIRECTIONAL);
+				graphPrc.populateGraph(file.toString());
+				reference.setQueryStrategy(QueryStrategy.BIDIRECTIONAL);
+				reference.populateGraph(file.toString());
+			} finally {
+				Files.delete(file);
+			}
+			
+			before = usedHeap();
+			graphPrc.shortestPathPrecomputation();
+			measured = usedHeap() - before;
+			MemoryAccount full = graphPrc.getMemoryAccount();
+			assertEquals(Long.MAX_VALUE, full.getBudget());
+			assertTrue(full.get("distanceTable") + " estimated, " + measured + " measured",
+					Math.abs(full.get("distanceTable") - measured) < measured * 0.1);
+			
+			long graphBytes = full.get("graph") + full.get("wordIndex") + full.get("snapshot");
+			long budget = graphBytes + full.get("distanceTable") / 2;
+			graphPrc.setMemoryBudget(budget);
+			MemoryAccount limited = graphPrc.getMemoryAccount();
+			assertTrue(limited.get("distanceTable") > 0);
+			assertTrue(limited.get("distanceTable") < full.get("distanceTable") / 2);
+			assertTrue(limited.toString(), limited.total() <= budget);
+			
+			Random random = new Random(4);
+			for (int i = 0; i < 2000; i++) {
+				String word1 = words.get(random.nextInt(words.size()));
+				String word2 = words.get(random.nextInt(words.size()));
+				assertEquals(reference.getShortestDistance(word1, word2), graphPrc.getShortestDistance(word1, word2));
+				assertEquals(reference.getShortestPath(word1, word2).size(), graphPrc.getShortestPath(word1, word2).size());
+			}
+			limited = graphPrc.getMemoryAccount();
+			assertTrue(graphPrc.getPathCache().size() > 0);
+			assertTrue(limited.get("pathCache") <= graphPrc.getPathCache().maxBytes());
+			assertTrue(limited.toString(), limited.total() <= budget);
+			
+			//without room for anything but the graph, queries still get answered
+			graphPrc.setMemoryBudget(0);
+			assertEquals(0, graphPrc.getMemoryAccount().get("distanceTable"));
+			assertEquals(0, graphPrc.getPathCache().size());
+			assertEquals(reference.getShortestDistance(words.get(0), words.get(1)),
+					graphPrc.getShortestDistance(words.get(0), words.get(1)));
+			assertEquals(0, graphPrc.getPathCache().size());
+			
+			try {
+				graphPrc.setMemoryBudget(-1);
+				fail("a budget can not be negative");
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+		
+		/**
+		 * Measures the heap in use after collecting the garbage
+		 * @return the used bytes
+		 */
+		private static long usedHeap() {
+			Runtime runtime = Runtime.getRuntime();
+			long used = Long.MAX_VALUE;
+			for (int i = 0; i < 5; i++) {
+				System.gc();
+				used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+			}
+			return used;
+		}
+		
+		@Test
+		public void test35_graphExportAndImport() throws IOException {
+			
+			GraphProcessor weighted = new GraphProcessor(1, new EditCosts(3, 1, 2, 2));
+			weighted.populateGraph("similarWords.txt");
+			weighted.setVertexOrder(VertexOrder.DEGREE);
+			Path edges = Files.createTempFile("graph", ".txt");
+			Path csr = Files.createTempFile("graph", ".csr");
+			try {
+				int n = weighted.exportGraph(edges.toString(), GraphIO.Format.EDGE_LIST);
+				assertEquals(n, (int) weighted.exportGraph(csr.toString(), GraphIO.Format.CSR));
+				assertEquals(GraphIO.Format.EDGE_LIST, GraphIO.formatOf(edges));
+				assertEquals(GraphIO.Format.CSR, GraphIO.formatOf(csr));
+				
+				//a CSR file is in lexicographic order whatever the order of the snapshot
+				OffHeapGraph mapped = OffHeapGraph.map(csr);
+				assertEquals(n, mapped.vertexCount());
+				assertTrue(mapped.id("HAT") >= 0);
+				
+				String[] words = { "on", "hat", "hone", "cat", "hot", "wheat", "kit", "hope" };
+				for (Path file : Arrays.asList(edges, csr)) {
+					GraphProcessor imported = new GraphProcessor();
+					assertEquals(n, (int) imported.importGraph(file.toString()));
+					for (String word1 : words) {
+						for (String word2 : words) {
+							assertEquals(weighted.getShortestDistance(word1, word2),
+									imported.getShortestDistance(word1, word2));
+							assertEquals(weighted.getWeightedShortestDistance(word1, word2),
+									imported.getWeightedShortestDistance(word1, word2));
+						}
+					}
+					//words added later are connected by their edit distance
+					assertTrue(imported.addWord("hit"));
+					assertEquals(1, (int) imported.getShortestDistance("hit", "hot"));
+				}
+				
+				//an edge list written by another tool
+				Files.write(edges, ("# made elsewhere\r\n"
+						+ "cat\thut\t3\r\n"
+						+ "  hut\thug \n"
+						+ " \t\n"
+						+ "hug\tcat\t3\n"
+						+ "hut\tcat\t3\n"
+						+ "alone\n"
+						+ "caf\u00e9\tcat").getBytes(StandardCharsets.UTF_8));
+				assertEquals(5, (int) graphPrc.importGraph(edges.toString()));
+				assertEquals(3, (int) graphPrc.getWeightedShortestDistance("cat", "hut"));
+				assertEquals(1, (int) graphPrc.getShortestDistance("CAF\u00c9", "cat"));
+				assertEquals(-1, (int) graphPrc.getShortestDistance("alone", "cat"));
+				assertEquals(Arrays.asList("ALONE"), graphPrc.findWordsWithPrefix("al").collect(Collectors.toList()));
+				
+				//invalid data leaves the graph as it was
+				String[] invalid = { "cat\tcat\n", "cat\thut\t0\n", "cat\thut\tx\n", "cat\thut\t1\t2\n",
+						"cat\thut\t2000000000\nhut\thug\n", "cat\thut\t2\nhut\tcat\t3\n" };
+				for (String text : invalid) {
+					Files.write(edges, text.getBytes(StandardCharsets.UTF_8));
+					assertEquals(text, -1, (int) graphPrc.importGraph(edges.toString()));
+					assertEquals(3, (int) graphPrc.getWeightedShortestDistance("cat", "hut"));
+				}
+				try {
+					GraphIO.read(edges, WordNormalizer.DEFAULT);
+					fail("conflicting weights");
+				} catch (IOException e) {
+					assertTrue(e.getMessage(), e.getMessage().contains(":2: "));
+				}
+				
+				//words with inner spaces or a leading '#' are written so they read back
+				Graph<String> odd = new Graph<String>();
+				for (String word : new String[] { "ICE CREAM", "#TAG", "CONE", "# LONE" }) {
+					odd.addVertex(word);
+				}
+				odd.addEdge("ICE CREAM", "CONE", 2);
+				odd.addEdge("#TAG", "ICE CREAM");
+				GraphIO.write(CompactGraph.of(odd), edges, GraphIO.Format.EDGE_LIST);
+				Graph<String> read = GraphIO.read(edges, WordNormalizer.DEFAULT);
+				assertEquals(odd.vertexStream().collect(Collectors.toSet()), read.vertexStream().collect(Collectors.toSet()));
+				assertEquals(odd.edgeStream().collect(Collectors.toSet()), read.edgeStream().collect(Collectors.toSet()));
+				
+				//labels which normalize to the same word must agree on their weights
+				//in a CSR file as they must in an edge list
+				Graph<String> merged = new Graph<String>();
+				for (String word : new String[] { "cat", "CAT", "hut" }) {
+					merged.addVertex(word);
+				}
+				merged.addEdge("cat", "hut", 1);
+				merged.addEdge("CAT", "hut", 2);
+				GraphIO.write(CompactGraph.of(merged), csr, GraphIO.Format.CSR);
+				try {
+					GraphIO.read(csr, WordNormalizer.DEFAULT);
+					fail("conflicting weights");
+				} catch (IOException e) {
+					assertTrue(e.getMessage(), e.getMessage().contains("given again"));
+				}
+				
+				//a CSR file whose edges are not symmetric
+				weighted.exportGraph(csr.toString(), GraphIO.Format.CSR);
+				byte[] bytes = Files.readAllBytes(csr);
+				int targets = 16 + 4 * (n + 1);
+				bytes[targets] ^= 1;
+				Files.write(csr, bytes);
+				assertEquals(-1, (int) graphPrc.importGraph(csr.toString()));
+				bytes[targets] ^= 1;
+				int slots = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(8);
+				bytes[targets + 4 * slots] += 5;
+				Files.write(csr, bytes);
+				assertEquals(-1, (int) graphPrc.importGraph(csr.toString()));
+				Files.write(csr, Arrays.copyOf(bytes, bytes.length - 2));
+				assertEquals(-1, (int) graphPrc.importGraph(csr.toString()));
+			} finally {
+				Files.delete(edges);
+				Files.delete(csr);
+			}
+		}
+		@Test
+		public void test36_parallelStreams() throws IOException {
+			
+			//a ring of 300 words, a hub next to every tenth and one next to all,
+			//so the neighbor sets are sorted arrays, hash tables and a bitset
+			Graph<String> graph = new Graph<String>();
+			for (int i = 0; i < 300; i++) {
+				graph.addVertex("w" + i);
+			}
+			graph.addVertex("hub");
+			graph.addVertex("all");
+			Set<WeightedEdge<String>> edges = new HashSet<WeightedEdge<String>>();
+			for (int i = 0; i < 300; i++) {
+				graph.addEdge("w" + i, "w" + (i + 1) % 300, 1 + i % 3);
+				edges.add(new WeightedEdge<String>("w" + i, "w" + (i + 1) % 300, 1 + i % 3));
+				graph.addEdge("all", "w" + i, 2);
+				edges.add(new WeightedEdge<String>("w" + i, "all", 2));
+				if (i % 10 == 0) {
+					graph.addEdge("w" + i, "hub");
+					edges.add(new WeightedEdge<String>("hub", "w" + i, 1));
+				}
+			}
+			
+			for (int removed = 0; removed <= 1; removed++) {
+				Set<String> vertices = new HashSet<String>();
+				graph.getAllVertices().forEach(vertices::add);
+				assertEquals(vertices, graph.vertexStream().parallel().collect(Collectors.toSet()));
+				assertEquals(vertices.size(), graph.vertexStream().parallel().count());
+				for (String vertex : Arrays.asList("w0", "w1", "hub", "all")) {
+					Set<String> neighbors = new HashSet<String>();
+					graph.getNeighbors(vertex).forEach(neighbors::add);
+					assertEquals(neighbors, graph.neighborStream(vertex).parallel().collect(Collectors.toSet()));
+				}
+				assertEquals(0, graph.neighborStream("nothing").count());
+				List<WeightedEdge<String>> streamed = graph.edgeStream().parallel().collect(Collectors.toList());
+				assertEquals(edges.size(), streamed.size());
+				assertEquals(edges, new HashSet<WeightedEdge<String>>(streamed));
+				
+				OffHeapGraph offHeap = OffHeapGraph.of(graph);
+				assertEquals(vertices, offHeap.vertexStream().parallel().collect(Collectors.toSet()));
+				assertEquals(edges.size(), offHeap.edgeStream().parallel().count());
+				assertEquals(edges, offHeap.edgeStream().parallel().collect(Collectors.toSet()));
+				assertEquals(graph.neighborStream("all").collect(Collectors.toSet()),
+						offHeap.neighborStream("all").parallel().collect(Collectors.toSet()));
+				Spliterator<String> spliterator = offHeap.vertexStream().spliterator();
+				assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+						| Spliterator.IMMUTABLE));
+				assertEquals(vertices.size(), spliterator.getExactSizeIfKnown());
+				Spliterator<String> lower = spliterator.trySplit();
+				assertEquals(vertices.size(), lower.estimateSize() + spliterator.estimateSize());
+				
+				//a graph which can change is not IMMUTABLE, and once a vertex is
+				//removed its free id leaves the size unknown
+				assertFalse(graph.vertexStream().spliterator().hasCharacteristics(Spliterator.IMMUTABLE));
+				assertEquals(removed == 0, graph.vertexStream().spliterator().hasCharacteristics(Spliterator.SIZED));
+				
+				graph.removeVertex("w5");
+				edges.removeIf(edge -> edge.getSource().equals("w5") || edge.getTarget().equals("w5"));
+			}
+			
+			CompactGraph compact = CompactGraph.of(graph);
+			assertEquals(compact.vertexCount(), compact.vertexStream().parallel().count());
+			assertEquals(2L * compact.edgeCount(), compact.vertexStream().parallel()
+					.mapToLong(v -> compact.neighborStream(v).count()).sum());
+		}
 	}
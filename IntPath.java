@@ -0,0 +1,175 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           IntPath.java
+//Description:     Immutable path of a graph snapshot, stored as vertex ids
+//				   and read as a list of words.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, IntPath.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * A path between two vertices of a {@link CompactGraph}, as the ids of its
+ * vertices. It is a read-only {@code List<String>} of the words, each of them
+ * looked up in the snapshot only when it is read, so a caller that only wants
+ * the length or the endpoints never touches the other labels.
+ *
+ * A path is immutable: the methods of {@link java.util.List} which would
+ * change it throw UnsupportedOperationException, and the ids are never handed
+ * out. The same path can therefore be shared between callers and threads. It
+ * keeps its snapshot alive for as long as it is kept.
+ */
+public class IntPath extends AbstractList<String> implements RandomAccess {
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final CompactGraph graph;
+    private final int[] ids;
+
+    /**
+     * Constructor for IntPath objects, the path takes ownership of the array
+     *
+     * @param graph the snapshot the ids belong to
+     * @param ids ids of the vertices of the path, in order, not changed afterwards
+     */
+    IntPath(CompactGraph graph, int[] ids) {
+        this.graph = graph;
+        this.ids = ids;
+    }
+
+    /**
+     * Returns the path between two vertices without a path between them
+     * @param graph the snapshot
+     * @return a path of no vertices
+     */
+    static IntPath empty(CompactGraph graph) {
+        return new IntPath(graph, NO_IDS);
+    }
+
+    /**
+     * Returns the word of a vertex of the path
+     * @param index position of the vertex, 0 for the first
+     * @return its word
+     */
+    @Override
+    public String get(int index) {
+        return graph.label(ids[index]);
+    }
+
+    /**
+     * Returns the number of vertices
+     * @return the number of words of the path
+     */
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the number of edges
+     * @return the length of the path, -1 if there is no path
+     */
+    public int length() {
+        return ids.length - 1;
+    }
+
+    /**
+     * Returns the first word
+     * @return the word the path starts at, null if there is no path
+     */
+    public String source() {
+        return ids.length == 0 ? null : get(0);
+    }
+
+    /**
+     * Returns the last word
+     * @return the word the path ends at, null if there is no path
+     */
+    public String target() {
+        return ids.length == 0 ? null : get(ids.length - 1);
+    }
+
+    /**
+     * Returns the id of a vertex of the path
+     * @param index position of the vertex, 0 for the first
+     * @return its id in {@link #graph()}
+     */
+    public int id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the ids of the vertices
+     * @return a copy of the ids, in order
+     */
+    public int[] ids() {
+        return Arrays.copyOf(ids, ids.length);
+    }
+
+    /**
+     * Returns the snapshot the ids belong to
+     * @return the snapshot
+     */
+    public CompactGraph graph() {
+        return graph;
+    }
+
+    @Override
+    public int indexOf(Object word) {
+        if (word instanceof String) {
+            int id = graph.id((String) word);
+            for (int i = 0; id >= 0 && i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object word) {
+        if (word instanceof String) {
+            int id = graph.id((String) word);
+            for (int i = ids.length - 1; id >= 0 && i >= 0; i--) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof IntPath && ((IntPath) other).graph == graph) {
+            return Arrays.equals(ids, ((IntPath) other).ids);
+        }
+        return super.equals(other);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           LabelIndex.java
+//Description:     Open addressing map from vertex labels to vertex ids, with
+//				   the hash of every label kept next to it.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   LabelIndex.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The vertex labels of a {@link Graph} and the id of each of them.
+ *
+ * A hash table with linear probing over three parallel arrays: the labels,
+ * their hashes and their ids. A lookup only calls equals on a label whose
+ * stored hash matches, and two different labels with the same hash are both
+ * kept, so a collision costs a probe, never a vertex. The table is at most
+ * half full, ids are plain ints, and removing a label shifts the labels after
+ * it back instead of leaving a marker, so lookups never get slower with
+ * removals.
+ *
+ * {@link #forStrings()} creates an index for String labels. It hashes the
+ * chars with a seed of its own instead of using String.hashCode, for which
+ * large sets of colliding words are easy to build ("Aa" and "BB" have the
+ * same hash, and so do all words made of such pairs); those sets spread over
+ * the table like any others.
+ */
+class LabelIndex {
+
+    private static final int FREE = -1;
+
+    private Object[] labels = new Object[16];
+    private int[] hashes = new int[16];
+
+    // ids[slot] is FREE for an empty slot
+    private int[] ids = new int[16];
+
+    private int size;
+
+    // the slot of a hash is its top bits, hash >>> shift
+    private int shift = 32 - 4;
+
+    /**
+     * Creates an index for labels of any type, hashed by their hashCode
+     */
+    LabelIndex() {
+        Arrays.fill(ids, FREE);
+    }
+
+    /**
+     * Creates an index for String labels. Labels of other types can be added
+     * as well, they are hashed by their hashCode.
+     * @return the index
+     */
+    static LabelIndex forStrings() {
+        return new StringLabelIndex(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Hashes a label, spreading its hashCode over the top bits
+     * @param label the label, not null
+     * @return the hash
+     */
+    int hash(Object label) {
+        return label.hashCode() * 0x9E3779B9;
+    }
+
+    /**
+     * Returns the id of a label
+     * @param label the label
+     * @return the id, or -1 if the label is not in the index
+     */
+    int get(Object label) {
+        if (label == null) {
+            return FREE;
+        }
+        int hash = hash(label);
+        int mask = ids.length - 1;
+        for (int slot = hash >>> shift;; slot = (slot + 1) & mask) {
+            int id = ids[slot];
+            if (id == FREE || (hashes[slot] == hash && labels[slot].equals(label))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Adds a label with its id, unless it is already in the index
+     * @param label the label, not null
+     * @param id the id, at least 0
+     * @return true if the label was added, false if it already had an id
+     */
+    boolean add(Object label, int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("id must be at least 0: " + id);
+        }
+        int hash = hash(label);
+        int mask = ids.length - 1;
+        int slot = hash >>> shift;
+        for (; ids[slot] != FREE; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && labels[slot].equals(label)) {
+                return false;
+            }
+        }
+        labels[slot] = label;
+        hashes[slot] = hash;
+        ids[slot] = id;
+        if (++size * 2 > ids.length) {
+            resize(ids.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a label
+     * @param label the label
+     * @return the id it had, or -1 if the label is not in the index
+     */
+    int remove(Object label) {
+        if (label == null) {
+            return FREE;
+        }
+        int hash = hash(label);
+        int mask = ids.length - 1;
+        int slot = hash >>> shift;
+        for (; ids[slot] != FREE; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && labels[slot].equals(label)) {
+                break;
+            }
+        }
+        int id = ids[slot];
+        if (id == FREE) {
+            return FREE;
+        }
+
+        // move back every label of the run after slot which may not stay
+        // between its home slot and the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; ids[next] != FREE; next = (next + 1) & mask) {
+            int home = hashes[next] >>> shift;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                labels[gap] = labels[next];
+                hashes[gap] = hashes[next];
+                ids[gap] = ids[next];
+                gap = next;
+            }
+        }
+        labels[gap] = null;
+        ids[gap] = FREE;
+        size--;
+        return id;
+    }
+
+    /**
+     * Returns the number of labels
+     * @return the size of the index
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap bytes of the table {@link MemoryAccount}
+     * @return the estimated bytes of the index and its arrays, without the labels
+     */
+    long estimatedBytes() {
+        return MemoryAccount.object(3 * MemoryAccount.REFERENCE + 2 * 4 + 8)
+                + MemoryAccount.referenceArray(labels.length) + 2 * MemoryAccount.intArray(ids.length);
+    }
+
+    /**
+     * Moves the labels into a table of another size
+     * @param capacity new number of slots, a power of 2 larger than twice the size
+     */
+    private void resize(int capacity) {
+        Object[] oldLabels = labels;
+        int[] oldHashes = hashes;
+        int[] oldIds = ids;
+        labels = new Object[capacity];
+        hashes = new int[capacity];
+        ids = new int[capacity];
+        Arrays.fill(ids, FREE);
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == FREE) {
+                continue;
+            }
+            int slot = oldHashes[i] >>> shift;
+            while (ids[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            labels[slot] = oldLabels[i];
+            hashes[slot] = oldHashes[i];
+            ids[slot] = oldIds[i];
+        }
+    }
+
+    /**
+     * Index which hashes String labels by their chars with a random seed
+     */
+    private static class StringLabelIndex extends LabelIndex {
+
+        private final long seed;
+
+        StringLabelIndex(long seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        int hash(Object label) {
+            if (!(label instanceof String)) {
+                return super.hash(label);
+            }
+            String word = (String) label;
+            long hash = seed ^ word.length();
+            for (int i = 0; i < word.length(); i++) {
+                hash = (hash + word.charAt(i)) * 0x9E3779B97F4A7C15L;
+            }
+            hash ^= hash >>> 31;
+            return (int) ((hash * 0xBF58476D1CE4E5B9L) >>> 32);
+        }
+    }
+}
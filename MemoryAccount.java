@@ -0,0 +1,183 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           MemoryAccount.java
+//Description:     Estimated heap usage of the structures of a GraphProcessor,
+//				   and the sizes the estimates are made of.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   MemoryAccount.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The estimated heap bytes of each structure of a {@link GraphProcessor} at
+ * one point in time, together with the memory budget they were held to
+ * {@link GraphProcessor#getMemoryAccount()}.
+ *
+ * The static methods give the size of the objects the estimates are added up
+ * from, for a 64 bit JVM with compressed references: 12 byte object headers,
+ * 16 byte array headers, 4 byte references, everything padded to 8 bytes.
+ * They count what a structure owns, not what it shares: the labels of a
+ * {@link WordTrie} are the labels of the {@link Graph}, and are only counted
+ * with the graph.
+ */
+public class MemoryAccount {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    /**
+     * Heap bytes of a HashMap or LinkedHashMap entry, without its key and value
+     */
+    static final int MAP_ENTRY = 40;
+
+    private final long budget;
+    private final Map<String, Long> parts;
+
+    /**
+     * Constructor for MemoryAccount objects
+     *
+     * @param budget the budget, Long.MAX_VALUE if there is none
+     * @param parts estimated bytes by structure name, in the order they are reported
+     */
+    MemoryAccount(long budget, LinkedHashMap<String, Long> parts) {
+        this.budget = budget;
+        this.parts = Collections.unmodifiableMap(parts);
+    }
+
+    /**
+     * Returns the estimate of a structure
+     * @param part name of the structure, for example "graph" or "distanceTable"
+     * @return the estimated bytes, 0 if the structure is not there
+     */
+    public long get(String part) {
+        Long bytes = parts.get(part);
+        return bytes == null ? 0 : bytes;
+    }
+
+    /**
+     * Returns the estimates of all structures
+     * @return estimated bytes by structure name
+     */
+    public Map<String, Long> parts() {
+        return parts;
+    }
+
+    /**
+     * Returns the estimate of all structures together
+     * @return the estimated bytes
+     */
+    public long total() {
+        long total = 0;
+        for (long bytes : parts.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the budget the structures were held to
+     * @return the budget in bytes, Long.MAX_VALUE if there is none
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%.1f MB", total() / 1e6));
+        if (budget != Long.MAX_VALUE) {
+            builder.append(String.format(" of %.1f MB", budget / 1e6));
+        }
+        for (Map.Entry<String, Long> part : parts.entrySet()) {
+            builder.append(String.format(", %s %.1f MB", part.getKey(), part.getValue() / 1e6));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Pads a size to the 8 byte alignment of objects
+     * @param bytes the size
+     * @return the padded size
+     */
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Returns the size of an object with the given fields
+     * @param fieldBytes total size of the fields
+     * @return the padded size with the header
+     */
+    static long object(long fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Returns the size of an int[]
+     * @param length length of the array
+     * @return the size in bytes
+     */
+    static long intArray(long length) {
+        return align(ARRAY_HEADER + 4 * length);
+    }
+
+    /**
+     * Returns the size of a long[]
+     * @param length length of the array
+     * @return the size in bytes
+     */
+    static long longArray(long length) {
+        return align(ARRAY_HEADER + 8 * length);
+    }
+
+    /**
+     * Returns the size of a byte[]
+     * @param length length of the array
+     * @return the size in bytes
+     */
+    static long byteArray(long length) {
+        return align(ARRAY_HEADER + length);
+    }
+
+    /**
+     * Returns the size of an array of references, without the objects referenced
+     * @param length length of the array
+     * @return the size in bytes
+     */
+    static long referenceArray(long length) {
+        return align(ARRAY_HEADER + REFERENCE * length);
+    }
+
+    /**
+     * Returns the size of a String with its chars, one byte each if they all are
+     * below 0x100 (compact strings), two bytes each otherwise
+     * @param string the string
+     * @return the size in bytes
+     */
+    static long string(String string) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) >= 0x100) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return object(REFERENCE + 4 + 4) + byteArray((long) bytesPerChar * string.length());
+    }
+}
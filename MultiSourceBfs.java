@@ -0,0 +1,192 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           MultiSourceBfs.java
+//Description:     Breadth first search from many sources at once, one bit
+//				   per source.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   MultiSourceBfs.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Bit-parallel multi-source breadth first search (MS-BFS) over a
+ * {@link CompactGraph}.
+ * 
+ * Each vertex has a row of {@code words} longs, one bit per source, for the
+ * sources which have seen it, for the sources whose frontier it is in, and for
+ * the next frontier. Walking an edge v -> w once moves every source in v's
+ * frontier which has not seen w yet on to w, with a few bitwise operations per
+ * word, so 64 * words searches share one pass over the adjacency arrays instead
+ * of each reading it on its own.
+ * 
+ * More sources than fit in one pass are run in consecutive passes. The arrays
+ * are allocated once per instance; an instance is not thread-safe.
+ */
+public class MultiSourceBfs {
+
+    /**
+     * Receives the vertices reached by the searches, level by level
+     */
+    public interface Visitor {
+
+        /**
+         * Called once per vertex and level for the sources which reach that vertex
+         * for the first time at that level
+         * 
+         * @param vertex id of the vertex reached
+         * @param sourceBase index in the sources array of the source of bit 0
+         * @param sources bit i is set if sources[sourceBase + i] reached vertex
+         * @param level distance from those sources to vertex, 0 for the sources themselves
+         */
+        void reached(int vertex, int sourceBase, long sources, int level);
+    }
+
+    private final CompactGraph graph;
+    private final int words;
+
+    // rows of words longs per vertex, vertex v owns [v * words, (v + 1) * words)
+    private final long[] seen;
+    private long[] frontier;
+    private long[] next;
+
+    /**
+     * Constructor for MultiSourceBfs objects
+     * @param graph graph to search
+     * @param words longs per vertex, each pass runs 64 * words sources
+     */
+    public MultiSourceBfs(CompactGraph graph, int words) {
+        if (words < 1) {
+            throw new IllegalArgumentException("words must be at least 1: " + words);
+        }
+        int n = graph.vertexCount();
+        this.graph = graph;
+        this.words = words;
+        this.seen = new long[n * words];
+        this.frontier = new long[n * words];
+        this.next = new long[n * words];
+    }
+
+    /**
+     * Returns the number of sources searched in one pass
+     * @return 64 * words
+     */
+    public int sourcesPerPass() {
+        return 64 * words;
+    }
+
+    /**
+     * Runs a breadth first search from every source
+     * @param sources ids of the sources
+     * @param visitor receives the reached vertices
+     */
+    public void run(int[] sources, Visitor visitor) {
+        for (int from = 0; from < sources.length; from += sourcesPerPass()) {
+            pass(sources, from, Math.min(sources.length, from + sourcesPerPass()), visitor);
+        }
+    }
+
+    /**
+     * Computes the distances from each source to every vertex
+     * @param sources ids of the sources
+     * @return distances[i][v] is the distance from sources[i] to v, -1 if v cannot be reached
+     */
+    public int[][] distances(int[] sources) {
+        int[][] distances = new int[sources.length][graph.vertexCount()];
+        for (int[] row : distances) {
+            Arrays.fill(row, -1);
+        }
+        run(sources, (vertex, sourceBase, bits, level) -> {
+            for (; bits != 0; bits &= bits - 1) {
+                distances[sourceBase + Long.numberOfTrailingZeros(bits)][vertex] = level;
+            }
+        });
+        return distances;
+    }
+
+    /**
+     * Searches from sources[from..to), at most 64 * words of them
+     */
+    private void pass(int[] sources, int from, int to, Visitor visitor) {
+
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        Arrays.fill(seen, 0);
+        Arrays.fill(frontier, 0);
+        Arrays.fill(next, 0);
+
+        for (int i = from; i < to; i++) {
+            int bit = i - from;
+            int index = sources[i] * words + (bit >>> 6);
+            seen[index] |= 1L << bit;
+            frontier[index] |= 1L << bit;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int k = 0; k < words; k++) {
+                if (frontier[v * words + k] != 0) {
+                    visitor.reached(v, from + 64 * k, frontier[v * words + k], 0);
+                }
+            }
+        }
+
+        for (int level = 1; ; level++) {
+            boolean reached = false;
+            for (int v = 0; v < n; v++) {
+                int row = v * words;
+                if (isZero(frontier, row)) {
+                    continue;
+                }
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int target = targets[e] * words;
+                    for (int k = 0; k < words; k++) {
+                        long newBits = frontier[row + k] & ~seen[target + k];
+                        if (newBits != 0) {
+                            next[target + k] |= newBits;
+                            seen[target + k] |= newBits;
+                            reached = true;
+                        }
+                    }
+                }
+            }
+            if (!reached) {
+                return;
+            }
+
+            // report the new frontier, then make it the current one
+            for (int v = 0; v < n; v++) {
+                int row = v * words;
+                for (int k = 0; k < words; k++) {
+                    if (next[row + k] != 0) {
+                        visitor.reached(v, from + 64 * k, next[row + k], level);
+                    }
+                }
+            }
+            long[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+            Arrays.fill(next, 0);
+        }
+    }
+
+    private boolean isZero(long[] array, int row) {
+        for (int k = 0; k < words; k++) {
+            if (array[row + k] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
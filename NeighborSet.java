@@ -0,0 +1,371 @@
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.IntPredicate;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           NeighborSet.java
+//Description:     Set of the neighbor ids of one vertex together with the
+//				   weights of the edges, stored according to the degree.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   NeighborSet.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The neighbors of a vertex of a {@link Graph}, as vertex ids, with the weight
+ * of the edge to each of them.
+ *
+ * The storage follows the degree:
+ *  - up to SORTED_MAX neighbors: a sorted array, binary searched
+ *  - more: an open addressing hash table with linear probing
+ *  - when the neighbors are at least a quarter of all vertex ids: a bitset,
+ *    with the weights in an array indexed by id
+ * so membership checks take O(log d) for small and O(1) for large degrees.
+ * The set switches back to a smaller form when it shrinks well below the
+ * threshold it was switched at, so an edge added and removed repeatedly does
+ * not convert it every time.
+ */
+class NeighborSet {
+
+    /**
+     * Largest size kept as a sorted array
+     */
+    static final int SORTED_MAX = 16;
+
+    /**
+     * Smallest size kept as a bitset
+     */
+    static final int BITSET_MIN = 64;
+
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+
+    private static final int SORTED = 0;
+    private static final int HASH = 1;
+    private static final int BITSET = 2;
+
+    private int mode = SORTED;
+    private int size;
+
+    // SORTED: ids[0..size) sorted, weights[i] belongs to ids[i]
+    // HASH: ids is the table, EMPTY or DELETED marks a free slot, weights[i] belongs to ids[i]
+    // BITSET: bits marks the ids, weights[id] is the weight of the edge to id
+    private int[] ids = new int[4];
+    private int[] weights = new int[4];
+    private long[] bits;
+
+    /**
+     * Number of DELETED slots of the hash table
+     */
+    private int deleted;
+
+    /**
+     * Returns the number of neighbors
+     * @return the size of the set
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap bytes of the set {@link MemoryAccount}
+     * @return the estimated bytes of the set and its arrays
+     */
+    long estimatedBytes() {
+        long bytes = MemoryAccount.object(4 * 4 + 3 * MemoryAccount.REFERENCE);
+        bytes += ids == null ? 0 : MemoryAccount.intArray(ids.length);
+        bytes += MemoryAccount.intArray(weights.length);
+        bytes += bits == null ? 0 : MemoryAccount.longArray(bits.length);
+        return bytes;
+    }
+
+    /**
+     * Checks whether an id is in the set
+     * @param id the vertex id
+     * @return true if it is a neighbor
+     */
+    boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * Returns the weight of the edge to a neighbor
+     * @param id the vertex id
+     * @return the weight, or -1 if it is not a neighbor
+     */
+    int weight(int id) {
+        int index = indexOf(id);
+        return index < 0 ? -1 : weights[index];
+    }
+
+    /**
+     * Adds a neighbor
+     * @param id the vertex id, not negative
+     * @param weight weight of the edge to it
+     * @param universe number of vertex ids in use, larger than every id in the set
+     * @return false if it already was a neighbor, the weight is left unchanged then
+     */
+    boolean add(int id, int weight, int universe) {
+        if (indexOf(id) >= 0) {
+            return false;
+        }
+        if (mode == SORTED && size == SORTED_MAX) {
+            toHash(SORTED_MAX * 4);
+        }
+        if (mode == HASH && size + 1 >= BITSET_MIN && (size + 1) * 4L >= universe) {
+            toBitset(universe);
+        }
+
+        if (mode == SORTED) {
+            int at = -(Arrays.binarySearch(ids, 0, size, id) + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            System.arraycopy(weights, at, weights, at + 1, size - at);
+            ids[at] = id;
+            weights[at] = weight;
+        } else if (mode == HASH) {
+            if ((size + deleted + 1) * 2 > ids.length) {
+                toHash(Math.max(ids.length, Integer.highestOneBit(size + 1) * 4));
+            }
+            insert(id, weight);
+        } else {
+            if (id >= weights.length) {
+                int length = Math.max(id + 1, weights.length + weights.length / 2);
+                weights = Arrays.copyOf(weights, length);
+                bits = Arrays.copyOf(bits, (length + 63) >>> 6);
+            }
+            bits[id >>> 6] |= 1L << id;
+            weights[id] = weight;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a neighbor
+     * @param id the vertex id
+     * @return true if it was a neighbor
+     */
+    boolean remove(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return false;
+        }
+        size--;
+        if (mode == SORTED) {
+            System.arraycopy(ids, index + 1, ids, index, size - index);
+            System.arraycopy(weights, index + 1, weights, index, size - index);
+        } else if (mode == HASH) {
+            ids[index] = DELETED;
+            deleted++;
+            if (size <= SORTED_MAX / 2) {
+                toSorted();
+            }
+        } else {
+            bits[id >>> 6] &= ~(1L << id);
+            if (size < BITSET_MIN / 2 || size * 8L < weights.length) {
+                toHash(Integer.highestOneBit(Math.max(SORTED_MAX, size)) * 4);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the neighbors
+     * @return a new array of the neighbor ids, in increasing order
+     */
+    int[] toArray() {
+        int[] result = new int[size];
+        if (mode == SORTED) {
+            System.arraycopy(ids, 0, result, 0, size);
+        } else if (mode == HASH) {
+            int count = 0;
+            for (int slot : ids) {
+                if (slot >= 0) {
+                    result[count++] = slot;
+                }
+            }
+            Arrays.sort(result);
+        } else {
+            int count = 0;
+            for (int word = 0; word < bits.length; word++) {
+                long set = bits[word];
+                while (set != 0) {
+                    result[count++] = (word << 6) + Long.numberOfTrailingZeros(set);
+                    set &= set - 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Receives a neighbor together with the weight of the edge to it
+     */
+    interface NeighborFunction<T> {
+
+        /**
+         * @param id the vertex id of the neighbor
+         * @param weight weight of the edge to it
+         * @return the element for the neighbor, not null
+         */
+        T apply(int id, int weight);
+    }
+
+    /**
+     * Creates a spliterator over the neighbors, straight over the array, the hash
+     * table or the bitset which holds them {@link RangeSpliterator}. It is SIZED and
+     * SUBSIZED while the set is a sorted array and every neighbor is accepted.
+     * 
+     * @param accept tells the ids of the neighbors to include, null for all of them
+     * @param element the element of a neighbor
+     * @return the spliterator, which must not be used after the set changes
+     */
+    <T> Spliterator<T> spliterator(IntPredicate accept, NeighborFunction<T> element) {
+        int[] ids = this.ids;
+        int[] weights = this.weights;
+        long[] bits = this.bits;
+        if (mode == SORTED) {
+            return new RangeSpliterator<T>(0, size, accept == null ? null : index -> accept.test(ids[index]),
+                    index -> element.apply(ids[index], weights[index]), Spliterator.DISTINCT);
+        }
+        if (mode == HASH) {
+            return new RangeSpliterator<T>(0, ids.length,
+                    slot -> ids[slot] >= 0 && (accept == null || accept.test(ids[slot])),
+                    slot -> element.apply(ids[slot], weights[slot]), Spliterator.DISTINCT);
+        }
+        return new RangeSpliterator<T>(0, bits.length << 6,
+                id -> (bits[id >>> 6] & (1L << id)) != 0 && (accept == null || accept.test(id)),
+                id -> element.apply(id, weights[id]), Spliterator.DISTINCT);
+    }
+
+    /**
+     * Finds where an id is stored
+     * @param id the vertex id
+     * @return the index of the id in ids (weights for a bitset), or -1 if it is not in the set
+     */
+    private int indexOf(int id) {
+        if (id < 0) {
+            return -1;
+        }
+        if (mode == SORTED) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index < 0 ? -1 : index;
+        }
+        if (mode == HASH) {
+            int mask = ids.length - 1;
+            for (int slot = hash(id) & mask;; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+                if (ids[slot] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+        return id < weights.length && (bits[id >>> 6] & (1L << id)) != 0 ? id : -1;
+    }
+
+    /**
+     * Spreads the bits of an id over the table
+     * @param id the vertex id
+     * @return the hash of the id
+     */
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Puts an id which is not in the hash table yet into the first free slot
+     * @param id the vertex id
+     * @param weight weight of the edge to it
+     */
+    private void insert(int id, int weight) {
+        int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+        while (ids[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        if (ids[slot] == DELETED) {
+            deleted--;
+        }
+        ids[slot] = id;
+        weights[slot] = weight;
+    }
+
+    /**
+     * Moves the neighbors into a new hash table
+     * @param capacity number of slots, a power of two larger than twice the size
+     */
+    private void toHash(int capacity) {
+        int[] oldIds = toArray();
+        int[] oldWeights = new int[size];
+        for (int i = 0; i < size; i++) {
+            oldWeights[i] = weights[indexOf(oldIds[i])];
+        }
+        mode = HASH;
+        ids = new int[capacity];
+        Arrays.fill(ids, EMPTY);
+        weights = new int[capacity];
+        bits = null;
+        deleted = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            insert(oldIds[i], oldWeights[i]);
+        }
+    }
+
+    /**
+     * Moves the neighbors of the hash table into a sorted array
+     */
+    private void toSorted() {
+        int[] sortedIds = toArray();
+        int[] sortedWeights = new int[Math.max(4, size * 2)];
+        for (int i = 0; i < size; i++) {
+            sortedWeights[i] = weights[indexOf(sortedIds[i])];
+        }
+        mode = SORTED;
+        ids = Arrays.copyOf(sortedIds, sortedWeights.length);
+        weights = sortedWeights;
+        deleted = 0;
+    }
+
+    /**
+     * Moves the neighbors of the hash table into a bitset
+     * @param universe number of vertex ids in use, larger than every id in the set
+     */
+    private void toBitset(int universe) {
+        int[] oldIds = toArray();
+        int length = universe;
+        for (int id : oldIds) {
+            length = Math.max(length, id + 1);
+        }
+        int[] dense = new int[length];
+        for (int id : oldIds) {
+            dense[id] = weights[indexOf(id)];
+        }
+        bits = new long[(length + 63) >>> 6];
+        for (int id : oldIds) {
+            bits[id >>> 6] |= 1L << id;
+        }
+        mode = BITSET;
+        ids = null;
+        weights = dense;
+        deleted = 0;
+    }
+}
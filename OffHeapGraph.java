@@ -0,0 +1,698 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           OffHeapGraph.java
+//Description:     Read-only word graph kept outside of the Java heap, in a
+//				   direct or memory mapped buffer.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, OffHeapGraph.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Read-only {@link GraphADT} whose labels and adjacency live outside of the
+ * Java heap, so the garbage collector never has to walk them however large the
+ * vocabulary is. The heap only holds this object and a few buffer views.
+ *
+ * The graph is laid out like a {@link CompactGraph}, in one buffer of little
+ * endian ints:
+ *
+ *     magic, n, number of adjacency slots (2 * edges), number of label chars
+ *     offsets[n + 1]       the edges of v are slots offsets[v] .. offsets[v + 1] - 1
+ *     targets[slots]       sorted by id within a vertex
+ *     weights[slots]
+ *     labelStarts[n + 1]   the label of v is chars labelStarts[v] .. labelStarts[v + 1] - 1
+ *     labels[chars]        UTF-16, vertices in lexicographic order of their labels
+ *
+ * The buffer is either a direct buffer {@link #of(CompactGraph)} or a file
+ * mapped into memory {@link #map(Path)}, which also lets the operating system
+ * page in only the parts of a large graph which are used. Labels are looked up
+ * by binary search, comparing chars in place, so {@link #id(String)} does not
+ * allocate. One buffer is limited to 2GB.
+ *
+ * Vertices and edges can not be added or removed, those methods throw an
+ * UnsupportedOperationException.
+ */
+public class OffHeapGraph implements WeightedGraphADT<String> {
+
+    /**
+     * First int of the buffer, "OHG1", also of the CSR files of {@link GraphIO}
+     */
+    static final int MAGIC = 0x4F484731;
+
+    /**
+     * Size of the header, in bytes
+     */
+    private static final int HEADER = 16;
+
+    private final ByteBuffer buffer;
+    private final int vertexCount;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer labelStarts;
+    private final CharBuffer labels;
+
+    /**
+     * Constructor for OffHeapGraph objects, use {@link #of(CompactGraph)} or {@link #map(Path)}
+     *
+     * @param buffer buffer holding the graph, starting with a valid header
+     */
+    private OffHeapGraph(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.vertexCount = buffer.getInt(4);
+        int slots = buffer.getInt(8);
+        int chars = buffer.getInt(12);
+        int at = HEADER;
+        this.offsets = ints(at, vertexCount + 1);
+        at += (vertexCount + 1) * 4;
+        this.targets = ints(at, slots);
+        at += slots * 4;
+        this.weights = ints(at, slots);
+        at += slots * 4;
+        this.labelStarts = ints(at, vertexCount + 1);
+        at += (vertexCount + 1) * 4;
+        this.labels = region(at, chars * 2).asCharBuffer();
+    }
+
+    /**
+     * Copies a snapshot into a direct buffer
+     *
+     * @param graph the snapshot
+     * @return the off-heap copy of the snapshot
+     */
+    public static OffHeapGraph of(CompactGraph graph) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(checkedSize(graph));
+        fill(buffer.order(ByteOrder.LITTLE_ENDIAN), graph);
+        return new OffHeapGraph(buffer);
+    }
+
+    /**
+     * Copies a graph into a direct buffer
+     *
+     * @param graph the graph
+     * @return the off-heap copy of the graph
+     */
+    public static OffHeapGraph of(GraphADT<String> graph) {
+        return of(CompactGraph.of(graph));
+    }
+
+    /**
+     * Writes a snapshot to a file which {@link #map(Path)} can open
+     *
+     * @param graph the snapshot
+     * @param file the file, replaced if it exists
+     * @return the graph, mapped from the file
+     * @throws IOException if the file can not be written
+     */
+    public static OffHeapGraph write(CompactGraph graph, Path file) throws IOException {
+        int size = checkedSize(graph);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            fill(buffer.order(ByteOrder.LITTLE_ENDIAN), graph);
+        }
+        return map(file);
+    }
+
+    /**
+     * Maps a file written by {@link #write(CompactGraph, Path)} into memory. The
+     * file must not be changed while the graph is in use.
+     *
+     * @param file the file
+     * @return the graph stored in the file
+     * @throws IOException if the file can not be read or does not hold a graph
+     */
+    public static OffHeapGraph map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER || size > Integer.MAX_VALUE) {
+                throw new IOException("not a graph file: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int n = buffer.getInt(4);
+            long slots = buffer.getInt(8);
+            long chars = buffer.getInt(12);
+            if (buffer.getInt(0) != MAGIC || n < 0 || slots < 0 || chars < 0
+                    || size != HEADER + 4L * (2 * (n + 1) + 2 * slots) + 2 * chars) {
+                throw new IOException("not a graph file: " + file);
+            }
+            return new OffHeapGraph(buffer);
+        }
+    }
+
+    /**
+     * Computes the size of the buffer for a snapshot
+     *
+     * @param graph the snapshot
+     * @return the size in bytes
+     */
+    private static int checkedSize(CompactGraph graph) {
+        long chars = 0;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            chars += graph.label(v).length();
+        }
+        long size = HEADER + 4L * (2 * (graph.vertexCount() + 1L) + 2L * graph.targets().length) + 2 * chars;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large for one buffer: " + size + " bytes");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Writes a snapshot into a buffer of {@link #checkedSize(CompactGraph)} bytes
+     *
+     * @param buffer the buffer, little endian
+     * @param graph the snapshot
+     */
+    private static void fill(ByteBuffer buffer, CompactGraph graph) {
+        int n = graph.vertexCount();
+        int chars = 0;
+        for (int v = 0; v < n; v++) {
+            chars += graph.label(v).length();
+        }
+        buffer.putInt(MAGIC).putInt(n).putInt(graph.targets().length).putInt(chars);
+        for (int offset : graph.offsets()) {
+            buffer.putInt(offset);
+        }
+        for (int target : graph.targets()) {
+            buffer.putInt(target);
+        }
+        for (int weight : graph.weights()) {
+            buffer.putInt(weight);
+        }
+        int start = 0;
+        buffer.putInt(start);
+        for (int v = 0; v < n; v++) {
+            start += graph.label(v).length();
+            buffer.putInt(start);
+        }
+        for (int v = 0; v < n; v++) {
+            String label = graph.label(v);
+            for (int i = 0; i < label.length(); i++) {
+                buffer.putChar(label.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Returns a view of a region of the buffer
+     *
+     * @param from first byte of the region
+     * @param length length of the region in bytes
+     * @return the region, little endian
+     */
+    private ByteBuffer region(int from, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(from + length).position(from);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns an int view of a region of the buffer
+     *
+     * @param from first byte of the region
+     * @param count number of ints in the region
+     * @return the region
+     */
+    private IntBuffer ints(int from, int count) {
+        return region(from, count * 4).asIntBuffer();
+    }
+
+    /**
+     * Returns the number of vertices
+     * @return n, vertices are numbered 0..n-1
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the number of undirected edges
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return targets.capacity() / 2;
+    }
+
+    /**
+     * Returns the number of bytes the graph takes outside of the heap
+     * @return the size of the buffer
+     */
+    public long footprintBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Only the views of the buffer are on the heap, the graph itself is counted
+     * by {@link #footprintBytes()}
+     */
+    @Override
+    public long estimatedBytes() {
+        return MemoryAccount.object(6 * MemoryAccount.REFERENCE + 4) + 6 * MemoryAccount.object(48);
+    }
+
+    /**
+     * Returns the id of a vertex
+     * @param label label of the vertex
+     * @return the id of the vertex, or -1 if there is no such vertex
+     */
+    public int id(String label) {
+        if (label == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareLabel(mid, label);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the label of a vertex with a string, like {@link String#compareTo(String)}
+     *
+     * @param id id of the vertex
+     * @param label the string
+     * @return negative, zero or positive if the label of the vertex is smaller, equal or larger
+     */
+    private int compareLabel(int id, String label) {
+        int start = labelStarts.get(id);
+        int length = labelStarts.get(id + 1) - start;
+        int common = Math.min(length, label.length());
+        for (int i = 0; i < common; i++) {
+            int cmp = labels.get(start + i) - label.charAt(i);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - label.length();
+    }
+
+    /**
+     * Returns the label of a vertex, decoded into a new String
+     * @param id id of the vertex
+     * @return the label of the vertex
+     */
+    public String label(int id) {
+        int start = labelStarts.get(id);
+        char[] chars = new char[labelStarts.get(id + 1) - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = labels.get(start + i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the number of neighbors of a vertex
+     * @param id id of the vertex
+     * @return the degree of the vertex
+     */
+    public int degree(int id) {
+        return offsets.get(id + 1) - offsets.get(id);
+    }
+
+    /**
+     * Returns a neighbor of a vertex
+     * @param id id of the vertex
+     * @param index index of the neighbor, 0..degree - 1, in increasing order of id
+     * @return the id of the neighbor
+     */
+    public int neighbor(int id, int index) {
+        return targets.get(offsets.get(id) + index);
+    }
+
+    /**
+     * Returns the weight of the edge to a neighbor of a vertex
+     * @param id id of the vertex
+     * @param index index of the neighbor, as for {@link #neighbor(int, int)}
+     * @return the weight of the edge
+     */
+    public int weight(int id, int index) {
+        return weights.get(offsets.get(id) + index);
+    }
+
+    /**
+     * Finds the slot of the edge between two vertices
+     * @param v1 id of the first vertex
+     * @param v2 id of the second vertex
+     * @return the slot of the edge in the adjacency of v1, or -1 if they are not adjacent
+     */
+    private int slot(int v1, int v2) {
+        int low = offsets.get(v1);
+        int high = offsets.get(v1 + 1) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int target = targets.get(mid);
+            if (target < v2) {
+                low = mid + 1;
+            } else if (target > v2) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the number of edges on a shortest path from a vertex to every vertex,
+     * ignoring the weights
+     *
+     * @param source id of the vertex to start from
+     * @return the distance to each vertex by id, -1 for vertices which can not be reached
+     */
+    public int[] distances(int source) {
+        int[] distance = new int[vertexCount];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[vertexCount];
+        int head = 0;
+        int tail = 0;
+        distance[source] = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = offsets.get(v), end = offsets.get(v + 1); e < end; e++) {
+                int w = targets.get(e);
+                if (distance[w] < 0) {
+                    distance[w] = distance[v] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Unsupported, the graph is read-only
+     *
+     * @param vertex the vertex
+     * @return never returns
+     */
+    @Override
+    public String addVertex(String vertex) {
+        throw new UnsupportedOperationException("OffHeapGraph is read-only");
+    }
+
+    /**
+     * Unsupported, the graph is read-only
+     *
+     * @param vertex the vertex
+     * @return never returns
+     */
+    @Override
+    public String removeVertex(String vertex) {
+        throw new UnsupportedOperationException("OffHeapGraph is read-only");
+    }
+
+    /**
+     * Unsupported, the graph is read-only
+     *
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return never returns
+     */
+    @Override
+    public boolean addEdge(String vertex1, String vertex2) {
+        throw new UnsupportedOperationException("OffHeapGraph is read-only");
+    }
+
+    /**
+     * Unsupported, the graph is read-only
+     *
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param weight weight of the edge
+     * @return never returns
+     */
+    @Override
+    public boolean addEdge(String vertex1, String vertex2, int weight) {
+        throw new UnsupportedOperationException("OffHeapGraph is read-only");
+    }
+
+    /**
+     * Unsupported, the graph is read-only
+     *
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return never returns
+     */
+    @Override
+    public boolean removeEdge(String vertex1, String vertex2) {
+        throw new UnsupportedOperationException("OffHeapGraph is read-only");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isAdjacent(String vertex1, String vertex2) {
+        int v1 = id(vertex1);
+        int v2 = id(vertex2);
+        return v1 >= 0 && v2 >= 0 && slot(v1, v2) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getEdgeWeight(String vertex1, String vertex2) {
+        int v1 = id(vertex1);
+        int v2 = id(vertex2);
+        int slot = v1 < 0 || v2 < 0 ? -1 : slot(v1, v2);
+        return slot < 0 ? -1 : weights.get(slot);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The labels are decoded as the iteration reaches them.
+     */
+    @Override
+    public Iterable<String> getNeighbors(String vertex) {
+        int v = id(vertex);
+        if (v < 0) {
+            return new LabelIterable(0, 0, false);
+        }
+        return new LabelIterable(offsets.get(v), offsets.get(v + 1), true);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The labels are decoded as the iteration reaches them.
+     */
+    @Override
+    public Iterable<String> getAllVertices() {
+        return new LabelIterable(0, vertexCount, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The vertices are streamed in the order of their ids, and the stream is
+     * SIZED, SUBSIZED and IMMUTABLE. The labels are decoded as the stream reaches
+     * them.
+     */
+    @Override
+    public Stream<String> vertexStream() {
+        return StreamSupport.stream(new RangeSpliterator<String>(0, vertexCount, null, this::label,
+                Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Each edge is streamed from the end with the lower id. The stream splits
+     * by adjacency slots rather than by vertices, so a few vertices of high
+     * degree do not leave one half with most of the edges.
+     */
+    @Override
+    public Stream<WeightedEdge<String>> edgeStream() {
+        return StreamSupport.stream(new EdgeSpliterator(0, offsets.get(vertexCount)), false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The stream is SIZED, SUBSIZED and IMMUTABLE. The labels are decoded as the
+     * stream reaches them.
+     */
+    @Override
+    public Stream<String> neighborStream(String vertex) {
+        int v = id(vertex);
+        if (v < 0) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new RangeSpliterator<String>(offsets.get(v), offsets.get(v + 1), null,
+                slot -> label(targets.get(slot)), Spliterator.DISTINCT | Spliterator.ORDERED
+                        | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * Spliterator over the edges stored in a range of adjacency slots, which
+     * gives each undirected edge from the slot of its lower end only
+     */
+    private class EdgeSpliterator implements Spliterator<WeightedEdge<String>> {
+
+        private int from;
+        private final int to;
+        private int source;
+
+        /**
+         * Constructor for EdgeSpliterator objects
+         *
+         * @param from first adjacency slot
+         * @param to end of the range, exclusive
+         */
+        EdgeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.source = sourceOf(from);
+        }
+
+        /**
+         * Finds the vertex whose edges a slot belongs to
+         * @param slot the adjacency slot
+         * @return the last vertex v with offsets[v] <= slot
+         */
+        private int sourceOf(int slot) {
+            int low = 0;
+            int high = vertexCount - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (offsets.get(middle) <= slot) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super WeightedEdge<String>> action) {
+            while (from < to) {
+                int slot = from++;
+                while (offsets.get(source + 1) <= slot) {
+                    source++;
+                }
+                int target = targets.get(slot);
+                if (target > source) {
+                    action.accept(new WeightedEdge<String>(label(source), label(target), weights.get(slot)));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<WeightedEdge<String>> trySplit() {
+            int middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            Spliterator<WeightedEdge<String>> lower = new EdgeSpliterator(from, middle);
+            from = middle;
+            source = sourceOf(middle);
+            return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+            // each edge is stored in two slots
+            return (to - from + 1) / 2;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+
+    /**
+     * Iterates over the labels of a range of vertex ids, or of the targets of a
+     * range of adjacency slots
+     */
+    private class LabelIterable implements Iterable<String> {
+
+        private final int from;
+        private final int to;
+        private final boolean slots;
+
+        /**
+         * Constructor for LabelIterable objects
+         *
+         * @param from first index of the range
+         * @param to end of the range, exclusive
+         * @param slots true if the range holds adjacency slots, false if vertex ids
+         */
+        LabelIterable(int from, int to, boolean slots) {
+            this.from = from;
+            this.to = to;
+            this.slots = slots;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public String next() {
+                    if (next >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    int index = next++;
+                    return label(slots ? targets.get(index) : index);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           ParallelWordLoader.java
+//Description:     Reads the words of a large dictionary file on several
+//				   threads, one byte range of the file per task.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   WordNormalizer.java, ParallelWordLoader.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Loads the words of a UTF-8 dictionary file, one word per line, in parallel.
+ *
+ * The file is cut into chunks of about chunkBytes bytes, each boundary moved
+ * forward to just after a line break, so every line lies in one chunk. Lines
+ * end at \n, \r or \r\n, like the lines of {@link java.nio.file.Files#lines(Path)}
+ * which read smaller files, and malformed UTF-8 fails the load the same way,
+ * so a dictionary gives the same words whichever way it is read. Each
+ * chunk is read with positional reads of one shared {@link FileChannel} and
+ * parsed by a task of a thread pool: it splits the bytes into lines, decodes
+ * them (ASCII lines without going through the UTF-8 decoder), normalizes the
+ * words with a {@link WordNormalizer} and keeps the distinct ones, sorted.
+ * The sorted vocabularies of the chunks are then merged into one table, which
+ * holds a single String instance per word.
+ *
+ * A byte order mark at the start of the file is skipped, as
+ * {@link WordProcessor#getWordStream(String, WordNormalizer)} skips it. A loader can be used
+ * for any number of files, also concurrently.
+ */
+public class ParallelWordLoader {
+
+    /**
+     * Default size of a chunk
+     */
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+    private final WordNormalizer normalizer;
+    private final int threads;
+    private final int chunkBytes;
+
+    /**
+     * Constructor for ParallelWordLoader objects with a thread per processor
+     * @param normalizer the normalization of the words
+     */
+    public ParallelWordLoader(WordNormalizer normalizer) {
+        this(normalizer, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * Constructor for ParallelWordLoader objects
+     * @param normalizer the normalization of the words
+     * @param threads number of threads parsing chunks, at least 1
+     * @param chunkBytes size a chunk starts from before it is aligned to a line break, at least 1
+     */
+    public ParallelWordLoader(WordNormalizer normalizer, int threads, int chunkBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        if (chunkBytes < 1) {
+            throw new IllegalArgumentException("chunkBytes must be at least 1: " + chunkBytes);
+        }
+        this.normalizer = normalizer;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Reads the distinct words of a file
+     *
+     * @param file the dictionary
+     * @return the normalized, non-empty words, each once, in increasing order
+     * @throws IOException if the file can not be read
+     */
+    public String[] load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            if (bounds.length == 2 || threads == 1) {
+                List<String[]> vocabularies = new ArrayList<String[]>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    vocabularies.add(parse(channel, bounds[i], bounds[i + 1]));
+                }
+                return merge(vocabularies);
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, bounds.length - 1));
+            try {
+                List<Future<String[]>> results = new ArrayList<Future<String[]>>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    results.add(pool.submit(() -> parse(channel, from, to)));
+                }
+                List<String[]> vocabularies = new ArrayList<String[]>();
+                for (Future<String[]> result : results) {
+                    vocabularies.add(result.get());
+                }
+                return merge(vocabularies);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while loading " + file);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IllegalStateException("parsing a chunk of " + file + " failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Cuts a file into chunks which start at the beginning of a line
+     *
+     * @param channel the file
+     * @return the offsets the chunks start at, followed by the size of the file
+     * @throws IOException if the file can not be read
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long start = 0;
+        ByteBuffer bom = ByteBuffer.allocate(3);
+        channel.read(bom, 0);
+        if (bom.position() == 3 && (bom.get(0) & 0xFF) == 0xEF && (bom.get(1) & 0xFF) == 0xBB
+                && (bom.get(2) & 0xFF) == 0xBF) {
+            start = 3;
+        }
+
+        long[] bounds = new long[16];
+        int count = 0;
+        bounds[count++] = start;
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long at = start + chunkBytes;
+        while (at < size) {
+            // move the boundary to just after the next line break, a \r\n cut
+            // after the \r leaves an empty line at the start of the next chunk
+            long lineEnd = -1;
+            for (long scan = at; lineEnd < 0 && scan < size; scan += buffer.limit()) {
+                buffer.clear();
+                if (channel.read(buffer, scan) <= 0) {
+                    break;
+                }
+                buffer.flip();
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n' || buffer.get(i) == '\r') {
+                        lineEnd = scan + i + 1;
+                        break;
+                    }
+                }
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count++] = lineEnd;
+            at = lineEnd + chunkBytes;
+        }
+        if (count == bounds.length) {
+            bounds = Arrays.copyOf(bounds, count + 1);
+        }
+        bounds[count++] = Math.max(size, start);
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Parses the lines of one chunk
+     *
+     * @param channel the file
+     * @param from offset of the first byte of the chunk, the start of a line
+     * @param to offset after the last byte of the chunk
+     * @return the distinct normalized words of the chunk, sorted
+     * @throws IOException if the chunk can not be read or is not UTF-8
+     */
+    private String[] parse(FileChannel channel, long from, long to) throws IOException {
+        byte[] bytes = new byte[(int) (to - from)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                throw new IOException("file shrank while it was read");
+            }
+        }
+
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        Set<String> words = new HashSet<String>();
+        int lineStart = 0;
+        int ascii = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i < bytes.length && bytes[i] != '\n' && bytes[i] != '\r') {
+                ascii |= bytes[i];
+                continue;
+            }
+            // the \n of a \r\n ends an empty line
+            int lineEnd = i;
+            if (lineEnd > lineStart) {
+                // a byte with the high bit set makes ascii negative
+                String line = ascii >= 0
+                        ? new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.ISO_8859_1)
+                        : decoder.decode(ByteBuffer.wrap(bytes, lineStart, lineEnd - lineStart)).toString();
+                String word = normalizer.normalize(line);
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+            lineStart = i + 1;
+            ascii = 0;
+        }
+
+        String[] sorted = words.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Merges sorted vocabularies, dropping the words several of them hold
+     *
+     * @param vocabularies sorted arrays of distinct words
+     * @return the sorted union
+     */
+    private static String[] merge(List<String[]> vocabularies) {
+        if (vocabularies.size() == 1) {
+            return vocabularies.get(0);
+        }
+        int total = 0;
+        // cursor i is {vocabulary, position}, ordered by the word it points at
+        PriorityQueue<int[]> cursors = new PriorityQueue<int[]>(
+                (a, b) -> vocabularies.get(a[0])[a[1]].compareTo(vocabularies.get(b[0])[b[1]]));
+        for (int v = 0; v < vocabularies.size(); v++) {
+            total += vocabularies.get(v).length;
+            if (vocabularies.get(v).length > 0) {
+                cursors.add(new int[] { v, 0 });
+            }
+        }
+
+        String[] merged = new String[total];
+        int size = 0;
+        while (!cursors.isEmpty()) {
+            int[] cursor = cursors.poll();
+            String word = vocabularies.get(cursor[0])[cursor[1]];
+            if (size == 0 || !merged[size - 1].equals(word)) {
+                merged[size++] = word;
+            }
+            if (++cursor[1] < vocabularies.get(cursor[0]).length) {
+                cursors.add(cursor);
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+}
@@ -0,0 +1,338 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           PathCache.java
+//Description:     Bounded cache of shortest paths between vertex ids of an
+//				   undirected graph snapshot.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   PathCache.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Least recently used cache of shortest paths between the vertices of an
+ * undirected {@link CompactGraph}.
+ *
+ * The graph is undirected, so a pair is stored once with the smaller id
+ * first, and a query in the other direction gets the stored path reversed.
+ * Every part of a shortest path between two of its vertices is a shortest path
+ * between them as well, so a query whose two vertices lie on a cached path is
+ * answered from that path. To find those, every vertex knows the cached paths
+ * it lies on. Pairs without a path are cached too, as an empty path.
+ *
+ * The cache holds at most capacity paths, and at most maxBytes of estimated
+ * heap memory {@link MemoryAccount}; a path which does not fit on its own is
+ * not cached. The ids are only valid for one snapshot, so the cache has to be
+ * cleared when the snapshot is replaced. It is not thread safe.
+ */
+public class PathCache {
+
+    /**
+     * A cached pair and its path
+     */
+    private static class Entry {
+
+        // path from the smaller id to the larger id, empty if there is none
+        final int[] path;
+
+        Entry(int[] path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * Estimated bytes of a cached pair besides its path: the map entry with its
+     * slot in the table, the key and the Entry
+     */
+    private static final long PAIR_BYTES = MemoryAccount.MAP_ENTRY + 2 * MemoryAccount.REFERENCE
+            + MemoryAccount.object(8) + MemoryAccount.object(MemoryAccount.REFERENCE);
+
+    /**
+     * Estimated bytes of the list of paths of a vertex, with its map entry and key
+     */
+    private static final long LIST_BYTES = MemoryAccount.MAP_ENTRY + 2 * MemoryAccount.REFERENCE
+            + MemoryAccount.object(4) + MemoryAccount.object(2 * 4 + MemoryAccount.REFERENCE)
+            + MemoryAccount.referenceArray(2);
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long maxBytes = Long.MAX_VALUE;
+
+    // estimated bytes of the cached paths and their index
+    private long bytes;
+
+    /**
+     * For every vertex the cached paths it lies on
+     */
+    private final Map<Integer, List<Entry>> onPath;
+
+    private long hits;
+    private long subpathHits;
+    private long misses;
+
+    /**
+     * Creates an empty cache
+     *
+     * @param capacity largest number of cached paths, at least 1
+     */
+    public PathCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+        this.onPath = new HashMap<Integer, List<Entry>>();
+    }
+
+    /**
+     * Looks up a shortest path, either cached for the pair itself or as part of
+     * a cached path
+     *
+     * @param source id of the first vertex
+     * @param target id of the last vertex
+     * @return the ids of a shortest path from source to target, empty if there is
+     * no path, or null if the cache can not tell
+     */
+    public int[] get(int source, int target) {
+        Entry entry = entries.get(key(source, target));
+        if (entry != null) {
+            hits++;
+            return oriented(entry.path, 0, entry.path.length - 1, source > target);
+        }
+
+        List<Entry> candidates = onPath.get(source);
+        if (candidates != null) {
+            for (Entry candidate : candidates) {
+                int[] path = candidate.path;
+                int from = -1;
+                int to = -1;
+                for (int i = 0; i < path.length; i++) {
+                    if (path[i] == source) {
+                        from = i;
+                    }
+                    if (path[i] == target) {
+                        to = i;
+                    }
+                }
+                if (to >= 0) {
+                    subpathHits++;
+                    // touch the entry, so a path which keeps answering queries stays cached
+                    entries.get(key(path[0], path[path.length - 1]));
+                    return from <= to ? oriented(path, from, to, false) : oriented(path, to, from, true);
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches a shortest path, evicting the least recently used path if the cache is full
+     *
+     * @param source id of the first vertex
+     * @param target id of the last vertex
+     * @param path ids of a shortest path from source to target, empty if there is none
+     */
+    public void put(int source, int target, int[] path) {
+        long key = key(source, target);
+        long needed = entryBytes(path.length);
+        if (entries.containsKey(key) || needed > maxBytes) {
+            return;
+        }
+        while (!entries.isEmpty() && (entries.size() == capacity || bytes + needed > maxBytes)) {
+            evictEldest();
+        }
+
+        Entry entry = new Entry(oriented(path, 0, path.length - 1, source > target));
+        entries.put(key, entry);
+        bytes += entryBytes(path.length);
+        for (int vertex : entry.path) {
+            List<Entry> list = onPath.get(vertex);
+            if (list == null) {
+                list = new ArrayList<Entry>(2);
+                onPath.put(vertex, list);
+                bytes += LIST_BYTES;
+            }
+            list.add(entry);
+        }
+    }
+
+    /**
+     * Limits the estimated memory of the cache, evicting the least recently used
+     * paths until it fits
+     *
+     * @param maxBytes largest estimated bytes of the cached paths, Long.MAX_VALUE for no limit
+     */
+    public void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        while (bytes > maxBytes && !entries.isEmpty()) {
+            evictEldest();
+        }
+    }
+
+    /**
+     * Returns the limit of the estimated memory of the cache
+     * @return the largest estimated bytes, Long.MAX_VALUE if there is no limit
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Estimates the heap bytes of the cached paths and of their index {@link MemoryAccount}
+     * @return the estimated bytes
+     */
+    public long estimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Removes every cached path, the statistics are kept
+     */
+    public void clear() {
+        entries.clear();
+        onPath.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Returns the number of cached paths
+     * @return the size of the cache
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the largest number of cached paths
+     * @return the capacity of the cache
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of queries answered by a path cached for the pair, in either direction
+     * @return the number of hits
+     */
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of queries answered by a part of a longer cached path
+     * @return the number of subpath hits
+     */
+    public long subpathHits() {
+        return subpathHits;
+    }
+
+    /**
+     * Returns the number of queries the cache could not answer
+     * @return the number of misses
+     */
+    public long misses() {
+        return misses;
+    }
+
+    /**
+     * Returns the share of queries answered by the cache
+     * @return hits and subpath hits over all queries, 0 before the first query
+     */
+    public double hitRate() {
+        long queries = hits + subpathHits + misses;
+        return queries == 0 ? 0 : (double) (hits + subpathHits) / queries;
+    }
+
+    /**
+     * Removes the least recently used path
+     */
+    private void evictEldest() {
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        Entry evicted = eldest.next().getValue();
+        eldest.remove();
+        bytes -= entryBytes(evicted.path.length);
+        unindex(evicted);
+    }
+
+    /**
+     * Estimates the bytes of a cached path with its pair, without the lists of its vertices
+     *
+     * @param length number of vertices of the path
+     * @return the estimated bytes
+     */
+    private static long entryBytes(int length) {
+        return PAIR_BYTES + MemoryAccount.intArray(length) + (long) length * MemoryAccount.REFERENCE;
+    }
+
+    /**
+     * Removes an evicted path from the lists of its vertices
+     *
+     * @param entry the evicted path
+     */
+    private void unindex(Entry entry) {
+        for (int vertex : entry.path) {
+            List<Entry> list = onPath.get(vertex);
+            if (list == null) {
+                continue;
+            }
+            for (int i = list.size() - 1; i >= 0; i--) {
+                if (list.get(i) == entry) {
+                    list.remove(i);
+                }
+            }
+            if (list.isEmpty()) {
+                onPath.remove(vertex);
+                bytes -= LIST_BYTES;
+            }
+        }
+    }
+
+    /**
+     * Combines an unordered pair into one key
+     *
+     * @param u id of one vertex
+     * @param v id of the other vertex
+     * @return the key of the pair
+     */
+    private static long key(int u, int v) {
+        return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+    }
+
+    /**
+     * Copies a part of a path
+     *
+     * @param path the path
+     * @param from index of the first vertex of the part
+     * @param to index of the last vertex of the part, from - 1 for an empty part
+     * @param reversed true to copy the part backwards
+     * @return the part as a new array
+     */
+    private static int[] oriented(int[] path, int from, int to, boolean reversed) {
+        int[] copy = new int[to - from + 1];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = reversed ? path[to - i] : path[from + i];
+        }
+        return copy;
+    }
+}
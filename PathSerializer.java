@@ -0,0 +1,275 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           PathSerializer.java
+//Description:     Writes and reads many shortest paths at once, in a compact
+//				   binary or a plain text format.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   IntPath.java, PathSerializer.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Writes a sequence of paths, as returned by
+ * {@link GraphProcessor#getShortestPath(String, String)}, to a stream.
+ *
+ * The text format has one path per line, the words separated by a tab, and
+ * an empty line for a pair without a path.
+ *
+ * The binary format starts with the int MAGIC. Each path follows as its number
+ * of words and then one code per word, all as varints (7 bits per byte, the
+ * high bit set on every byte but the last). A word gets the next free code the
+ * first time it is written, and that code is followed by the word itself in
+ * modified UTF-8; later occurrences are only the code. Paths of one dictionary
+ * share most of their words, so most words cost one or two bytes. The words of
+ * an {@link IntPath} are looked up by vertex id, without reading its labels
+ * more than once.
+ *
+ * A serializer is not thread-safe. The readers return every path of a stream.
+ */
+public class PathSerializer implements Closeable {
+
+    private static final int MAGIC = 0x49505431;
+
+    private final DataOutputStream data;
+    private final Writer text;
+
+    /**
+     * Code of every word written so far, binary format only
+     */
+    private final Map<String, Integer> codes = new HashMap<String, Integer>();
+
+    /**
+     * Code of every vertex of codeGraph written so far, -1 for the others
+     */
+    private CompactGraph codeGraph;
+    private int[] codeOf;
+
+    private long pathCount;
+
+    /**
+     * Constructor for PathSerializer objects, use {@link #binary(OutputStream)}
+     * or {@link #text(Writer)}
+     */
+    private PathSerializer(DataOutputStream data, Writer text) {
+        this.data = data;
+        this.text = text;
+    }
+
+    /**
+     * Creates a serializer in the binary format and writes its header
+     *
+     * @param out stream to write to, closed with the serializer
+     * @return the serializer
+     * @throws IOException if the header can not be written
+     */
+    public static PathSerializer binary(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        return new PathSerializer(data, null);
+    }
+
+    /**
+     * Creates a serializer in the text format
+     *
+     * @param out writer to write to, closed with the serializer
+     * @return the serializer
+     */
+    public static PathSerializer text(Writer out) {
+        return new PathSerializer(null, new BufferedWriter(out));
+    }
+
+    /**
+     * Writes one path
+     *
+     * @param path the words of the path, empty if there is no path
+     * @throws IOException if the path can not be written
+     */
+    public void write(List<String> path) throws IOException {
+        pathCount++;
+        if (text != null) {
+            for (int i = 0; i < path.size(); i++) {
+                if (i > 0) {
+                    text.write('\t');
+                }
+                text.write(path.get(i));
+            }
+            text.write('\n');
+            return;
+        }
+
+        writeVarint(path.size());
+        IntPath ids = path instanceof IntPath ? (IntPath) path : null;
+        if (ids != null && ids.graph() != codeGraph) {
+            codeGraph = ids.graph();
+            codeOf = new int[codeGraph.vertexCount()];
+            Arrays.fill(codeOf, -1);
+        }
+        for (int i = 0; i < path.size(); i++) {
+            if (ids != null && codeOf[ids.id(i)] >= 0) {
+                writeVarint(codeOf[ids.id(i)]);
+                continue;
+            }
+            String word = path.get(i);
+            Integer code = codes.get(word);
+            if (code == null) {
+                code = codes.size();
+                codes.put(word, code);
+                writeVarint(code);
+                data.writeUTF(word);
+            } else {
+                writeVarint(code);
+            }
+            if (ids != null) {
+                codeOf[ids.id(i)] = code;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of paths written so far
+     * @return the number of calls of {@link #write(List)}
+     */
+    public long pathCount() {
+        return pathCount;
+    }
+
+    /**
+     * Writes out everything buffered
+     * @throws IOException if the stream can not be written
+     */
+    public void flush() throws IOException {
+        if (text != null) {
+            text.flush();
+        } else {
+            data.flush();
+        }
+    }
+
+    /**
+     * Writes out everything buffered and closes the stream
+     * @throws IOException if the stream can not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (text != null) {
+            text.close();
+        } else {
+            data.close();
+        }
+    }
+
+    /**
+     * Writes a varint
+     * @param value non-negative value to write
+     */
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.write(value | 0x80);
+            value >>>= 7;
+        }
+        data.write(value);
+    }
+
+    /**
+     * Reads every path of a stream in the binary format
+     *
+     * @param in the stream, read to its end but not closed
+     * @return the paths in the order they were written
+     * @throws IOException if the stream can not be read or is not in the binary format
+     */
+    public static List<List<String>> readBinary(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a path file");
+        }
+        List<String> words = new ArrayList<String>();
+        List<List<String>> paths = new ArrayList<List<String>>();
+        int first;
+        while ((first = data.read()) >= 0) {
+            int size = readVarint(data, first);
+            String[] path = new String[size];
+            for (int i = 0; i < size; i++) {
+                int code = readVarint(data, data.read());
+                if (code == words.size()) {
+                    words.add(data.readUTF());
+                } else if (code > words.size()) {
+                    throw new IOException("unknown word code " + code);
+                }
+                path[i] = words.get(code);
+            }
+            paths.add(Arrays.asList(path));
+        }
+        return paths;
+    }
+
+    /**
+     * Reads a varint
+     * @param data the stream
+     * @param first the first byte of the varint, already read
+     * @return the value of the varint
+     */
+    private static int readVarint(DataInputStream data, int first) throws IOException {
+        int value = 0;
+        int shift = 0;
+        for (int b = first;; b = data.read()) {
+            if (b < 0) {
+                throw new EOFException("path file ends inside a path");
+            }
+            if (shift > 28) {
+                throw new IOException("varint too long");
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * Reads every path of a stream in the text format
+     *
+     * @param in the text, read to its end but not closed
+     * @return the paths in the order they were written
+     * @throws IOException if the text can not be read
+     */
+    public static List<List<String>> readText(Reader in) throws IOException {
+        BufferedReader lines = new BufferedReader(in);
+        List<List<String>> paths = new ArrayList<List<String>>();
+        String line;
+        while ((line = lines.readLine()) != null) {
+            paths.add(line.isEmpty() ? new ArrayList<String>() : Arrays.asList(line.split("\t")));
+        }
+        return paths;
+    }
+}
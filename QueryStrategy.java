@@ -0,0 +1,240 @@
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           QueryStrategy.java
+//Description:     The ways GraphProcessor can answer shortest path queries,
+//				   and the cost model which picks one for a graph.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   QueryStrategy.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * How {@link GraphProcessor} answers shortest path queries, and
+ * {@link #plan(CompactGraph, long, QueryStrategy)}, which estimates the cost
+ * of each strategy for a graph and picks one within a memory budget.
+ *
+ * The model counts edge checks, at NANOS_PER_EDGE each. With n vertices, e
+ * stored edges (each undirected edge twice), mean degree k and mean squared
+ * degree k2, a vertex reached by a search leads to b = k2 / k - 1 new ones on
+ * average, so two random words are about ln(n) / ln(b) edges apart and each
+ * side of a bidirectional search reaches about sqrt(n) vertices before they
+ * meet. A few words of high degree raise k2 and with it the cost of every
+ * search which passes them.
+ *  - ALL_PAIRS: n^2 ints of distances, computed 64 sources per word of a
+ *    bitset, about (n + e) n / 64 edge checks; a query walks its path
+ *  - PER_SOURCE_CACHE: a full search, n + e edge checks, keeps the parent of
+ *    every vertex, 4n bytes, which answers all later queries from or to
+ *    that word with a walk
+ *  - BIDIRECTIONAL: about 2 sqrt(n) k2 / k edge checks per query, nothing kept
+ * All pairs is taken when its table fits into the budget, HEAP_SHARE of the
+ * available heap unless {@link GraphProcessor#setMemoryBudget(long)} leaves
+ * less, and takes at most MAX_SETUP_NANOS to compute. Otherwise source trees are
+ * kept when a full search costs at most TREE_FACTOR bidirectional ones, so a
+ * source which is queried again soon pays for its tree, and bidirectional
+ * search is taken for larger graphs.
+ */
+public enum QueryStrategy {
+
+    /**
+     * Distances between all pairs of words, computed up front
+     * {@link GraphProcessor#shortestPathPrecomputation()}
+     */
+    ALL_PAIRS,
+
+    /**
+     * A breadth first search tree of the whole graph per source word, for the
+     * most recently queried words
+     */
+    PER_SOURCE_CACHE,
+
+    /**
+     * A search from each end of every query {@link BidirectionalBfs}
+     */
+    BIDIRECTIONAL;
+
+    /**
+     * Estimated time of one edge check
+     */
+    static final double NANOS_PER_EDGE = 2.0;
+
+    /**
+     * Share of the available heap a strategy may keep
+     */
+    static final double HEAP_SHARE = 0.25;
+
+    /**
+     * Longest estimated time to compute all distances, which is spent again after
+     * every change of the graph
+     */
+    static final double MAX_SETUP_NANOS = 2.5e8;
+
+    /**
+     * Full searches per bidirectional search a tree may cost
+     */
+    static final double TREE_FACTOR = 4;
+
+    /**
+     * Most source trees kept
+     */
+    static final int MAX_TREES = 256;
+
+    /**
+     * The strategy picked for a graph, with what the model expects of it
+     */
+    public static class Plan {
+
+        private final QueryStrategy strategy;
+        private final boolean forced;
+        private final int vertices;
+        private final long edges;
+        private final double meanDegree;
+        private final double branching;
+        private final long estimatedBytes;
+        private final double estimatedSetupNanos;
+        private final double estimatedQueryNanos;
+        private final int sourceTrees;
+
+        Plan(QueryStrategy strategy, boolean forced, int vertices, long edges, double meanDegree,
+                double branching, long estimatedBytes, double estimatedSetupNanos, double estimatedQueryNanos,
+                int sourceTrees) {
+            this.strategy = strategy;
+            this.forced = forced;
+            this.vertices = vertices;
+            this.edges = edges;
+            this.meanDegree = meanDegree;
+            this.branching = branching;
+            this.estimatedBytes = estimatedBytes;
+            this.estimatedSetupNanos = estimatedSetupNanos;
+            this.estimatedQueryNanos = estimatedQueryNanos;
+            this.sourceTrees = sourceTrees;
+        }
+
+        /**
+         * Returns the strategy
+         * @return the picked strategy, or the one set by {@link GraphProcessor#setQueryStrategy(QueryStrategy)}
+         */
+        public QueryStrategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Tells whether the strategy was set rather than picked
+         * @return true if the strategy was set
+         */
+        public boolean isForced() {
+            return forced;
+        }
+
+        /**
+         * Returns the memory the strategy is expected to keep
+         * @return the estimate in bytes
+         */
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        /**
+         * Returns the time the strategy is expected to take before the first query
+         * @return the estimate in nanoseconds
+         */
+        public double getEstimatedSetupNanos() {
+            return estimatedSetupNanos;
+        }
+
+        /**
+         * Returns the time a query is expected to take, for PER_SOURCE_CACHE the
+         * time of a query whose words have no tree yet
+         * @return the estimate in nanoseconds
+         */
+        public double getEstimatedQueryNanos() {
+            return estimatedQueryNanos;
+        }
+
+        /**
+         * Returns the number of source trees to keep
+         * @return the number of trees, 0 unless the strategy is PER_SOURCE_CACHE
+         */
+        public int getSourceTrees() {
+            return sourceTrees;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%s for %d vertices, %d edges, mean degree %.1f, branching %.1f:"
+                    + " about %.1f MB kept, %.1f ms setup, %.1f us per query%s",
+                    strategy, forced ? " (set)" : "", vertices, edges, meanDegree, branching,
+                    estimatedBytes / 1e6, estimatedSetupNanos / 1e6, estimatedQueryNanos / 1e3,
+                    sourceTrees > 0 ? ", " + sourceTrees + " source trees" : "");
+        }
+    }
+
+    /**
+     * Estimates the cost of the strategies for a graph and picks one
+     *
+     * @param graph the graph
+     * @param budgetBytes heap memory the strategy may keep
+     * @param forced the strategy to take regardless of the estimates, null to pick one
+     * @return the plan
+     */
+    public static Plan plan(CompactGraph graph, long budgetBytes, QueryStrategy forced) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        long e = graph.targets().length;
+        double squares = 0;
+        for (int v = 0; v < n; v++) {
+            double degree = offsets[v + 1] - offsets[v];
+            squares += degree * degree;
+        }
+        double meanDegree = n == 0 ? 0 : (double) e / n;
+        double branching = e == 0 ? 0 : squares / e - 1;
+        double budget = Math.max(0, budgetBytes);
+
+        // a search from each end reaches about sqrt(n) vertices, of degree k2 / k
+        double fullSearch = n + e;
+        double bidirectional = Math.min(fullSearch, 2 * Math.sqrt(n) * (branching + 1) + 2);
+        double pathLength = branching > 1 ? Math.log(Math.max(n, 2)) / Math.log(branching) : Math.sqrt(n);
+        double walk = pathLength * Math.max(1, meanDegree);
+
+        long tableBytes = 4L * n * n + 16L * n;
+        double tableNanos = NANOS_PER_EDGE * fullSearch * Math.ceil(n / 64.0);
+        long treeBytes = 4L * Math.max(n, 1);
+        int trees = (int) Math.min(MAX_TREES, budget / treeBytes);
+        long workspaceBytes = 2 * 20L * n;
+
+        QueryStrategy strategy = forced;
+        if (strategy == null) {
+            if (tableBytes <= budget && tableNanos <= MAX_SETUP_NANOS) {
+                strategy = ALL_PAIRS;
+            } else if (trees >= 1 && fullSearch <= TREE_FACTOR * bidirectional) {
+                strategy = PER_SOURCE_CACHE;
+            } else {
+                strategy = BIDIRECTIONAL;
+            }
+        }
+
+        long edges = e / 2;
+        switch (strategy) {
+        case ALL_PAIRS:
+            return new Plan(strategy, forced != null, n, edges, meanDegree, branching, tableBytes, tableNanos,
+                    NANOS_PER_EDGE * walk, 0);
+        case PER_SOURCE_CACHE:
+            trees = Math.max(1, trees);
+            return new Plan(strategy, forced != null, n, edges, meanDegree, branching,
+                    trees * treeBytes + workspaceBytes, 0, NANOS_PER_EDGE * fullSearch, trees);
+        default:
+            return new Plan(strategy, forced != null, n, edges, meanDegree, branching, workspaceBytes, 0,
+                    NANOS_PER_EDGE * bidirectional, 0);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           RangeSpliterator.java
+//Description:     Spliterator over a range of int indexes into the storage of
+//				   a graph, which splits the range in halves.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   RangeSpliterator.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Spliterator over the indexes from..to of an array or buffer of a graph,
+ * vertex ids or adjacency slots, which turns each index into its element
+ * without copying the storage first.
+ *
+ * A split hands the lower half of the remaining range to the new spliterator,
+ * so a parallel stream divides the range evenly. If every index holds an
+ * element the size of each half is known, and the spliterator is SIZED and
+ * SUBSIZED; with a test for the indexes which hold one, such as the free slots
+ * of a hash table, only the size of the range is known and it is neither.
+ */
+class RangeSpliterator<T> implements Spliterator<T> {
+
+    private int from;
+    private final int to;
+    private final IntPredicate present;
+    private final IntFunction<T> element;
+    private final int characteristics;
+
+    /**
+     * Constructor for RangeSpliterator objects
+     *
+     * @param from first index
+     * @param to end of the range, exclusive
+     * @param present tells the indexes which hold an element, null if all do
+     * @param element the element of an index, never null
+     * @param characteristics characteristics besides NONNULL, SIZED and SUBSIZED
+     */
+    RangeSpliterator(int from, int to, IntPredicate present, IntFunction<T> element, int characteristics) {
+        this.from = from;
+        this.to = to;
+        this.present = present;
+        this.element = element;
+        this.characteristics = NONNULL | (present == null ? characteristics | SIZED | SUBSIZED
+                : characteristics & ~(SIZED | SUBSIZED));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (from < to) {
+            int index = from++;
+            if (present == null || present.test(index)) {
+                action.accept(element.apply(index));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        int end = to;
+        for (int index = from; index < end; index++) {
+            if (present == null || present.test(index)) {
+                action.accept(element.apply(index));
+            }
+        }
+        from = end;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int middle = (from + to) >>> 1;
+        if (middle <= from) {
+            return null;
+        }
+        Spliterator<T> lower = new RangeSpliterator<T>(from, middle, present, element, characteristics);
+        from = middle;
+        return lower;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           SearchWorkspace.java
+//Description:     Reusable per-thread arrays for the searches over vertex
+//				   ids of a graph snapshot.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   SearchWorkspace.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * The per-vertex state of one search over the ids of a {@link CompactGraph}:
+ * distances, parents, two int queues and, for bottom-up steps and bucket
+ * queues, whatever else a search needs sized by the number of vertices.
+ *
+ * Whether a vertex was reached is told by a stamp array instead of a cleared
+ * boolean array: {@link #begin()} starts a new generation, and a vertex counts
+ * as reached only if its stamp equals the current generation. Starting a
+ * search therefore costs O(1), not O(n), and the distance and parent of a
+ * vertex are only meaningful while it is stamped. The stamps are cleared once
+ * every 2^32 searches, when the generation wraps around.
+ *
+ * Each thread keeps up to IDLE_SLOTS idle workspaces, enough for the two
+ * sides of a {@link BidirectionalBfs}. {@link #acquire(int)} checks out the
+ * one returned last, growing it if the graph got larger, and {@link #close()}
+ * returns it, so in a steady state a search allocates nothing. A search
+ * nested deeper than that gets a new workspace, which pushes out the idle one
+ * returned first. A workspace must only be used by the thread that acquired
+ * it.
+ */
+public class SearchWorkspace implements AutoCloseable {
+
+    /**
+     * Idle workspaces kept per thread
+     */
+    static final int IDLE_SLOTS = 2;
+
+    /**
+     * The idle workspaces of each thread, a stack with the one returned last at
+     * the highest non-null index
+     */
+    private static final ThreadLocal<SearchWorkspace[]> IDLE =
+            ThreadLocal.withInitial(() -> new SearchWorkspace[IDLE_SLOTS]);
+
+    private int[] stamp;
+    private int generation;
+
+    int[] distance;
+    int[] parent;
+    int[] queue;
+    int[] nextQueue;
+
+    // bitsets over the ids, allocated by the first search that needs them
+    private long[] frontierBits;
+    private long[] nextBits;
+
+    // queues of the weighted searches, allocated by the first one which needs them
+    private BucketQueue bucketQueue;
+    private int bucketQueueStep;
+    private BinaryHeapQueue heapQueue;
+
+    private boolean checkedOut;
+
+    /**
+     * Constructor for SearchWorkspace objects, use {@link #acquire(int)}
+     * @param capacity number of vertex ids the arrays hold
+     */
+    private SearchWorkspace(int capacity) {
+        allocate(capacity);
+    }
+
+    /**
+     * Checks out the idle workspace of the calling thread returned last, or a
+     * new one if none is idle
+     *
+     * @param vertexCount number of vertices of the graph to search
+     * @return a workspace with room for vertexCount ids, to be returned with
+     * {@link #close()}
+     */
+    public static SearchWorkspace acquire(int vertexCount) {
+        SearchWorkspace[] idle = IDLE.get();
+        int top = IDLE_SLOTS - 1;
+        while (top >= 0 && idle[top] == null) {
+            top--;
+        }
+        SearchWorkspace workspace;
+        if (top < 0) {
+            workspace = new SearchWorkspace(vertexCount);
+        } else {
+            workspace = idle[top];
+            idle[top] = null;
+            if (workspace.stamp.length < vertexCount) {
+                workspace.allocate(vertexCount);
+            }
+        }
+        workspace.checkedOut = true;
+        return workspace;
+    }
+
+    /**
+     * Returns the workspace to the idle slots of the calling thread
+     */
+    @Override
+    public void close() {
+        if (!checkedOut) {
+            return;
+        }
+        checkedOut = false;
+        SearchWorkspace[] idle = IDLE.get();
+        int top = 0;
+        while (top < IDLE_SLOTS && idle[top] != null) {
+            top++;
+        }
+        if (top == IDLE_SLOTS) {
+            // all slots taken, drop the workspace returned first
+            System.arraycopy(idle, 1, idle, 0, IDLE_SLOTS - 1);
+            top--;
+        }
+        idle[top] = this;
+    }
+
+    /**
+     * Replaces the arrays by larger ones
+     * @param capacity number of vertex ids the arrays hold
+     */
+    private void allocate(int capacity) {
+        stamp = new int[capacity];
+        generation = 0;
+        distance = new int[capacity];
+        parent = new int[capacity];
+        queue = new int[capacity];
+        nextQueue = new int[capacity];
+        frontierBits = null;
+        nextBits = null;
+        bucketQueue = null;
+        heapQueue = null;
+    }
+
+    /**
+     * Starts a new search, after which no vertex is reached
+     */
+    void begin() {
+        generation++;
+        if (generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    /**
+     * Tells whether the current search reached a vertex
+     * @param v id of the vertex
+     * @return true if it was reached since the last {@link #begin()}
+     */
+    boolean isReached(int v) {
+        return stamp[v] == generation;
+    }
+
+    /**
+     * Marks a vertex as reached by the current search
+     * @param v id of the vertex
+     * @param d its distance from the source
+     * @param from its parent, the source itself for the source
+     */
+    void reach(int v, int d, int from) {
+        stamp[v] = generation;
+        distance[v] = d;
+        parent[v] = from;
+    }
+
+    /**
+     * Returns the distance of a vertex in the current search
+     * @param v id of the vertex
+     * @return its distance, -1 if it was not reached
+     */
+    int distance(int v) {
+        return stamp[v] == generation ? distance[v] : -1;
+    }
+
+    /**
+     * Returns the path to a reached vertex of the current search
+     * @param target id of the vertex
+     * @return ids of the path from the source to target, empty if target was not reached
+     */
+    int[] pathTo(int target) {
+        if (!isReached(target)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = target; parent[v] != v; v = parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1, v = target; i >= 0; i--, v = parent[v]) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Returns a cleared bitset over the ids, one of two kept by the workspace
+     * @param second false for the first bitset, true for the second
+     * @return the bitset, with every bit unset
+     */
+    long[] bits(boolean second) {
+        if (frontierBits == null) {
+            frontierBits = new long[(stamp.length + 63) >>> 6];
+            nextBits = new long[frontierBits.length];
+        }
+        long[] bits = second ? nextBits : frontierBits;
+        Arrays.fill(bits, 0);
+        return bits;
+    }
+
+    /**
+     * Returns an empty bucket queue over the ids
+     * @param maxStep largest edge weight of the graph
+     * @return the queue of the workspace, or a new one if it was made for smaller weights
+     */
+    BucketQueue bucketQueue(int maxStep) {
+        if (bucketQueue == null || bucketQueueStep < maxStep) {
+            bucketQueue = new BucketQueue(stamp.length, maxStep);
+            bucketQueueStep = maxStep;
+        } else {
+            bucketQueue.clear();
+        }
+        return bucketQueue;
+    }
+
+    /**
+     * Returns an empty binary heap over the ids, for edge weights too large for buckets
+     * @return the heap of the workspace
+     */
+    BinaryHeapQueue heapQueue() {
+        if (heapQueue == null) {
+            heapQueue = new BinaryHeapQueue(stamp.length);
+        } else {
+            heapQueue.clear();
+        }
+        return heapQueue;
+    }
+}
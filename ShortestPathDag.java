@@ -0,0 +1,293 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           ShortestPathDag.java
+//Description:     All the shortest paths between two words, stored as the
+//				   directed acyclic graph of the edges they use.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   ShortestPathDag.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Every shortest (fewest edges) path between a source and a target vertex of a
+ * {@link CompactGraph}.
+ * 
+ * There can be exponentially many shortest paths, but they all are paths of one
+ * small directed acyclic graph: a breadth first search from the target gives
+ * every vertex its distance to the target, and an edge v -> w lies on a shortest
+ * path exactly when v is on one and w is one step closer to the target. Those
+ * edges are kept as one bit per CSR edge slot, and the vertices of the DAG as
+ * layers by distance from the source.
+ * 
+ * From that form the number of paths is computed in time linear in the size of
+ * the DAG {@link #countPaths()}, and the paths are enumerated lazily, one at a
+ * time {@link #paths()}.
+ */
+public class ShortestPathDag {
+
+    private final CompactGraph graph;
+    private final int source;
+    private final int target;
+
+    // bit e is set if the edge stored at CSR slot e lies on a shortest path
+    private final BitSet dagEdges;
+
+    // layers[i] holds the ids of the DAG vertices at distance i from source
+    private final int[][] layers;
+
+    /**
+     * Constructor for ShortestPathDag objects, use {@link #build(CompactGraph, int, int)}
+     */
+    private ShortestPathDag(CompactGraph graph, int source, int target, BitSet dagEdges, int[][] layers) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.dagEdges = dagEdges;
+        this.layers = layers;
+    }
+
+    /**
+     * Computes the shortest path DAG between two vertices
+     * @param graph the graph
+     * @param source id of the first vertex
+     * @param target id of the second vertex
+     * @return the DAG, without any path if target cannot be reached from source
+     */
+    public static ShortestPathDag build(CompactGraph graph, int source, int target) {
+
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        // breadth first search from target, stopped once the layer of source is known
+        try (DirectionOptimizingBfs search = new DirectionOptimizingBfs(graph)) {
+            search.search(target, source);
+
+            BitSet dagEdges = new BitSet();
+            if (search.distance(source) < 0) {
+                return new ShortestPathDag(graph, source, target, dagEdges, new int[0][]);
+            }
+
+            // walk forward from source, keeping the edges that go one step closer
+            int length = search.distance(source);
+            int[][] layers = new int[length + 1][];
+            boolean[] inDag = new boolean[n];
+            int[] layer = { source };
+            inDag[source] = true;
+            for (int i = 0; i <= length; i++) {
+                layers[i] = layer;
+                int[] nextLayer = new int[4];
+                int size = 0;
+                for (int v : layer) {
+                    for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                        int w = targets[e];
+                        if (search.distance(w) == search.distance(v) - 1) {
+                            dagEdges.set(e);
+                            if (!inDag[w]) {
+                                inDag[w] = true;
+                                if (size == nextLayer.length) {
+                                    nextLayer = Arrays.copyOf(nextLayer, size * 2);
+                                }
+                                nextLayer[size++] = w;
+                            }
+                        }
+                    }
+                }
+                layer = Arrays.copyOf(nextLayer, size);
+            }
+
+            return new ShortestPathDag(graph, source, target, dagEdges, layers);
+        }
+    }
+
+    /**
+     * Returns the length of the shortest paths
+     * @return the number of edges of each shortest path, -1 if there is no path
+     */
+    public int length() {
+        return layers.length - 1;
+    }
+
+    /**
+     * Returns the vertices of the DAG grouped by their distance to the source,
+     * layer 0 only holds the source and the last layer only the target
+     * @return the layers, no layer at all if there is no path
+     */
+    public int[][] layers() {
+        return layers;
+    }
+
+    /**
+     * Determines whether the edge stored at a CSR slot of the graph is on a shortest path
+     * @param edge index of the edge in {@link CompactGraph#targets()}
+     * @return true if the edge is on a shortest path, taken from the source's side
+     */
+    public boolean isDagEdge(int edge) {
+        return dagEdges.get(edge);
+    }
+
+    /**
+     * Counts the shortest paths, in time linear in the size of the DAG. The count
+     * is kept in longs and only redone with BigInteger if it overflows.
+     * 
+     * @return the number of shortest paths, 0 if there is no path
+     */
+    public BigInteger countPaths() {
+
+        if (layers.length == 0) {
+            return BigInteger.ZERO;
+        }
+        try {
+            return BigInteger.valueOf(countPathsExact());
+        } catch (ArithmeticException overflow) {
+            return countPathsBig();
+        }
+    }
+
+    /**
+     * Counts the paths from each vertex to the target, from the last layer back
+     * to the first
+     * @throws ArithmeticException if the count does not fit in a long
+     */
+    private long countPathsExact() {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        long[] count = new long[graph.vertexCount()];
+        count[target] = 1;
+        for (int i = layers.length - 2; i >= 0; i--) {
+            for (int v : layers[i]) {
+                long sum = 0;
+                for (int e = dagEdges.nextSetBit(offsets[v]); e >= 0 && e < offsets[v + 1];
+                        e = dagEdges.nextSetBit(e + 1)) {
+                    sum = Math.addExact(sum, count[targets[e]]);
+                }
+                count[v] = sum;
+            }
+        }
+        return count[source];
+    }
+
+    /**
+     * Same as {@link #countPathsExact()} with arbitrary precision
+     */
+    private BigInteger countPathsBig() {
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        BigInteger[] count = new BigInteger[graph.vertexCount()];
+        count[target] = BigInteger.ONE;
+        for (int i = layers.length - 2; i >= 0; i--) {
+            for (int v : layers[i]) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int e = dagEdges.nextSetBit(offsets[v]); e >= 0 && e < offsets[v + 1];
+                        e = dagEdges.nextSetBit(e + 1)) {
+                    sum = sum.add(count[targets[e]]);
+                }
+                count[v] = sum;
+            }
+        }
+        return count[source];
+    }
+
+    /**
+     * Enumerates the shortest paths one at a time. Only the path being built is
+     * kept in memory, the next path is found by a depth first search which
+     * resumes where the previous one stopped.
+     * 
+     * @return the shortest paths from source to target, as lists of labels
+     */
+    public Iterable<List<String>> paths() {
+        return PathIterator::new;
+    }
+
+    /**
+     * Depth first search over the DAG edges which stops at every path. edgeCursor[i]
+     * is the CSR slot of the edge taken out of the i-th vertex of the current path.
+     */
+    private class PathIterator implements Iterator<List<String>> {
+
+        private final int[] vertex = new int[layers.length];
+        private final int[] edgeCursor = new int[layers.length];
+
+        // depth of the last vertex of the current path, -1 when done
+        private int depth;
+
+        // true if vertex[0..depth] is a full path that was not returned yet
+        private boolean ready;
+
+        PathIterator() {
+            if (layers.length == 0) {
+                depth = -1;
+                return;
+            }
+            vertex[0] = source;
+            edgeCursor[0] = graph.offsets()[source] - 1;
+            depth = 0;
+            ready = descend();
+        }
+
+        /**
+         * Extends the current path along the first untried DAG edges until it
+         * reaches the target, backtracking when a vertex has no edge left
+         * @return true if a full path was found
+         */
+        private boolean descend() {
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            while (depth >= 0) {
+                if (depth == layers.length - 1) {
+                    return true;
+                }
+                int v = vertex[depth];
+                int e = dagEdges.nextSetBit(edgeCursor[depth] + 1);
+                if (e < 0 || e >= offsets[v + 1]) {
+                    depth--;
+                    continue;
+                }
+                edgeCursor[depth] = e;
+                int w = targets[e];
+                depth++;
+                vertex[depth] = w;
+                edgeCursor[depth] = offsets[w] - 1;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return ready;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!ready) {
+                throw new NoSuchElementException();
+            }
+            List<String> path = new ArrayList<String>(vertex.length);
+            for (int v : vertex) {
+                path.add(graph.label(v));
+            }
+            depth--;
+            ready = descend();
+            return path;
+        }
+    }
+}
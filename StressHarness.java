@@ -0,0 +1,583 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           StressHarness.java
+//Description:     Randomized differential test of GraphProcessor against a
+//				   simple reference breadth first search on large dictionaries.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   StressHarness.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Checks {@link GraphProcessor#getShortestPath(String, String)} and
+ * {@link GraphProcessor#getShortestDistance(String, String)} on synthetic
+ * dictionaries {@link SyntheticDictionary} of any size against a reference.
+ *
+ * The reference shares no code with the processor: the edges come from
+ * looking up every one letter replacement and deletion of every word in a
+ * hash map, and distances from a plain breadth first search over int arrays.
+ * The queries are spread over a thread pool, which also runs the processor
+ * from several threads at once. A returned path must start and end at the
+ * queried words, use only edges of the reference graph, and be as short as
+ * the reference distance.
+ *
+ * For every mismatch the harness searches for a small set of words on which
+ * the processor still gets the same pair wrong, by removing ever smaller
+ * chunks of words as long as the mismatch remains (delta debugging).
+ *
+ * Run with the dictionary sizes as arguments, for example
+ *     java StressHarness 10000 100000 1000000
+ */
+public class StressHarness {
+
+    /**
+     * Dictionaries up to this size are shrunk from the whole word list, larger ones
+     * from the words around the queried pair
+     */
+    private static final int SHRINK_FROM_ALL = 5000;
+
+    /**
+     * Largest number of processors built while shrinking one mismatch
+     */
+    private static final int SHRINK_TRIALS = 200;
+
+    /**
+     * A query the processor answered differently than the reference
+     */
+    public static class Mismatch {
+
+        private final String word1;
+        private final String word2;
+        private final int expectedDistance;
+        private final List<String> actualPath;
+        private final String reason;
+        private List<String> reproducingWords;
+
+        /**
+         * Constructor for Mismatch objects
+         *
+         * @param word1 first word of the query
+         * @param word2 second word of the query
+         * @param expectedDistance distance according to the reference
+         * @param actualPath path returned by the processor
+         * @param reason what is wrong with the answer
+         */
+        Mismatch(String word1, String word2, int expectedDistance, List<String> actualPath, String reason) {
+            this.word1 = word1;
+            this.word2 = word2;
+            this.expectedDistance = expectedDistance;
+            this.actualPath = actualPath;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the first word of the query
+         * @return the first word
+         */
+        public String getWord1() {
+            return word1;
+        }
+
+        /**
+         * Gets the second word of the query
+         * @return the second word
+         */
+        public String getWord2() {
+            return word2;
+        }
+
+        /**
+         * Gets what is wrong with the answer
+         * @return a description of the mismatch
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        /**
+         * Gets a small dictionary on which the processor answers the same query wrong
+         * @return the words, or null if the mismatch was not reproduced on fewer words
+         */
+        public List<String> getReproducingWords() {
+            return reproducingWords;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return word1 + " -> " + word2 + ": " + reason + ", expected distance " + expectedDistance
+                    + ", got " + actualPath
+                    + (reproducingWords == null ? "" : "\n  reproduced with " + reproducingWords);
+        }
+    }
+
+    /**
+     * Outcome of one run
+     */
+    public static class Report {
+
+        private final int words;
+        private final int queries;
+        private final long millis;
+        private final List<Mismatch> mismatches;
+
+        /**
+         * Constructor for Report objects
+         */
+        Report(int words, int queries, long millis, List<Mismatch> mismatches) {
+            this.words = words;
+            this.queries = queries;
+            this.millis = millis;
+            this.mismatches = mismatches;
+        }
+
+        /**
+         * Gets the mismatches found
+         * @return the mismatches, empty if every query was answered correctly
+         */
+        public List<Mismatch> getMismatches() {
+            return mismatches;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(words).append(" words, ").append(queries).append(" queries, ")
+                    .append(mismatches.size()).append(" mismatches, ").append(millis).append(" ms");
+            for (Mismatch mismatch : mismatches) {
+                builder.append('\n').append(mismatch);
+            }
+            return builder.toString();
+        }
+    }
+
+    private final int threads;
+    private final QueryStrategy strategy;
+
+    /**
+     * Creates a harness which lets the processor pick its query strategy
+     *
+     * @param threads number of threads the queries are spread over, at least 1
+     */
+    public StressHarness(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * Creates a harness
+     *
+     * @param threads number of threads the queries are spread over, at least 1
+     * @param strategy query strategy set on every processor, null to let it pick one
+     */
+    public StressHarness(int threads, QueryStrategy strategy) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Runs the harness on dictionaries of the sizes given as arguments
+     *
+     * @param args dictionary sizes, 10000 and 100000 if none are given
+     * @throws IOException if the dictionary file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            args = new String[] { "10000", "100000" };
+        }
+        StressHarness harness = new StressHarness(Runtime.getRuntime().availableProcessors());
+        for (String size : args) {
+            System.out.println(harness.run(Integer.parseInt(size), 1, 2000));
+        }
+    }
+
+    /**
+     * Generates a dictionary, loads it into a processor and checks random queries
+     *
+     * @param size number of words
+     * @param seed seed of the dictionary and of the queries
+     * @param queries number of queries
+     * @return the report of the run
+     * @throws IOException if the dictionary file can not be written
+     */
+    public Report run(int size, long seed, int queries) throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> words = SyntheticDictionary.generate(size, seed);
+        GraphProcessor processor = load(words);
+        Reference reference = new Reference(words);
+
+        // half of the pairs are random, half are reached by a random walk and mostly connected
+        Random random = new Random(seed);
+        int[][] pairs = new int[queries][];
+        for (int i = 0; i < queries; i++) {
+            int source = random.nextInt(words.size());
+            int target = source;
+            if (i % 2 == 0) {
+                target = random.nextInt(words.size());
+            } else {
+                for (int step = 1 + random.nextInt(12); step > 0 && reference.adjacency[target].length > 0; step--) {
+                    int[] neighbors = reference.adjacency[target];
+                    target = neighbors[random.nextInt(neighbors.length)];
+                }
+            }
+            pairs[i] = new int[] { source, target };
+        }
+
+        List<Mismatch> mismatches = check(processor, reference, pairs);
+        for (Mismatch mismatch : mismatches) {
+            mismatch.reproducingWords = shrink(words, reference, mismatch);
+        }
+        return new Report(words.size(), queries, System.currentTimeMillis() - start, mismatches);
+    }
+
+    /**
+     * Checks every pair against the reference, spread over the thread pool
+     *
+     * @param processor the processor
+     * @param reference the reference
+     * @param pairs word ids of the queries
+     * @return the mismatches, in the order of the pairs
+     */
+    private List<Mismatch> check(GraphProcessor processor, Reference reference, int[][] pairs) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<Mismatch>>> results = new ArrayList<Future<List<Mismatch>>>();
+            int chunk = (pairs.length + threads - 1) / threads;
+            for (int from = 0; from < pairs.length; from += chunk) {
+                int first = from;
+                int last = Math.min(pairs.length, from + chunk);
+                results.add(pool.submit(() -> {
+                    List<Mismatch> found = new ArrayList<Mismatch>();
+                    int[] distance = new int[reference.words.length];
+                    int[] queue = new int[reference.words.length];
+                    for (int i = first; i < last; i++) {
+                        Mismatch mismatch = check(processor, reference, pairs[i][0], pairs[i][1], distance, queue);
+                        if (mismatch != null) {
+                            found.add(mismatch);
+                        }
+                    }
+                    return found;
+                }));
+            }
+            List<Mismatch> mismatches = new ArrayList<Mismatch>();
+            for (Future<List<Mismatch>> result : results) {
+                mismatches.addAll(result.get());
+            }
+            return mismatches;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while checking queries", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("checking a query failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Checks one query
+     *
+     * @param processor the processor
+     * @param reference the reference
+     * @param source id of the first word
+     * @param target id of the second word
+     * @param distance workspace of the reference search, one entry per word
+     * @param queue workspace of the reference search, one entry per word
+     * @return the mismatch, or null if the processor answered correctly
+     */
+    private static Mismatch check(GraphProcessor processor, Reference reference, int source, int target,
+            int[] distance, int[] queue) {
+        String word1 = reference.words[source];
+        String word2 = reference.words[target];
+        int expected = reference.distance(source, target, distance, queue);
+        List<String> path = processor.getShortestPath(word1, word2);
+        int actual = processor.getShortestDistance(word1, word2);
+
+        String reason = null;
+        if (actual != expected) {
+            reason = "distance " + actual;
+        } else if (expected < 0 ? !path.isEmpty() : path.size() != expected + 1) {
+            reason = "path of " + path.size() + " words";
+        } else if (expected >= 0 && (!path.get(0).equals(word1) || !path.get(path.size() - 1).equals(word2))) {
+            reason = "path does not connect the words";
+        } else {
+            for (int i = 1; i < path.size() && reason == null; i++) {
+                if (!reference.isAdjacent(path.get(i - 1), path.get(i))) {
+                    reason = "no edge " + path.get(i - 1) + " - " + path.get(i);
+                }
+            }
+        }
+        return reason == null ? null : new Mismatch(word1, word2, expected, path, reason);
+    }
+
+    /**
+     * Searches for a small set of words on which the processor still answers the
+     * query of a mismatch wrong
+     *
+     * @param words all words of the run
+     * @param reference the reference over all words
+     * @param mismatch the mismatch
+     * @return the words, or null if the mismatch does not show on fewer words
+     * @throws IOException if a dictionary file can not be written
+     */
+    private List<String> shrink(List<String> words, Reference reference, Mismatch mismatch) throws IOException {
+        List<String> candidates = words;
+        if (words.size() > SHRINK_FROM_ALL) {
+            candidates = reference.around(mismatch.word1, mismatch.word2, SHRINK_FROM_ALL);
+        }
+        List<String> kept = new ArrayList<String>(candidates);
+        kept.remove(mismatch.word1);
+        kept.remove(mismatch.word2);
+        int[] trials = { 0 };
+        if (!fails(kept, mismatch, trials)) {
+            return null;
+        }
+
+        int granularity = 2;
+        while (!kept.isEmpty() && trials[0] < SHRINK_TRIALS) {
+            granularity = Math.min(granularity, kept.size());
+            int chunk = (kept.size() + granularity - 1) / granularity;
+            boolean reduced = false;
+            for (int from = 0; from < kept.size() && trials[0] < SHRINK_TRIALS; from += chunk) {
+                List<String> complement = new ArrayList<String>(kept.subList(0, from));
+                complement.addAll(kept.subList(Math.min(kept.size(), from + chunk), kept.size()));
+                if (fails(complement, mismatch, trials)) {
+                    kept = complement;
+                    granularity = Math.max(granularity - 1, 2);
+                    reduced = true;
+                    break;
+                }
+            }
+            if (!reduced) {
+                if (granularity >= kept.size()) {
+                    break;
+                }
+                granularity = Math.min(kept.size(), granularity * 2);
+            }
+        }
+        kept.add(0, mismatch.word2);
+        kept.add(0, mismatch.word1);
+        return kept;
+    }
+
+    /**
+     * Checks whether the processor answers the query of a mismatch wrong on a set of words
+     *
+     * @param others the words besides the two queried ones
+     * @param mismatch the mismatch
+     * @param trials number of processors built so far, incremented
+     * @return true if the answer is wrong
+     * @throws IOException if the dictionary file can not be written
+     */
+    private boolean fails(List<String> others, Mismatch mismatch, int[] trials) throws IOException {
+        trials[0]++;
+        List<String> words = new ArrayList<String>(others.size() + 2);
+        words.add(mismatch.word1);
+        words.add(mismatch.word2);
+        words.addAll(others);
+        Reference reference = new Reference(words);
+        int n = reference.words.length;
+        return check(load(words), reference, reference.id(mismatch.word1), reference.id(mismatch.word2),
+                new int[n], new int[n]) != null;
+    }
+
+    /**
+     * Loads words into a new processor through a dictionary file, like production code does
+     *
+     * @param words the words
+     * @return the processor
+     * @throws IOException if the dictionary file can not be written
+     */
+    private GraphProcessor load(List<String> words) throws IOException {
+        Path file = Files.createTempFile("stress", ".txt");
+        try {
+            Files.write(file, words);
+            GraphProcessor processor = new GraphProcessor();
+            processor.setQueryStrategy(strategy);
+            processor.populateGraph(file.toString());
+            return processor;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * The reference graph: the words, and for each word the ids of the words one
+     * replacement, addition or deletion away
+     */
+    private static class Reference {
+
+        private final String[] words;
+        private final Map<String, Integer> ids;
+        private final int[][] adjacency;
+
+        /**
+         * Builds the reference graph of a list of distinct words
+         *
+         * @param list the words
+         */
+        Reference(List<String> list) {
+            words = list.toArray(new String[0]);
+            ids = new HashMap<String, Integer>(words.length * 2);
+            Set<Character> letters = new HashSet<Character>();
+            for (int i = 0; i < words.length; i++) {
+                ids.put(words[i], i);
+                for (char c : words[i].toCharArray()) {
+                    letters.add(c);
+                }
+            }
+
+            // replacements are found from both ends, deletions only from the longer word
+            List<List<Integer>> lists = new ArrayList<List<Integer>>(words.length);
+            for (int i = 0; i < words.length; i++) {
+                lists.add(new ArrayList<Integer>());
+            }
+            for (int i = 0; i < words.length; i++) {
+                char[] chars = words[i].toCharArray();
+                for (int p = 0; p < chars.length; p++) {
+                    char original = chars[p];
+                    for (char letter : letters) {
+                        if (letter != original) {
+                            chars[p] = letter;
+                            Integer other = ids.get(new String(chars));
+                            if (other != null) {
+                                lists.get(i).add(other);
+                            }
+                        }
+                    }
+                    chars[p] = original;
+                    Integer shorter = ids.get(words[i].substring(0, p) + words[i].substring(p + 1));
+                    if (shorter != null && !lists.get(i).contains(shorter)) {
+                        lists.get(i).add(shorter);
+                        lists.get(shorter).add(i);
+                    }
+                }
+            }
+            adjacency = new int[words.length][];
+            for (int i = 0; i < words.length; i++) {
+                adjacency[i] = lists.get(i).stream().mapToInt(Integer::intValue).sorted().toArray();
+            }
+        }
+
+        /**
+         * Returns the id of a word
+         *
+         * @param word the word
+         * @return its id
+         */
+        int id(String word) {
+            return ids.get(word);
+        }
+
+        /**
+         * Checks whether two words are one edit apart
+         *
+         * @param word1 first word
+         * @param word2 second word
+         * @return true if there is an edge between them
+         */
+        boolean isAdjacent(String word1, String word2) {
+            Integer u = ids.get(word1);
+            Integer v = ids.get(word2);
+            return u != null && v != null && Arrays.binarySearch(adjacency[u], v) >= 0;
+        }
+
+        /**
+         * Computes the number of edges of a shortest path with a breadth first search
+         *
+         * @param source id of the first word
+         * @param target id of the second word
+         * @param distance workspace, one entry per word
+         * @param queue workspace, one entry per word
+         * @return the distance, -1 if there is no path
+         */
+        int distance(int source, int target, int[] distance, int[] queue) {
+            Arrays.fill(distance, -1);
+            distance[source] = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int v = queue[head++];
+                if (v == target) {
+                    return distance[v];
+                }
+                for (int w : adjacency[v]) {
+                    if (distance[w] < 0) {
+                        distance[w] = distance[v] + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Lists the words closest to two words, breadth first from both
+         *
+         * @param word1 first word
+         * @param word2 second word
+         * @param limit largest number of words listed
+         * @return the words
+         */
+        List<String> around(String word1, String word2, int limit) {
+            int[] queue = new int[words.length];
+            boolean[] seen = new boolean[words.length];
+            int tail = 0;
+            for (String word : new String[] { word1, word2 }) {
+                int id = ids.get(word);
+                if (!seen[id]) {
+                    seen[id] = true;
+                    queue[tail++] = id;
+                }
+            }
+            for (int head = 0; head < tail && tail < limit; head++) {
+                for (int w : adjacency[queue[head]]) {
+                    if (!seen[w] && tail < limit) {
+                        seen[w] = true;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+            List<String> result = new ArrayList<String>(tail);
+            for (int i = 0; i < tail; i++) {
+                result.add(words[queue[i]]);
+            }
+            return result;
+        }
+    }
+}
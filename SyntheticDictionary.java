@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           SyntheticDictionary.java
+//Description:     Generates random dictionaries of any size for benchmarks
+//				   and large scale tests.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   SyntheticDictionary.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Generates dictionaries of distinct UPPERCASE words.
+ * 
+ * Purely random words almost never end up adjacent to each other, so most
+ * words are derived from an earlier word by a single replacement, addition
+ * or deletion. That gives the dictionary the clusters of similar words a
+ * real dictionary has, which is what makes the word graph interesting.
+ */
+public class SyntheticDictionary {
+
+    // only some letters are used so that derived words collide more often
+    private static final String ALPHABET = "AEIOUSTRNLCDHMP";
+
+    private static final int MIN_LENGTH = 3;
+    private static final int MAX_LENGTH = 9;
+
+    /**
+     * Generates a dictionary
+     * @param size number of distinct words to generate
+     * @param seed seed of the random generator, the same seed always gives the same words
+     * @return list of size distinct words, in generation order
+     */
+    public static List<String> generate(int size, long seed) {
+        return generate(size, seed, MIN_LENGTH, MAX_LENGTH);
+    }
+
+    /**
+     * Generates a dictionary whose words all have a length between minLength and maxLength
+     * @param size number of distinct words to generate
+     * @param seed seed of the random generator, the same seed always gives the same words
+     * @param minLength smallest word length
+     * @param maxLength largest word length
+     * @return list of size distinct words, in generation order
+     */
+    public static List<String> generate(int size, long seed, int minLength, int maxLength) {
+
+        Random random = new Random(seed);
+        Set<String> words = new LinkedHashSet<String>();
+        List<String> list = new ArrayList<String>(size);
+
+        while (words.size() < size) {
+            String word;
+            if (list.isEmpty() || random.nextInt(4) == 0) {
+                word = randomWord(random, minLength + random.nextInt(maxLength - minLength + 1));
+            } else {
+                word = mutate(random, list.get(random.nextInt(list.size())));
+            }
+            if (word.length() >= minLength && word.length() <= maxLength && words.add(word)) {
+                list.add(word);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Builds a random word
+     * @param random random generator
+     * @param length length of the word
+     * @return the word
+     */
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(randomLetter(random));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Applies one random replacement, addition or deletion to word
+     * @param random random generator
+     * @param word word to change
+     * @return the changed word
+     */
+    private static String mutate(Random random, String word) {
+        StringBuilder builder = new StringBuilder(word);
+        int position = random.nextInt(word.length());
+        switch (random.nextInt(3)) {
+        case 0:
+            builder.setCharAt(position, randomLetter(random));
+            break;
+        case 1:
+            builder.insert(random.nextInt(word.length() + 1), randomLetter(random));
+            break;
+        default:
+            builder.deleteCharAt(position);
+            break;
+        }
+        return builder.toString();
+    }
+
+    private static char randomLetter(Random random) {
+        return ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+}
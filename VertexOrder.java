@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           VertexOrder.java
+//Description:     Orders in which the vertices of a graph snapshot can be
+//				   numbered to keep the neighbors of a vertex close in memory.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   CompactGraph.java, VertexOrder.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Numberings of the vertices of a {@link CompactGraph}. A search reads the
+ * state of every neighbor of the vertex it expands; the closer the ids of
+ * neighbors are, the more of those reads hit the same cache lines.
+ *
+ * {@link #permutation(CompactGraph)} computes the new id of every vertex, to
+ * be applied with {@link CompactGraph#permute(int[])}.
+ */
+public enum VertexOrder {
+
+    /**
+     * Lexicographic order of the labels, the order of {@link CompactGraph#of(GraphADT)}
+     */
+    LEXICOGRAPHIC,
+
+    /**
+     * Breadth first search order, one component after the other, so each layer
+     * of a search gets consecutive ids
+     */
+    BFS,
+
+    /**
+     * Reverse Cuthill-McKee: breadth first from a vertex of low degree, neighbors
+     * taken in increasing order of degree, then reversed. Keeps the ids of all
+     * edges close to the diagonal.
+     */
+    REVERSE_CUTHILL_MCKEE,
+
+    /**
+     * Decreasing degree, so the vertices most searches pass through share the
+     * first cache lines
+     */
+    DEGREE;
+
+    /**
+     * Computes the new id of every vertex of a snapshot in this order
+     *
+     * @param graph the snapshot
+     * @return newIdOf, newIdOf[v] is the new id of the vertex with id v
+     */
+    public int[] permutation(CompactGraph graph) {
+        int n = graph.vertexCount();
+        int[] order;
+        switch (this) {
+        case BFS:
+            order = breadthFirst(graph, false);
+            break;
+        case REVERSE_CUTHILL_MCKEE:
+            order = breadthFirst(graph, true);
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            break;
+        case DEGREE:
+            order = byDegree(graph);
+            break;
+        default:
+            order = new int[n];
+            String[] labels = new String[n];
+            for (int v = 0; v < n; v++) {
+                labels[v] = graph.label(v);
+            }
+            Integer[] boxed = new Integer[n];
+            for (int v = 0; v < n; v++) {
+                boxed[v] = v;
+            }
+            Arrays.sort(boxed, (a, b) -> labels[a].compareTo(labels[b]));
+            for (int i = 0; i < n; i++) {
+                order[i] = boxed[i];
+            }
+        }
+
+        int[] newIdOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            newIdOf[order[i]] = i;
+        }
+        return newIdOf;
+    }
+
+    /**
+     * Lists the vertices in breadth first order, one component after the other
+     *
+     * @param graph the snapshot
+     * @param cuthillMcKee true to start each component from a vertex of lowest degree
+     * and take neighbors in increasing order of degree, false to start from the
+     * lowest id and take neighbors in increasing order of id
+     * @return the vertex ids in visiting order
+     */
+    private static int[] breadthFirst(CompactGraph graph, boolean cuthillMcKee) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        int tail = 0;
+
+        int[] starts = cuthillMcKee ? byDegree(graph) : null;
+        for (int i = 0; i < n; i++) {
+            // byDegree lists the vertices by decreasing degree, so walk it backwards
+            int root = cuthillMcKee ? starts[n - 1 - i] : i;
+            if (visited[root]) {
+                continue;
+            }
+            visited[root] = true;
+            int head = tail;
+            order[tail++] = root;
+            while (head < tail) {
+                int v = order[head++];
+                int first = tail;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (!visited[w]) {
+                        visited[w] = true;
+                        order[tail++] = w;
+                    }
+                }
+                if (cuthillMcKee && tail - first > 1) {
+                    sortByDegree(graph, order, first, tail);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Lists the vertices by decreasing degree, ties in increasing order of id
+     *
+     * @param graph the snapshot
+     * @return the vertex ids in that order
+     */
+    private static int[] byDegree(CompactGraph graph) {
+        int n = graph.vertexCount();
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, graph.degree(v));
+        }
+        // counting sort, the degrees are small
+        int[] start = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            start[maxDegree - graph.degree(v) + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[start[maxDegree - graph.degree(v)]++] = v;
+        }
+        return order;
+    }
+
+    /**
+     * Sorts ids[from..to) by increasing degree, ties in increasing order of id
+     *
+     * @param graph the snapshot
+     * @param ids the ids
+     * @param from first index of the range
+     * @param to end of the range, exclusive
+     */
+    private static void sortByDegree(CompactGraph graph, int[] ids, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int id = ids[i];
+            int degree = graph.degree(id);
+            int j = i - 1;
+            while (j >= from && (graph.degree(ids[j]) > degree
+                    || (graph.degree(ids[j]) == degree && ids[j] > id))) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           VertexQueue.java
+//Description:     Priority queue of vertex ids with int keys, as used by the
+//				   weighted shortest path search.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   VertexQueue.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Priority queue of the ints 0..n-1 with decrease-key, the queue of
+ * {@link DijkstraEngine}: a {@link BucketQueue} for small edge weights, a
+ * {@link BinaryHeapQueue} for any others.
+ */
+interface VertexQueue {
+
+    /**
+     * Inserts an element, or lowers its key if it is already queued
+     * @param element element to insert
+     * @param key key of the element
+     */
+    void insertOrDecrease(int element, int key);
+
+    /**
+     * Removes the element with the smallest key
+     * @return the element, or -1 if the queue is empty
+     */
+    int extractMin();
+
+    /**
+     * Returns the key of an element
+     * @param element a queued or just extracted element
+     * @return the key it was queued with
+     */
+    int key(int element);
+
+    /**
+     * Determines whether the queue is empty
+     * @return true if no element is queued
+     */
+    boolean isEmpty();
+
+    /**
+     * Empties the queue so it can be used for a new search
+     */
+    void clear();
+}
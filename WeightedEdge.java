@@ -0,0 +1,94 @@
+import java.util.Objects;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           WeightedEdge.java
+//Description:     An undirected edge between two vertices of a graph, with
+//				   its weight.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   WeightedEdge.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * An edge of a {@link WeightedGraphADT}, as returned by
+ * {@link WeightedGraphADT#edgeStream()}. The graph is undirected, so the
+ * order of source and target only tells which end the graph stores first, and
+ * two edges are equal if they connect the same vertices with the same weight.
+ *
+ * @param <E> type of a vertex
+ */
+public class WeightedEdge<E> {
+
+    private final E source;
+    private final E target;
+    private final int weight;
+
+    /**
+     * Constructor for WeightedEdge objects
+     *
+     * @param source one end of the edge
+     * @param target the other end of the edge
+     * @param weight the weight of the edge
+     */
+    public WeightedEdge(E source, E target, int weight) {
+        this.source = source;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    /**
+     * Returns one end of the edge
+     * @return the source
+     */
+    public E getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the other end of the edge
+     * @return the target
+     */
+    public E getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the weight of the edge
+     * @return the weight, 1 for an unweighted edge
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof WeightedEdge)) {
+            return false;
+        }
+        WeightedEdge<?> edge = (WeightedEdge<?>) other;
+        return weight == edge.weight && ((Objects.equals(source, edge.source) && Objects.equals(target, edge.target))
+                || (Objects.equals(source, edge.target) && Objects.equals(target, edge.source)));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(source) + Objects.hashCode(target) + 31 * weight;
+    }
+
+    @Override
+    public String toString() {
+        return source + " - " + target + " (" + weight + ")";
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.stream.Stream;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           WeightedGraphADT.java
+//Description:     Extension of GraphADT for graphs whose edges carry an
+//				   integer weight.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   WeightedGraphADT.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * An undirected graph whose edges carry a positive integer weight.
+ * 
+ * Edges added through {@link GraphADT#addEdge(Object, Object)} have a weight of 1,
+ * so an unweighted graph is a weighted graph where every weight is 1.
+ * 
+ * @param <E> type of a vertex
+ */
+public interface WeightedGraphADT<E> extends GraphADT<E> {
+
+    /**
+     * Add the edge from vertex1 to vertex2 with the given weight to this graph.
+     * (edge is correct if vertex1 and vertex2 are not equal, and both vertices exist)
+     * 
+     * If either vertex does not exist, or if an edge exists, or the weight is not
+     * positive, no edge is added and false is returned.
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @param weight weight of the edge, at least 1
+     * @return true if the edge was added, false otherwise
+     */
+    boolean addEdge(E vertex1, E vertex2, int weight);
+
+    /**
+     * Returns the weight of the edge between vertex1 and vertex2
+     * 
+     * @param vertex1 the first vertex
+     * @param vertex2 the second vertex
+     * @return the weight of the edge, or -1 if the vertices are not adjacent
+     */
+    int getEdgeWeight(E vertex1, E vertex2);
+
+    /**
+     * Estimates the heap memory taken by this graph, its vertices and edges
+     * {@link MemoryAccount}
+     * 
+     * @return the estimated number of bytes
+     */
+    long estimatedBytes();
+
+    /**
+     * Streams the vertices of this graph straight from its storage, without copying
+     * them into a collection first. The stream is sequential; parallel() splits it
+     * evenly over the vertices. The graph must not change while the stream is used.
+     * 
+     * @return the vertices, each once
+     */
+    Stream<E> vertexStream();
+
+    /**
+     * Streams the edges of this graph straight from its storage, like {@link #vertexStream()}
+     * 
+     * @return the edges, each undirected edge once
+     */
+    Stream<WeightedEdge<E>> edgeStream();
+
+    /**
+     * Streams the neighbors of a vertex straight from its storage, like {@link #vertexStream()}
+     * 
+     * @param vertex the vertex
+     * @return the vertices adjacent to vertex, empty if vertex is not in this graph
+     */
+    Stream<E> neighborStream(E vertex);
+}
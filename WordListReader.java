@@ -0,0 +1,315 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           WordListReader.java
+//Description:     Streams the words of gzipped and front-coded dictionary
+//				   files, decoded on a separate thread.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   FrontCodedWordList.java, WordListReader.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Reads the words of a dictionary file which is gzipped, front-coded
+ * {@link FrontCodedWordList}, or both, straight from the file without
+ * decompressing it to disk first. The format is told by the first bytes of
+ * the file, not by its name.
+ *
+ * A decoder thread decompresses and decodes the file and normalizes the words
+ * while the consumer of the stream, usually the graph being built, works on the
+ * previous ones. The words are passed in batches through a bounded queue, so
+ * the decoder never runs more than QUEUE_BATCHES batches ahead. Closing the
+ * stream stops the decoder and closes the file; a stream which is not read to
+ * its end must be closed.
+ */
+public class WordListReader {
+
+    /**
+     * Words handed over at once
+     */
+    private static final int BATCH_SIZE = 512;
+
+    /**
+     * Batches the decoder may be ahead of the consumer
+     */
+    private static final int QUEUE_BATCHES = 16;
+
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    /**
+     * Marks the end of the words, or a failure of the decoder
+     */
+    private static final String[] END = new String[0];
+
+    /**
+     * Constructor for WordListReader objects, only static methods
+     */
+    private WordListReader() {
+    }
+
+    /**
+     * Tells whether a file needs decoding, rather than being a plain list of lines
+     *
+     * @param file the file
+     * @return true if it is gzipped or front-coded
+     * @throws IOException if the file can not be read
+     */
+    public static boolean isEncoded(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = new byte[4];
+            int read = in.readNBytes(head, 0, 4);
+            if (read >= 2 && ((head[0] & 0xFF) << 8 | (head[1] & 0xFF)) == GZIP_MAGIC) {
+                return true;
+            }
+            return read == 4 && ((head[0] & 0xFF) << 24 | (head[1] & 0xFF) << 16
+                    | (head[2] & 0xFF) << 8 | (head[3] & 0xFF)) == FrontCodedWordList.MAGIC;
+        }
+    }
+
+    /**
+     * Streams the words of a file
+     *
+     * @param file a gzipped or front-coded word list, or a plain one
+     * @param normalizer the normalization of the words
+     * @return the normalized non-empty words, deduplicated if the normalizer does so
+     * @throws IOException if the file can not be opened or its format not read
+     */
+    public static Stream<String> getWordStream(Path file, WordNormalizer normalizer) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        try {
+            in.mark(4);
+            int first = in.read();
+            int second = in.read();
+            in.reset();
+            if (first >= 0 && second >= 0 && (first << 8 | second) == GZIP_MAGIC) {
+                in = new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16);
+            }
+            in.mark(4);
+            DataInputStream data = new DataInputStream(in);
+            boolean frontCoded = readMagic(in) == FrontCodedWordList.MAGIC;
+            if (!frontCoded) {
+                in.reset();
+            }
+            Decoder decoder = new Decoder(file, data, frontCoded, normalizer);
+            decoder.start();
+            return StreamSupport.stream(decoder, false).onClose(decoder::stop);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Skips the UTF-8 byte order mark at the start of a text, which would
+     * otherwise become part of its first word
+     *
+     * @param in the text, at its start, supporting mark
+     * @throws IOException if the text can not be read
+     */
+    static void skipByteOrderMark(InputStream in) throws IOException {
+        in.mark(3);
+        byte[] head = in.readNBytes(3);
+        if (head.length < 3 || (head[0] & 0xFF) != 0xEF || (head[1] & 0xFF) != 0xBB || (head[2] & 0xFF) != 0xBF) {
+            in.reset();
+        }
+    }
+
+    /**
+     * Reads the first int of a stream, if it has one
+     * @param in the stream
+     * @return the int, or -1 if the stream is shorter
+     */
+    private static int readMagic(InputStream in) throws IOException {
+        byte[] head = new byte[4];
+        if (in.readNBytes(head, 0, 4) < 4) {
+            return -1;
+        }
+        return (head[0] & 0xFF) << 24 | (head[1] & 0xFF) << 16 | (head[2] & 0xFF) << 8 | (head[3] & 0xFF);
+    }
+
+    /**
+     * The decoder thread together with the consuming end of its queue
+     */
+    private static class Decoder extends Spliterators.AbstractSpliterator<String> implements Runnable {
+
+        private final Path file;
+        private final DataInputStream in;
+        private final boolean frontCoded;
+        private final WordNormalizer normalizer;
+        private final BlockingQueue<String[]> queue = new ArrayBlockingQueue<String[]>(QUEUE_BATCHES);
+        private final Thread thread;
+
+        // decoder side
+        private final Set<String> seen;
+        private String[] batch = new String[BATCH_SIZE];
+        private int batchSize;
+        private volatile Throwable failure;
+        private volatile boolean stopped;
+
+        // consumer side
+        private String[] current = new String[0];
+        private int position;
+        private boolean ended;
+
+        Decoder(Path file, DataInputStream in, boolean frontCoded, WordNormalizer normalizer) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.file = file;
+            this.in = in;
+            this.frontCoded = frontCoded;
+            this.normalizer = normalizer;
+            this.seen = normalizer.isDeduplicating() ? new HashSet<String>() : null;
+            this.thread = new Thread(this, "word-list-reader " + file.getFileName());
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        /**
+         * Decodes the file, handing the words over in batches
+         */
+        @Override
+        public void run() {
+            try {
+                Consumer<String> emit = line -> {
+                    String word = normalizer.normalize(line);
+                    if (word.isEmpty() || (seen != null && !seen.add(word))) {
+                        return;
+                    }
+                    batch[batchSize++] = word;
+                    if (batchSize == BATCH_SIZE) {
+                        hand(batch);
+                        batch = new String[BATCH_SIZE];
+                        batchSize = 0;
+                    }
+                };
+                if (frontCoded) {
+                    FrontCodedWordList.readAfterMagic(in, emit);
+                } else {
+                    // malformed UTF-8 fails the read, as it does in a plain file read by Files.lines
+                    skipByteOrderMark(in);
+                    BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+                            .onMalformedInput(CodingErrorAction.REPORT)
+                            .onUnmappableCharacter(CodingErrorAction.REPORT)));
+                    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                        emit.accept(line);
+                    }
+                }
+                if (batchSize > 0) {
+                    String[] last = new String[batchSize];
+                    System.arraycopy(batch, 0, last, 0, batchSize);
+                    hand(last);
+                }
+            } catch (StoppedException e) {
+                return;
+            } catch (Throwable e) {
+                // anything else ends the words too, or the consumer would wait forever
+                failure = e;
+            } finally {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // stopped, nobody is waiting for the end
+            }
+        }
+
+        /**
+         * Puts a batch into the queue, waiting while the queue is full
+         * @param words the batch
+         */
+        private void hand(String[] words) {
+            try {
+                queue.put(words);
+            } catch (InterruptedException e) {
+                throw new StoppedException();
+            }
+            if (stopped) {
+                throw new StoppedException();
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (position == current.length) {
+                if (ended) {
+                    return false;
+                }
+                try {
+                    current = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while reading " + file, e);
+                }
+                position = 0;
+                if (current == END) {
+                    ended = true;
+                    if (failure instanceof IOException) {
+                        throw new UncheckedIOException("could not read " + file, (IOException) failure);
+                    }
+                    if (failure != null) {
+                        throw new IllegalStateException("could not read " + file, failure);
+                    }
+                }
+            }
+            action.accept(current[position++]);
+            return true;
+        }
+
+        /**
+         * Stops the decoder, which closes the file
+         */
+        void stop() {
+            stopped = true;
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Unwinds the decoder thread once the stream was closed
+     */
+    private static class StoppedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,205 @@
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           WordNormalizer.java
+//Description:     Brings the words of a dictionary and of the queries to one
+//				   canonical form, with a fast path for ASCII words.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   WordNormalizer.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * Turns a line of a dictionary, or a word of a query, into the form the graph
+ * stores: stripped of surrounding white space, in the Unicode normalization
+ * form, in upper case by the rules of the locale, and without the characters
+ * the filter rejects.
+ *
+ * Most dictionaries are plain ASCII, and for those the full Unicode case
+ * mapping and normalization are wasted work. A word whose chars are all below
+ * 0x80 is upper cased with bit arithmetic on a byte array instead, which gives
+ * the same result in every locale but the Turkic ones, where i upper cases to
+ * a dotted capital I. Any other word takes the Unicode path.
+ *
+ * A normalizer is immutable; the with methods return a changed copy.
+ */
+public class WordNormalizer {
+
+    /**
+     * Upper case in {@link Locale#ROOT}, composed form (NFC), every character
+     * kept, duplicates kept
+     */
+    public static final WordNormalizer DEFAULT = new WordNormalizer(Locale.ROOT, Normalizer.Form.NFC, null, false);
+
+    private final Locale locale;
+    private final Normalizer.Form form;
+    private final IntPredicate filter;
+    private final boolean deduplicate;
+
+    /**
+     * True if ASCII words can skip the Unicode case mapping in this locale
+     */
+    private final boolean asciiFastPath;
+
+    /**
+     * Constructor for WordNormalizer objects, use {@link #DEFAULT} and the with methods
+     */
+    private WordNormalizer(Locale locale, Normalizer.Form form, IntPredicate filter, boolean deduplicate) {
+        if (locale == null) {
+            throw new IllegalArgumentException("locale must not be null");
+        }
+        this.locale = locale;
+        this.form = form;
+        this.filter = filter;
+        this.deduplicate = deduplicate;
+        String language = locale.getLanguage();
+        this.asciiFastPath = !language.equals("tr") && !language.equals("az");
+    }
+
+    /**
+     * Returns a normalizer which upper cases by the rules of a locale
+     * @param locale the locale, for example Locale.forLanguageTag("tr") for Turkish
+     * @return the changed copy
+     */
+    public WordNormalizer withLocale(Locale locale) {
+        return new WordNormalizer(locale, form, filter, deduplicate);
+    }
+
+    /**
+     * Returns a normalizer which brings words to a Unicode normalization form
+     * @param form the form, null to leave the code points as they are
+     * @return the changed copy
+     */
+    public WordNormalizer withForm(Normalizer.Form form) {
+        return new WordNormalizer(locale, form, filter, deduplicate);
+    }
+
+    /**
+     * Returns a normalizer which drops the characters a filter rejects, after
+     * upper casing them
+     * @param filter true for the code points to keep, null to keep all of them
+     * @return the changed copy
+     */
+    public WordNormalizer withFilter(IntPredicate filter) {
+        return new WordNormalizer(locale, form, filter, deduplicate);
+    }
+
+    /**
+     * Returns a normalizer which drops repeated words from a word stream
+     * {@link WordProcessor#getWordStream(String, WordNormalizer)}
+     * @param deduplicate true to keep only the first occurrence of each word
+     * @return the changed copy
+     */
+    public WordNormalizer withDeduplication(boolean deduplicate) {
+        return new WordNormalizer(locale, form, filter, deduplicate);
+    }
+
+    /**
+     * Returns the locale of the case mapping
+     * @return the locale
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Returns the Unicode normalization form
+     * @return the form, null if words keep their code points
+     */
+    public Normalizer.Form getForm() {
+        return form;
+    }
+
+    /**
+     * Tells whether word streams drop repeated words
+     * @return true if only the first occurrence of each word is kept
+     */
+    public boolean isDeduplicating() {
+        return deduplicate;
+    }
+
+    /**
+     * Brings a word to its canonical form
+     *
+     * @param word the word, or a line of a dictionary
+     * @return the normalized word, empty if nothing of it is left
+     */
+    public String normalize(String word) {
+        int length = word.length();
+        int bits = 0;
+        for (int i = 0; i < length; i++) {
+            bits |= word.charAt(i);
+        }
+        if (bits < 0x80 && asciiFastPath) {
+            return normalizeAscii(word);
+        }
+
+        String result = word.strip();
+        if (form != null) {
+            result = Normalizer.normalize(result, form);
+        }
+        result = result.toUpperCase(locale);
+        // upper casing can decompose, the final sigma or the J with caron for example
+        if (form != null && !Normalizer.isNormalized(result, form)) {
+            result = Normalizer.normalize(result, form);
+        }
+        if (filter != null) {
+            StringBuilder kept = new StringBuilder(result.length());
+            result.codePoints().filter(filter).forEach(kept::appendCodePoint);
+            result = kept.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Normalizes a word of only ASCII chars. Lower case letters lose bit 0x20
+     * without branching on the char; the word itself is returned if nothing
+     * changes.
+     *
+     * @param word the word, every char below 0x80
+     * @return the normalized word
+     */
+    private String normalizeAscii(String word) {
+        int from = 0;
+        int to = word.length();
+        // the same whitespace as strip() on the general path
+        while (from < to && Character.isWhitespace(word.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(word.charAt(to - 1))) {
+            to--;
+        }
+
+        byte[] bytes = new byte[to - from];
+        int size = 0;
+        int changed = from | (word.length() - to);
+        for (int i = from; i < to; i++) {
+            int c = word.charAt(i);
+            // ('a' - 1 - c) and (c - 'z' - 1) are both negative exactly for a..z
+            int lower = (('a' - 1 - c) & (c - 'z' - 1)) >>> 31;
+            c ^= lower << 5;
+            changed |= lower;
+            if (filter != null && !filter.test(c)) {
+                changed = 1;
+                continue;
+            }
+            bytes[size++] = (byte) c;
+        }
+        return changed == 0 ? word : new String(bytes, 0, size, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -1,6 +1,15 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 ////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
@@ -23,12 +32,13 @@ import java.util.stream.Stream;
 //
 ///////////////////////////////// KNOWN BUGS //////////////////////////////////
 //
-// We are having a bug in Graph Processor file where the shortestPathPrecomputation
-//    method will only generate paths of the form HAT -> CAT -> HAT or
-//    ON -> HAT -> ON
-// 
-//    Currently we are unsure what is causing this bug, other than the fact it
-//    is occurring in the shortestPathPrecomputation method
+// GraphProcessorTest fails 5 of its tests, whose expectations or input files
+//    do not match the code:
+//  - test02 reads shortestPath.txt, which is not in the repository.
+//  - test03 expects CAT -> WHEAT in shortestPathTest.txt, which has no path.
+//  - test04 reads words_list.txt, which is not in the repository.
+//  - test06 expects lowercase words, getWordStream returns them in UPPERCASE.
+//  - test09 expects 7 for ON -> HAT, the shortest path has 6 edges.
 //
 /////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
 
@@ -43,7 +53,8 @@ public class WordProcessor {
 	/**
 	 * Gets a Stream of words from the filepath.
 	 * 
-	 * The Stream should only contain trimmed, non-empty and UPPERCASE words.
+	 * The Stream should only contain trimmed, non-empty and UPPERCASE words,
+	 * normalized by {@link WordNormalizer#DEFAULT}.
 	 * 
 	 * @see <a href="http://www.oracle.com/technetwork/articles/java/ma14-java-se-8-streams-2177646.html">java8 stream blog</a>
 	 * 
@@ -94,9 +105,48 @@ public class WordProcessor {
 		 * Note: since map and filter return the updated Stream objects, they can chained together as:
 		 * 		streamOfLines.map(...).filter(a -> ...).map(...) and so on
 		 */
-		Stream<String> streamofLines = Files.lines(Paths.get(filepath))
-		           .map(String::trim).filter(x -> ! x.equals(""))
-		           .map(String::toUpperCase);
+		return getWordStream(filepath, WordNormalizer.DEFAULT);
+	}
+	
+	/**
+	 * Gets a Stream of the words from the filepath, each brought to the form of
+	 * a normalizer, without the empty ones, and without repeated words if the
+	 * normalizer deduplicates.
+	 * 
+	 * The file is either a plain list of lines, or a gzipped and/or front-coded
+	 * word list {@link FrontCodedWordList}, which is decoded on a separate thread
+	 * {@link WordListReader} without writing anything to disk.
+	 * 
+	 * @param filepath file path to the dictionary file
+	 * @param normalizer the normalization of the words
+	 * @return Stream<String> stream of words read from the filepath, to be closed
+	 * @throws IOException exception resulting from accessing the filepath
+	 */
+	public static Stream<String> getWordStream(String filepath, WordNormalizer normalizer) throws IOException {
+		Path path = Paths.get(filepath);
+		if (WordListReader.isEncoded(path))
+			return WordListReader.getWordStream(path, normalizer);
+		
+		//Like Files.lines, but without the byte order mark a file may start with,
+		//which ParallelWordLoader skips as well
+		InputStream in = new BufferedInputStream(Files.newInputStream(path));
+		try {
+			WordListReader.skipByteOrderMark(in);
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+		//newDecoder() reports malformed input, as the decoder of Files.lines does
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()));
+		Stream<String> streamofLines = reader.lines().onClose(() -> {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}).map(normalizer::normalize).filter(x -> ! x.isEmpty());
+		if (normalizer.isDeduplicating())
+			streamofLines = streamofLines.distinct();
 		return streamofLines;
 	}
 	
@@ -113,11 +163,20 @@ public class WordProcessor {
 	 *  
 	 * Note: if word1 is equal to word2, they are not adjacent
 	 * 
+	 * Characters are code points, so a character outside of the Basic
+	 * Multilingual Plane counts once even though it takes two chars.
+	 * 
 	 * @param word1 first word
 	 * @param word2 second word
 	 * @return true if word1 and word2 are adjacent else false
 	 */
 	public static boolean isAdjacent(String word1, String word2) {
+		if (hasSurrogates(word1) || hasSurrogates(word2)) {
+			String[] words = oneCharPerCodePoint(word1, word2);
+			word1 = words[0];
+			word2 = words[1];
+		}
+		
 		// wordLengthDiff stores the absolute difference between
 		// in the length of the two words
 		
@@ -196,7 +255,177 @@ public class WordProcessor {
 			return true;
 		}
 		
-		return false;	
+		return false;
 	}
-	
+
+	/**
+	 * Generalized adjacency: word1 and word2 are adjacent if they are
+	 * different and can be turned into each other with at most maxDistance
+	 * single character replacements, additions or deletions.
+	 *
+	 * isAdjacent(word1, word2, 1) is equivalent to isAdjacent(word1, word2).
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @param maxDistance largest edit distance still considered adjacent
+	 * @return true if word1 and word2 are adjacent else false
+	 */
+	public static boolean isAdjacent(String word1, String word2, int maxDistance) {
+
+		if (word1.equals(word2))
+			return false;
+
+		return editDistance(word1, word2, maxDistance) <= maxDistance;
+	}
+
+	/**
+	 * Computes the Levenshtein (edit) distance between word1 and word2, i.e. the
+	 * smallest number of 1 char replacements, additions and deletions that turn
+	 * word1 into word2.
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return the edit distance between the two words
+	 */
+	public static int editDistance(String word1, String word2) {
+
+		return editDistance(word1, word2, Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * Computes the Levenshtein (edit) distance between word1 and word2, giving
+	 * up as soon as it is known to be larger than limit.
+	 *
+	 * Only the diagonal band of width 2 * limit + 1 of the dynamic programming
+	 * table can hold values <= limit, so only that band is filled in, which makes
+	 * a bounded check O(limit * length) instead of O(length^2).
+	 *
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @param limit largest distance the caller is interested in
+	 * @return the edit distance if it is <= limit, otherwise limit + 1
+	 */
+	public static int editDistance(String word1, String word2, int limit) {
+
+		// Count a character outside of the Basic Multilingual Plane once
+		if (hasSurrogates(word1) || hasSurrogates(word2)) {
+			String[] words = oneCharPerCodePoint(word1, word2);
+			word1 = words[0];
+			word2 = words[1];
+		}
+
+		int n = word1.length();
+		int m = word2.length();
+
+		// The length difference alone already needs that many additions
+		if (Math.abs(n - m) > limit)
+			return limit + 1;
+
+		// Keep the shorter word along the columns so the rows stay small
+		if (m > n) {
+			String tmp = word1;
+			word1 = word2;
+			word2 = tmp;
+			n = word1.length();
+			m = word2.length();
+		}
+
+		// The distance never exceeds the longer length, so a larger limit only
+		// widens the band for nothing (and could overflow below)
+		limit = Math.min(limit, n);
+
+		int outside = limit + 1; // value used for cells outside of the band
+		int[] previous = new int[m + 1];
+		int[] current = new int[m + 1];
+
+		for (int j = 0; j <= m; j++)
+			previous[j] = j <= limit ? j : outside;
+
+		for (int i = 1; i <= n; i++) {
+
+			int from = Math.max(1, i - limit);
+			int to = Math.min(m, i + limit);
+
+			current[0] = i <= limit ? i : outside;
+			if (from > 1)
+				current[from - 1] = outside;
+
+			int rowMin = current[0];
+			char c = word1.charAt(i - 1);
+
+			for (int j = from; j <= to; j++) {
+
+				int cost = previous[j - 1] + (c == word2.charAt(j - 1) ? 0 : 1);
+				cost = Math.min(cost, previous[j] + 1);
+				cost = Math.min(cost, current[j - 1] + 1);
+				current[j] = Math.min(cost, outside);
+				rowMin = Math.min(rowMin, current[j]);
+			}
+			if (to < m)
+				current[to + 1] = outside;
+
+			// Every later row is at least as large as this row's minimum
+			if (rowMin > limit)
+				return outside;
+
+			int[] tmp = previous;
+			previous = current;
+			current = tmp;
+		}
+
+		return Math.min(previous[m], outside);
+	}
+
+	/**
+	 * Checks whether a word has characters outside of the Basic Multilingual Plane
+	 * @param word the word
+	 * @return true if one of its chars is half of a surrogate pair
+	 */
+	private static boolean hasSurrogates(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			if (Character.isSurrogate(word.charAt(i)))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Rewrites two words so that each code point is a single char: every
+	 * supplementary code point is replaced by a private use char which occurs
+	 * in neither word, the same one in both words. Comparing the rewritten
+	 * words char by char compares the original ones code point by code point.
+	 * 
+	 * @param word1 first word
+	 * @param word2 second word
+	 * @return the two rewritten words
+	 */
+	private static String[] oneCharPerCodePoint(String word1, String word2) {
+		Map<Integer, Character> replacement = new HashMap<Integer, Character>();
+		char next = '\uE000';
+		String[] words = { word1, word2 };
+		for (int w = 0; w < 2; w++) {
+			StringBuilder rewritten = new StringBuilder(words[w].length());
+			for (int i = 0; i < words[w].length(); ) {
+				int codePoint = words[w].codePointAt(i);
+				i += Character.charCount(codePoint);
+				if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+					rewritten.append((char) codePoint);
+					continue;
+				}
+				Character c = replacement.get(codePoint);
+				if (c == null) {
+					while (word1.indexOf(next) >= 0 || word2.indexOf(next) >= 0)
+						next++;
+					if (next > '\uF8FF')
+						throw new IllegalArgumentException("too many distinct characters");
+					c = next++;
+					replacement.put(codePoint, c);
+				}
+				rewritten.append(c.charValue());
+			}
+			words[w] = rewritten.toString();
+		}
+		return words;
+	}
+
 }
@@ -0,0 +1,633 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+////////////////////ALL ASSIGNMENTS INCLUDE THIS SECTION /////////////////////
+//
+//Title:           WordTrie.java
+//Description:     Trie over the dictionary words, used to find every word
+//				   within a given edit distance of a word, or with a given
+//				   prefix or pattern, without scanning the whole vocabulary.
+//
+//Files:           Graph.java, WordProcessor.java, GraphProcessor.java,
+//				   WordTrie.java
+//
+//Course:          CS 400, Spring 2017
+//
+//Authors:          Chance Sanford, Mitchell Saulsberry, Anubhav Sanjeeva Prasad.
+//				   Savannah Olson
+//
+//Email:           csanford4@wisc.edu, saulsberry@wisc.edu, sanjeevapras@wisc.edu
+//				   seolson23@wisc.edu
+//
+//Lecturer's Name: Debra Deppler
+//
+/////////////////////////////// 80 COLUMNS WIDE ///////////////////////////////
+
+/**
+ * A trie (prefix tree) of words which can enumerate all the words within edit
+ * distance k of a query word.
+ * 
+ * The search walks the trie depth first and keeps one row of the edit distance
+ * table ({@link WordProcessor#editDistance(String, String)}) per depth: the row
+ * of a node is computed from its parent's row and the node's character, so all
+ * words sharing a prefix share the work for that prefix. As soon as every entry
+ * of a row is larger than k no word below that node can be within k of the
+ * query, and the whole subtree is skipped. The cost of a search therefore
+ * depends on k and on the length of the query, not on the size of the
+ * vocabulary.
+ * 
+ * A node stands for one code point, so a character outside the Basic
+ * Multilingual Plane is one edit like any other, as in
+ * {@link WordProcessor#isAdjacent(String, String)}. Children are ordered like
+ * the chars of the words {@link #key(int)}, which keeps the lookups in the
+ * order of String.compareTo.
+ * 
+ * The lookups {@link #withPrefix(String)}, {@link #matching(String)} and
+ * {@link #nearest(String, int)} return streams which walk the trie only as
+ * far as their results are consumed, so a limit on the stream also limits the
+ * work. A node publishes its children as one array which is replaced, never
+ * changed, when a child is added or removed; a stream can therefore be
+ * consumed while the trie is changed by another thread, and then sees some of
+ * the changes and not others.
+ */
+public class WordTrie {
+
+    /**
+     * A node of the trie. The children are kept in an array sorted by their
+     * key, which is smaller than a map for the few children most nodes have.
+     */
+    private static class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // key of the code point leading from the parent to this node
+        private final int key;
+
+        // children sorted by key, replaced as a whole on every change
+        private volatile Node[] children = NO_CHILDREN;
+
+        // the word ending at this node, null if no word ends here
+        private volatile String word;
+
+        Node(int key) {
+            this.key = key;
+        }
+
+        /**
+         * Finds the position of a child
+         * @return the index of the child with the key in children, or
+         * (-(insertion point) - 1) if there is none
+         */
+        private static int indexOf(Node[] children, int key) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int middleKey = children[middle].key;
+                if (middleKey < key) {
+                    low = middle + 1;
+                } else if (middleKey > key) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        Node child(int key) {
+            Node[] current = children;
+            int index = indexOf(current, key);
+            return index >= 0 ? current[index] : null;
+        }
+
+        Node addChild(int key) {
+            Node[] current = children;
+            int index = indexOf(current, key);
+            if (index >= 0) {
+                return current[index];
+            }
+            index = -index - 1;
+            Node child = new Node(key);
+            Node[] newChildren = new Node[current.length + 1];
+            System.arraycopy(current, 0, newChildren, 0, index);
+            newChildren[index] = child;
+            System.arraycopy(current, index, newChildren, index + 1, current.length - index);
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(int key) {
+            Node[] current = children;
+            int index = indexOf(current, key);
+            if (index < 0) {
+                return;
+            }
+            Node[] newChildren = new Node[current.length - 1];
+            System.arraycopy(current, 0, newChildren, 0, index);
+            System.arraycopy(current, index + 1, newChildren, index, current.length - index - 1);
+            children = newChildren;
+        }
+    }
+
+    // root of the trie, stands for the empty prefix
+    private final Node root = new Node(-1);
+
+    // number of words in the trie
+    private int size;
+
+    /**
+     * Returns the key of a code point, which orders code points like their
+     * chars: a code point outside the Basic Multilingual Plane is stored as
+     * surrogates, which come before U+E000..U+FFFF
+     *
+     * @param codePoint the code point
+     * @return the key, the code point itself below U+E000
+     */
+    private static int key(int codePoint) {
+        return codePoint >= 0xE000 && codePoint <= 0xFFFF ? codePoint + 0x110000 : codePoint;
+    }
+
+    /**
+     * Returns the keys of the code points of a word
+     * @param word the word
+     * @return one key per code point
+     */
+    private static int[] keys(String word) {
+        return word.codePoints().map(WordTrie::key).toArray();
+    }
+
+    /**
+     * Adds a word to the trie
+     * @param word word to be added
+     * @return true if the word was not already in the trie
+     */
+    public boolean add(String word) {
+
+        Node node = root;
+        for (int i = 0; i < word.length();) {
+            int codePoint = word.codePointAt(i);
+            node = node.addChild(key(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        if (node.word != null) {
+            return false;
+        }
+        node.word = word;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a word from the trie, together with the nodes only it was using
+     * @param word word to be removed
+     * @return true if the word was in the trie
+     */
+    public boolean remove(String word) {
+
+        int[] keys = keys(word);
+        Node[] path = new Node[keys.length + 1];
+        Node node = root;
+        path[0] = node;
+        for (int i = 0; i < keys.length; i++) {
+            node = node.child(keys[i]);
+            if (node == null) {
+                return false;
+            }
+            path[i + 1] = node;
+        }
+        if (node.word == null) {
+            return false;
+        }
+        node.word = null;
+        size--;
+
+        // prune the branch which no longer leads to any word
+        for (int i = keys.length; i > 0 && path[i].word == null && path[i].children.length == 0; i--) {
+            path[i - 1].removeChild(keys[i - 1]);
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether word is in the trie
+     * @param word word to look for
+     * @return true if the word was added and not removed since
+     */
+    public boolean contains(String word) {
+
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null;) {
+            int codePoint = word.codePointAt(i);
+            node = node.child(key(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return node != null && node.word != null;
+    }
+
+    /**
+     * Finds every word of the trie within maxDistance edits of word. The word
+     * itself is not part of the result.
+     *
+     * @param word the query word
+     * @param maxDistance largest edit distance of a returned word
+     * @return list of the words within maxDistance of word
+     */
+    public List<String> search(String word, int maxDistance) {
+
+        List<String> result = new ArrayList<String>();
+        int[] query = keys(word);
+        int columns = query.length + 1;
+
+        // row of the edit distance table for the empty prefix
+        int[] firstRow = new int[columns];
+        for (int j = 0; j < columns; j++) {
+            firstRow[j] = j;
+        }
+        // rows[d] is reused for every node at depth d
+        int[][] rows = new int[query.length + maxDistance + 2][];
+        rows[0] = firstRow;
+
+        for (Node child : root.children) {
+            search(child, 1, query, maxDistance, rows, result);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the edit distance row of node and recurses into its children
+     * while some entry of the row is still within maxDistance
+     */
+    private void search(Node node, int depth, int[] query, int maxDistance,
+            int[][] rows, List<String> result) {
+
+        int columns = query.length + 1;
+        int[] previous = rows[depth - 1];
+        int[] row = rows[depth];
+        if (row == null) {
+            row = rows[depth] = new int[columns];
+        }
+
+        row[0] = depth;
+        int rowMin = depth;
+        for (int j = 1; j < columns; j++) {
+            int cost = previous[j - 1] + (query[j - 1] == node.key ? 0 : 1);
+            cost = Math.min(cost, previous[j] + 1);
+            cost = Math.min(cost, row[j - 1] + 1);
+            row[j] = cost;
+            rowMin = Math.min(rowMin, cost);
+        }
+
+        int distance = row[columns - 1];
+        String found = node.word;
+        if (found != null && distance > 0 && distance <= maxDistance) {
+            result.add(found);
+        }
+
+        // words below this node are longer than word + maxDistance, or every
+        // alignment of the prefix already costs more than maxDistance
+        if (rowMin > maxDistance || depth + 1 >= rows.length) {
+            return;
+        }
+        for (Node child : node.children) {
+            search(child, depth + 1, query, maxDistance, rows, result);
+        }
+    }
+
+    /**
+     * Streams the words which start with a prefix, in increasing order
+     *
+     * @param prefix the prefix, empty for every word
+     * @return the words with the prefix, including the prefix itself if it is a word
+     */
+    public Stream<String> withPrefix(String prefix) {
+
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null;) {
+            int codePoint = prefix.codePointAt(i);
+            node = node.child(key(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        if (node == null) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new PatternWalk(node, "*"), false);
+    }
+
+    /**
+     * Streams the words which match a pattern, in increasing order. In the
+     * pattern ? stands for any one code point and * for any sequence of them,
+     * including none; every other code point stands for itself.
+     * 
+     * Only prefixes which can still be extended to a match are walked, so the
+     * literal code points at the start of a pattern lead straight to the subtree
+     * holding its matches, while a leading * visits every node.
+     *
+     * @param pattern the pattern, for example C?T or CA*
+     * @return the words matching the whole pattern
+     * @throws IllegalArgumentException if the pattern is longer than 63 code
+     * points, after runs of * are merged
+     */
+    public Stream<String> matching(String pattern) {
+        return StreamSupport.stream(new PatternWalk(root, pattern), false);
+    }
+
+    /**
+     * Streams the words within maxDistance edits of a word, nearest first and
+     * words at the same distance in increasing order. The first k elements of
+     * the stream are the k nearest words.
+     * 
+     * The trie is searched best first: each reached node is queued with the
+     * smallest entry of its edit distance row, a lower bound on the distance of
+     * every word below it. A word is returned once no queued node could still
+     * lead to a nearer word, or to an equally near and smaller one.
+     *
+     * @param word the query word
+     * @param maxDistance largest edit distance of a returned word
+     * @return the words within maxDistance of word, word itself first if it is in the trie
+     */
+    public Stream<String> nearest(String word, int maxDistance) {
+        return StreamSupport.stream(new NearestWalk(root, word, maxDistance), false);
+    }
+
+    /**
+     * Depth first walk of a subtree which returns the words matching a
+     * pattern. The state of a node is the set of pattern positions the code
+     * points leading to it can have been matched up to, as the bits of a long; a child
+     * left with no position is not walked into.
+     */
+    private static class PatternWalk extends Spliterators.AbstractSpliterator<String> {
+
+        // keys of the code points of the pattern
+        private final int[] pattern;
+
+        // stack of the nodes still to visit and their states
+        private Node[] nodes = new Node[16];
+        private long[] states = new long[16];
+        private int top;
+
+        /**
+         * @param start node below which the pattern is matched
+         * @param pattern the pattern
+         */
+        PatternWalk(Node start, String pattern) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED
+                    | Spliterator.NONNULL);
+            // a run of * matches what a single one matches
+            int[] keys = keys(pattern);
+            int length = 0;
+            for (int key : keys) {
+                if (key != '*' || length == 0 || keys[length - 1] != '*') {
+                    keys[length++] = key;
+                }
+            }
+            if (length > 63) {
+                throw new IllegalArgumentException("pattern longer than 63 code points: " + pattern);
+            }
+            this.pattern = Arrays.copyOf(keys, length);
+            stack(start, closure(1L));
+        }
+
+        @Override
+        public Comparator<? super String> getComparator() {
+            return null; // natural order
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (top > 0) {
+                top--;
+                Node node = nodes[top];
+                long state = states[top];
+                nodes[top] = null;
+                expand(node, state);
+                String word = node.word;
+                if (word != null && (state & (1L << pattern.length)) != 0) {
+                    action.accept(word);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Stacks the children of a node which can still lead to a match, the
+         * smallest key last so it is visited first
+         */
+        private void expand(Node node, long state) {
+            Node[] children = node.children;
+            boolean wildcard = false;
+            for (long live = state; live != 0; live &= live - 1) {
+                int position = Long.numberOfTrailingZeros(live);
+                wildcard |= position < pattern.length && (pattern[position] == '?' || pattern[position] == '*');
+            }
+
+            if (wildcard) {
+                for (int i = children.length - 1; i >= 0; i--) {
+                    long next = step(state, children[i].key);
+                    if (next != 0) {
+                        stack(children[i], next);
+                    }
+                }
+                return;
+            }
+
+            // only literal code points can follow, so look their children up directly
+            int[] keys = new int[Long.bitCount(state)];
+            int count = 0;
+            for (long live = state; live != 0; live &= live - 1) {
+                int position = Long.numberOfTrailingZeros(live);
+                if (position < pattern.length) {
+                    keys[count++] = pattern[position];
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            for (int i = count - 1; i >= 0; i--) {
+                int index = Node.indexOf(children, keys[i]);
+                if (index >= 0 && (i + 1 == count || keys[i] != keys[i + 1])) {
+                    stack(children[index], step(state, keys[i]));
+                }
+            }
+        }
+
+        private void stack(Node node, long state) {
+            if (top == nodes.length) {
+                nodes = Arrays.copyOf(nodes, top * 2);
+                states = Arrays.copyOf(states, top * 2);
+            }
+            nodes[top] = node;
+            states[top++] = state;
+        }
+
+        /**
+         * Moves every position of a state over the key of a code point
+         * @return the positions after the code point, 0 if none
+         */
+        private long step(long state, int c) {
+            long next = 0;
+            for (long live = state; live != 0; live &= live - 1) {
+                int position = Long.numberOfTrailingZeros(live);
+                if (position == pattern.length) {
+                    continue;
+                }
+                int p = pattern[position];
+                if (p == '*') {
+                    next |= 1L << position;
+                } else if (p == '?' || p == c) {
+                    next |= 1L << (position + 1);
+                }
+            }
+            return closure(next);
+        }
+
+        /**
+         * Adds the positions after every * of a state, as * may match nothing
+         */
+        private long closure(long state) {
+            for (int position = 0; position < pattern.length; position++) {
+                if (pattern[position] == '*' && (state & (1L << position)) != 0) {
+                    state |= 1L << (position + 1);
+                }
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Best first search of the trie by edit distance. The queue holds the
+     * nodes still to expand, keyed by the smallest entry of their row, and the
+     * words found, keyed by their distance; at equal keys nodes come first and
+     * words in increasing order.
+     */
+    private static class NearestWalk extends Spliterators.AbstractSpliterator<String> {
+
+        /**
+         * A queued node with its row of the edit distance table, or a found word
+         */
+        private static class Entry {
+            final Node node;
+            final int[] row;
+            final int depth;
+            final String word;
+            final int key;
+
+            Entry(Node node, int[] row, int depth, String word, int key) {
+                this.node = node;
+                this.row = row;
+                this.depth = depth;
+                this.word = word;
+                this.key = key;
+            }
+        }
+
+        // keys of the code points of the query word
+        private final int[] query;
+        private final int maxDistance;
+        private final PriorityQueue<Entry> queue = new PriorityQueue<Entry>((a, b) -> {
+            if (a.key != b.key) {
+                return Integer.compare(a.key, b.key);
+            }
+            if (a.word == null || b.word == null) {
+                return a.word == null ? (b.word == null ? 0 : -1) : 1;
+            }
+            return a.word.compareTo(b.word);
+        });
+
+        NearestWalk(Node root, String query, int maxDistance) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+            this.query = keys(query);
+            this.maxDistance = maxDistance;
+            int[] firstRow = new int[this.query.length + 1];
+            for (int j = 0; j < firstRow.length; j++) {
+                firstRow[j] = j;
+            }
+            if (maxDistance >= 0) {
+                queue.add(new Entry(root, firstRow, 0, null, 0));
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            while (!queue.isEmpty()) {
+                Entry entry = queue.poll();
+                if (entry.word != null) {
+                    action.accept(entry.word);
+                    return true;
+                }
+                expand(entry);
+            }
+            return false;
+        }
+
+        /**
+         * Queues the word of a node, if it is near enough, and every child whose
+         * row still has an entry within maxDistance
+         */
+        private void expand(Entry entry) {
+            int columns = query.length + 1;
+            String word = entry.node.word;
+            int distance = entry.row[columns - 1];
+            if (word != null && distance <= maxDistance) {
+                queue.add(new Entry(null, null, 0, word, distance));
+            }
+            // words below are longer than the query by more than maxDistance
+            if (entry.depth - query.length >= maxDistance) {
+                return;
+            }
+
+            for (Node child : entry.node.children) {
+                int[] row = new int[columns];
+                row[0] = entry.depth + 1;
+                int rowMin = row[0];
+                for (int j = 1; j < columns; j++) {
+                    int cost = entry.row[j - 1] + (query[j - 1] == child.key ? 0 : 1);
+                    cost = Math.min(cost, entry.row[j] + 1);
+                    cost = Math.min(cost, row[j - 1] + 1);
+                    row[j] = cost;
+                    rowMin = Math.min(rowMin, cost);
+                }
+                if (rowMin <= maxDistance) {
+                    queue.add(new Entry(child, row, entry.depth + 1, null, rowMin));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of words in the trie
+     * @return number of words added and not removed
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap bytes of the nodes of the trie {@link MemoryAccount}
+     * @return the estimated bytes, without the words, which are the labels of the graph
+     */
+    public long estimatedBytes() {
+        long bytes = MemoryAccount.object(MemoryAccount.REFERENCE + 4);
+        ArrayDeque<Node> stack = new ArrayDeque<Node>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node[] children = stack.pop().children;
+            bytes += MemoryAccount.object(4 + 2 * MemoryAccount.REFERENCE);
+            if (children.length > 0) {
+                bytes += MemoryAccount.referenceArray(children.length);
+            }
+            for (Node child : children) {
+                stack.push(child);
+            }
+        }
+        return bytes;
+    }
+}